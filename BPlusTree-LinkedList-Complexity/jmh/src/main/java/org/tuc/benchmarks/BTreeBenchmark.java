@@ -0,0 +1,110 @@
+package org.tuc.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.tuc.btree.BTree;
+
+/**
+ * JMH benchmark of {@link BTree#insert}, {@link BTree#search} and {@link BTree#delete} for the
+ * orders of {@code TestTrial} and several key counts. The times are per operation, the average of
+ * a batch of {@value Workload#BATCH} operations. {@link MapBaselineBenchmark} runs the same
+ * workloads on the maps of the JDK.
+ *
+ * <p>The leaf order of {@link BTree} is a static field, so a JVM holds the tree of one order; JMH
+ * forks a JVM for every combination of the parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BTreeBenchmark {
+
+    // The orders of TestTrial, M - 1 so a node splits when it reaches M keys
+    @Param({"2", "4", "9", "14", "19", "24", "29", "39", "99"})
+    public int order;
+
+    @Param({"1000", "100000", "1000000"})
+    public int keyCount;
+
+    private Workload workload;
+
+    /**
+     * Builds the tree of keyCount words.
+     */
+    @Setup(Level.Trial)
+    public void buildTree() {
+        BTree<String, Integer> tree = new BTree<>(order);
+        workload = new Workload(new Workload.KeyIndex() {
+            @Override
+            public void insert(String key, Integer value) {
+                tree.insert(key, value);
+            }
+
+            @Override
+            public Object search(String key) {
+                return tree.search(key);
+            }
+
+            @Override
+            public void delete(String key) {
+                tree.delete(key);
+            }
+        }, keyCount);
+    }
+
+    /**
+     * Takes the batch out of the tree before an insert invocation, outside the measured time.
+     */
+    @State(Scope.Thread)
+    public static class BatchRemoved {
+        @Setup(Level.Invocation)
+        public void removeBatch(BTreeBenchmark benchmark) {
+            benchmark.workload.removeBatch();
+        }
+    }
+
+    /**
+     * Puts the batch in the tree before a delete invocation, outside the measured time.
+     */
+    @State(Scope.Thread)
+    public static class BatchRestored {
+        @Setup(Level.Invocation)
+        public void restoreBatch(BTreeBenchmark benchmark) {
+            benchmark.workload.restoreBatch();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.BATCH)
+    public void search(Blackhole blackhole) {
+        workload.searchBatch(blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.BATCH)
+    public void insert(BatchRemoved batch) {
+        workload.insertBatch();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.BATCH)
+    public void delete(BatchRestored batch) {
+        workload.deleteBatch();
+    }
+}
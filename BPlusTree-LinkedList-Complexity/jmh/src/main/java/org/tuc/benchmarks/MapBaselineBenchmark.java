@@ -0,0 +1,121 @@
+package org.tuc.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The workloads of {@link BTreeBenchmark} on {@link TreeMap}, {@link HashMap} and
+ * {@link ConcurrentSkipListMap}, with the same words and key counts, as a baseline for the times
+ * of the B+ tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MapBaselineBenchmark {
+
+    @Param({"TreeMap", "HashMap", "ConcurrentSkipListMap"})
+    public String map;
+
+    @Param({"1000", "100000", "1000000"})
+    public int keyCount;
+
+    private Workload workload;
+
+    /**
+     * Fills the map with keyCount words.
+     */
+    @Setup(Level.Trial)
+    public void buildMap() {
+        Map<String, Integer> index = createMap(map);
+        workload = new Workload(new Workload.KeyIndex() {
+            @Override
+            public void insert(String key, Integer value) {
+                index.put(key, value);
+            }
+
+            @Override
+            public Object search(String key) {
+                return index.get(key);
+            }
+
+            @Override
+            public void delete(String key) {
+                index.remove(key);
+            }
+        }, keyCount);
+    }
+
+    private static Map<String, Integer> createMap(String name) {
+        switch (name) {
+            case "TreeMap":
+                return new TreeMap<>();
+            case "HashMap":
+                return new HashMap<>();
+            case "ConcurrentSkipListMap":
+                return new ConcurrentSkipListMap<>();
+            default:
+                throw new IllegalArgumentException("Unknown map: " + name);
+        }
+    }
+
+    /**
+     * Takes the batch out of the map before an insert invocation, outside the measured time.
+     */
+    @State(Scope.Thread)
+    public static class BatchRemoved {
+        @Setup(Level.Invocation)
+        public void removeBatch(MapBaselineBenchmark benchmark) {
+            benchmark.workload.removeBatch();
+        }
+    }
+
+    /**
+     * Puts the batch in the map before a delete invocation, outside the measured time.
+     */
+    @State(Scope.Thread)
+    public static class BatchRestored {
+        @Setup(Level.Invocation)
+        public void restoreBatch(MapBaselineBenchmark benchmark) {
+            benchmark.workload.restoreBatch();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.BATCH)
+    public void search(Blackhole blackhole) {
+        workload.searchBatch(blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.BATCH)
+    public void insert(BatchRemoved batch) {
+        workload.insertBatch();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.BATCH)
+    public void delete(BatchRestored batch) {
+        workload.deleteBatch();
+    }
+}
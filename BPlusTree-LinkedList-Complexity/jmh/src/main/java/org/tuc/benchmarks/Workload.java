@@ -0,0 +1,128 @@
+package org.tuc.benchmarks;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The keys and the operations of a benchmark on one index. The index holds keyCount words and
+ * a batch of {@value #BATCH} other words is inserted and deleted again, so the size of the index
+ * stays keyCount plus at most one batch. The words come from a fixed seed, so every machine
+ * and every index gets the same ones.
+ */
+final class Workload {
+
+    /**
+     * The operations of one benchmark invocation.
+     */
+    static final int BATCH = 1000;
+
+    private static final long SEED = 42;
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final int MAX_WORD_LENGTH = 12;
+
+    /**
+     * The operations of an index of words, the B+ tree or a map of the JDK.
+     */
+    interface KeyIndex {
+        void insert(String key, Integer value);
+
+        Object search(String key);
+
+        void delete(String key);
+    }
+
+    private final KeyIndex index;
+    private final String[] keys;
+    private final String[] batch;
+    private int nextKey;
+    private boolean batchInIndex;
+
+    /**
+     * Inserts keyCount words in the index.
+     *
+     * @param index    the empty index
+     * @param keyCount the words that the index keeps
+     */
+    Workload(KeyIndex index, int keyCount) {
+        this.index = index;
+        String[] words = randomWords(keyCount + BATCH);
+        this.keys = new String[keyCount];
+        this.batch = new String[BATCH];
+        System.arraycopy(words, 0, keys, 0, keyCount);
+        System.arraycopy(words, keyCount, batch, 0, BATCH);
+        for (int i = 0; i < keyCount; i++) {
+            index.insert(keys[i], i);
+        }
+    }
+
+    /**
+     * Searches the next {@value #BATCH} words of the index, every one of them is found.
+     */
+    void searchBatch(Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(index.search(keys[nextKey]));
+            nextKey = nextKey + 1 == keys.length ? 0 : nextKey + 1;
+        }
+    }
+
+    /**
+     * Inserts the words of the batch, which are not in the index.
+     */
+    void insertBatch() {
+        for (int i = 0; i < BATCH; i++) {
+            index.insert(batch[i], i);
+        }
+        batchInIndex = true;
+    }
+
+    /**
+     * Deletes the words of the batch, which are in the index.
+     */
+    void deleteBatch() {
+        for (int i = 0; i < BATCH; i++) {
+            index.delete(batch[i]);
+        }
+        batchInIndex = false;
+    }
+
+    /**
+     * Deletes the words of the batch if the last invocation inserted them.
+     */
+    void removeBatch() {
+        if (batchInIndex) {
+            deleteBatch();
+        }
+    }
+
+    /**
+     * Inserts the words of the batch if the last invocation deleted them.
+     */
+    void restoreBatch() {
+        if (!batchInIndex) {
+            insertBatch();
+        }
+    }
+
+    // Distinct lowercase words in random order
+    private static String[] randomWords(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Set<String> words = new HashSet<>(count * 2);
+        String[] result = new String[count];
+        char[] word = new char[MAX_WORD_LENGTH];
+        int added = 0;
+        while (added < count) {
+            int length = random.nextInt(MIN_WORD_LENGTH, MAX_WORD_LENGTH + 1);
+            for (int i = 0; i < length; i++) {
+                word[i] = (char) ('a' + random.nextInt(26));
+            }
+            String candidate = new String(word, 0, length);
+            if (words.add(candidate)) {
+                result[added++] = candidate;
+            }
+        }
+        return result;
+    }
+}
@@ -1,6 +1,7 @@
 package org.tuc.btree;
 
-import org.tuc.utils.MultiCounter;
+import org.tuc.metrics.Counter;
+import org.tuc.metrics.Metrics;
 
 /**
  * Represents a B+ tree data structure.
@@ -12,6 +13,15 @@ import org.tuc.utils.MultiCounter;
  */
 public class BTree<TKey extends Comparable<TKey>, TValue> {
 
+    /** The nodes visited on the way from the root to a leaf, the leaf included. */
+    public static final Counter NODE_VISITS = Metrics.counter("btree.nodeVisits");
+
+    /** The key comparisons in the inner nodes. */
+    public static final Counter INNER_KEY_COMPARISONS = Metrics.counter("btree.innerKeyComparisons");
+
+    /** The key comparisons in the leaves. */
+    public static final Counter LEAF_KEY_COMPARISONS = Metrics.counter("btree.leafKeyComparisons");
+
     /** The root node of the B+ tree. */
     private BTreeNode<TKey> root;
 
@@ -83,9 +93,13 @@ public class BTree<TKey extends Comparable<TKey>, TValue> {
     private BTreeLeafNode<TKey, TValue> findLeafNodeShouldContainKey(TKey key) {
         BTreeNode<TKey> node = this.root;
         // in case root is the only node, the counter will still get increased.
-        while (MultiCounter.increaseCounter(1) && node.getNodeType() == TreeNodeType.InnerNode) {
+        long nodeVisits = 1;
+        while (node.getNodeType() == TreeNodeType.InnerNode) {
             node = ((BTreeInnerNode<TKey>) node).getChild(node.search(key));
+            nodeVisits++;
         }
+        // one add per descent, so the counter costs little even when many threads search
+        NODE_VISITS.add(nodeVisits);
 
         return (BTreeLeafNode<TKey, TValue>) node;
     }
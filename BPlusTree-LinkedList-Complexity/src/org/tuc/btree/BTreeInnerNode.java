@@ -1,7 +1,5 @@
 package org.tuc.btree;
 
-import org.tuc.utils.MultiCounter;
-
 class BTreeInnerNode<TKey extends Comparable<TKey>> extends BTreeNode<TKey> {
 	
 	protected static final int INNERORDER = BTree.getLeafOrder();
@@ -31,16 +29,19 @@ class BTreeInnerNode<TKey extends Comparable<TKey>> extends BTreeNode<TKey> {
 	@Override
 	public int search(TKey key) {
 		int index = 0;
-		for (index = 0; index < this.getKeyCount() && MultiCounter.increaseCounter(2); ++index) {
+		for (index = 0; index < this.getKeyCount(); ++index) {
 			int cmp = this.getKey(index).compareTo(key);
 			if (cmp == 0) {
+				BTree.INNER_KEY_COMPARISONS.add(index + 1L);
 				return index + 1;
 			}
 			else if (cmp > 0) {
+				BTree.INNER_KEY_COMPARISONS.add(index + 1L);
 				return index;
 			}
 		}
 		
+		BTree.INNER_KEY_COMPARISONS.add(index);
 		return index;
 	}
 	
@@ -109,6 +110,20 @@ class BTreeInnerNode<TKey extends Comparable<TKey>> extends BTreeNode<TKey> {
 	
 	/* The codes below are used to support delete operation */
 	
+	/**
+	 * A split leaves INNERORDER / 2 keys in the right node, so fewer keys is an underflow.
+	 * With this bound a fusion never holds more than INNERORDER keys, also for odd orders.
+	 */
+	@Override
+	public boolean isUnderflow() {
+		return this.getKeyCount() < INNERORDER / 2;
+	}
+
+	@Override
+	public boolean canLendAKey() {
+		return this.getKeyCount() > INNERORDER / 2;
+	}
+	
 	private void deleteAt(int index) {
 		int i = 0;
 		for (i = index; i < this.getKeyCount() - 1; ++i) {
@@ -120,6 +135,22 @@ class BTreeInnerNode<TKey extends Comparable<TKey>> extends BTreeNode<TKey> {
 		--this.keyCount;
 	}
 	
+	/**
+	 * Removes the first key and the first child, the ones a left sibling borrows.
+	 * deleteAt(0) keeps the first child and removes the second one.
+	 */
+	private void deleteFirst() {
+		for (int i = 0; i < this.getKeyCount() - 1; ++i) {
+			this.setKey(i, this.getKey(i + 1));
+		}
+		for (int i = 0; i < this.getKeyCount(); ++i) {
+			this.setChild(i, this.getChild(i + 1));
+		}
+		this.setKey(this.getKeyCount() - 1, null);
+		this.setChild(this.getKeyCount(), null);
+		--this.keyCount;
+	}
+	
 	
 	@Override
 	protected void processChildrenTransfer(BTreeNode<TKey> borrower, BTreeNode<TKey> lender, int borrowIndex) {
@@ -205,7 +236,7 @@ class BTreeInnerNode<TKey extends Comparable<TKey>> extends BTreeNode<TKey> {
 			this.keyCount += 1;
 			
 			upKey = siblingNode.getKey(0);
-			siblingNode.deleteAt(borrowIndex);
+			siblingNode.deleteFirst();
 		}
 		else {
 			// borrow the last key from left sibling, insert it to head
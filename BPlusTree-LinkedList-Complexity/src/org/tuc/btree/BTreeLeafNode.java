@@ -1,7 +1,5 @@
 package org.tuc.btree;
 
-import org.tuc.utils.MultiCounter;
-
 /**
  * Represents a leaf node in a B-tree.
  *
@@ -66,16 +64,19 @@ class BTreeLeafNode<TKey extends Comparable<TKey>, TValue> extends BTreeNode<TKe
 	 */
 	@Override
 	public int search(TKey key) {
+		// the comparisons are added once per node, not once per key
 		for (int i = 0; i < this.getKeyCount(); ++i) {
-			MultiCounter.increaseCounter(3); // This counter is used to count the keys comparison in leafs.
 			int cmp = this.getKey(i).compareTo(key);
 			if (cmp == 0) {
+				BTree.LEAF_KEY_COMPARISONS.add(i + 1L);
 				return i;
 			} else if (cmp > 0) {
+				BTree.LEAF_KEY_COMPARISONS.add(i + 1L);
 				return -1;
 			}
 		}
 
+		BTree.LEAF_KEY_COMPARISONS.add(this.getKeyCount());
 		return -1;
 	}
 
@@ -140,8 +140,8 @@ abstract class BTreeNode<TKey extends Comparable<TKey>> {
 		// Maintain links of sibling nodes
 		newRightNode.setLeftSibling(this);
 		newRightNode.setRightSibling(this.rightSibling);
-		if (this.getRightSibling() != null)
-			this.getRightSibling().setLeftSibling(newRightNode);
+		if (this.rightSibling != null)
+			this.rightSibling.setLeftSibling(newRightNode);
 		this.setRightSibling(newRightNode);
 
 		// Push up a key to the parent internal node
@@ -0,0 +1,56 @@
+package org.tuc.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A named count on a striped {@link LongAdder}: threads that increase it at the same time add to
+ * different cells, so no increment is lost and they do not wait for each other. Get one from
+ * {@link Metrics#counter(String)} and keep it in a static field, so the hot path does not look up
+ * the name.
+ */
+public final class Counter {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the name of the counter in the registry
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Increases the count by 1.
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Increases the count by amount, e.g. by the total of a loop that counted in a local variable.
+     *
+     * @param amount the value to add
+     */
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    /**
+     * @return the count, exact when no thread is increasing it at the same time
+     */
+    public long sum() {
+        return count.sum();
+    }
+
+    /**
+     * Sets the count to zero.
+     */
+    public void reset() {
+        count.reset();
+    }
+}
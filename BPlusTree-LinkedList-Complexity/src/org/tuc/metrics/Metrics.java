@@ -0,0 +1,79 @@
+package org.tuc.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * The registry of the named metrics of the program: counters, gauges and latency histograms.
+ * A name always returns the same metric, so the classes that record keep it in a static field,
+ * and the code that reports reads them all with {@link #snapshot()}. The metrics can be updated
+ * from many threads at once.
+ *
+ * <p>The names are dotted, e.g. {@code methodA.pageReads} or {@code methodC.latency}.
+ */
+public final class Metrics {
+
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    //This class should not be instantiated
+    private Metrics() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Returns the counter of the name, created at the first call.
+     *
+     * @param name the name of the counter
+     * @return the counter
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * Registers a gauge, a value that is read when a snapshot is taken, e.g. the pages in a pool.
+     * A gauge with the same name is replaced.
+     *
+     * @param name  the name of the gauge
+     * @param value reads the value of the gauge
+     */
+    public static void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Returns the latency histogram of the name, created at the first call.
+     *
+     * @param name the name of the histogram
+     * @return the histogram
+     */
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * @return the values of all the metrics, by name
+     */
+    public static MetricsSnapshot snapshot() {
+        SortedMap<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, counter) -> counterValues.put(name, counter.sum()));
+        SortedMap<String, Long> gaugeValues = new TreeMap<>();
+        gauges.forEach((name, gauge) -> gaugeValues.put(name, gauge.getAsLong()));
+        SortedMap<String, HistogramSnapshot> histogramValues = new TreeMap<>();
+        histograms.forEach((name, histogram) -> histogramValues.put(name, histogram.snapshot()));
+        return new MetricsSnapshot(counterValues, gaugeValues, histogramValues);
+    }
+
+    /**
+     * Sets every counter and histogram to zero. The gauges are read from their source, so they stay.
+     */
+    public static void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+}
@@ -0,0 +1,136 @@
+package org.tuc.metrics;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * The values of all the metrics of {@link Metrics} at one moment, by name, with their export to
+ * JSON and CSV. The latencies are in nanoseconds.
+ */
+public final class MetricsSnapshot {
+
+    /** The header of the lines of {@link #toCsv(String)}. */
+    public static final String CSV_HEADER = "run,metric,type,value,count,mean,p50,p90,p99,p999,max";
+
+    // The percentiles of the export and their names
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    private final SortedMap<String, Long> counters;
+    private final SortedMap<String, Long> gauges;
+    private final SortedMap<String, HistogramSnapshot> histograms;
+
+    MetricsSnapshot(SortedMap<String, Long> counters, SortedMap<String, Long> gauges,
+            SortedMap<String, HistogramSnapshot> histograms) {
+        this.counters = Collections.unmodifiableSortedMap(counters);
+        this.gauges = Collections.unmodifiableSortedMap(gauges);
+        this.histograms = Collections.unmodifiableSortedMap(histograms);
+    }
+
+    /**
+     * @return the counts by the name of the counter
+     */
+    public SortedMap<String, Long> getCounters() {
+        return counters;
+    }
+
+    /**
+     * @return the values by the name of the gauge
+     */
+    public SortedMap<String, Long> getGauges() {
+        return gauges;
+    }
+
+    /**
+     * @return the histograms by their name
+     */
+    public SortedMap<String, HistogramSnapshot> getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * Returns the snapshot as one JSON object on one line, so the snapshots of many runs can be
+     * appended to a file of JSON lines.
+     *
+     * @param run the name of the run, e.g. the parameters of a data set, or null for none
+     * @return the JSON object
+     */
+    public String toJson(String run) {
+        StringBuilder json = new StringBuilder("{");
+        if (run != null) {
+            json.append("\"run\":").append(quote(run)).append(',');
+        }
+        json.append("\"counters\":");
+        appendValues(json, counters);
+        json.append(",\"gauges\":");
+        appendValues(json, gauges);
+        json.append(",\"histograms\":{");
+        String separator = "";
+        for (HistogramSnapshot histogram : histograms.values()) {
+            json.append(separator).append(quote(histogram.getName()))
+                .append(":{\"count\":").append(histogram.getCount())
+                .append(",\"mean\":").append(String.format(Locale.ROOT, "%.1f", histogram.getMean()));
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                json.append(",\"").append(PERCENTILE_NAMES[i]).append("\":")
+                    .append(histogram.getValueAtPercentile(PERCENTILES[i]));
+            }
+            json.append(",\"max\":").append(histogram.getMax()).append('}');
+            separator = ",";
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Returns the snapshot as CSV lines with the columns of {@link #CSV_HEADER}, one line per
+     * metric and without the header. A counter or a gauge fills the value, a histogram the
+     * columns after it.
+     *
+     * @param run the name of the run, e.g. the parameters of a data set, or null for none
+     * @return the lines, each one ending with a line separator
+     */
+    public String toCsv(String run) {
+        String runColumn = run == null ? "" : csvField(run);
+        StringBuilder csv = new StringBuilder();
+        for (Map.Entry<String, Long> counter : counters.entrySet()) {
+            csv.append(runColumn).append(',').append(csvField(counter.getKey())).append(",counter,")
+                .append(counter.getValue()).append(",,,,,,,").append(System.lineSeparator());
+        }
+        for (Map.Entry<String, Long> gauge : gauges.entrySet()) {
+            csv.append(runColumn).append(',').append(csvField(gauge.getKey())).append(",gauge,")
+                .append(gauge.getValue()).append(",,,,,,,").append(System.lineSeparator());
+        }
+        for (HistogramSnapshot histogram : histograms.values()) {
+            csv.append(runColumn).append(',').append(csvField(histogram.getName())).append(",histogram,,")
+                .append(histogram.getCount()).append(',')
+                .append(String.format(Locale.ROOT, "%.1f", histogram.getMean()));
+            for (double percentile : PERCENTILES) {
+                csv.append(',').append(histogram.getValueAtPercentile(percentile));
+            }
+            csv.append(',').append(histogram.getMax()).append(System.lineSeparator());
+        }
+        return csv.toString();
+    }
+
+    private static void appendValues(StringBuilder json, Map<String, Long> values) {
+        json.append('{');
+        String separator = "";
+        for (Map.Entry<String, Long> value : values.entrySet()) {
+            json.append(separator).append(quote(value.getKey())).append(':').append(value.getValue());
+            separator = ",";
+        }
+        json.append('}');
+    }
+
+    private static String quote(String text) {
+        return '"' + text.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private static String csvField(String text) {
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -9,7 +9,7 @@ import java.util.Set;
 
 import org.tuc.btree.BTree;
 import org.tuc.index.IndexFormat;
-import org.tuc.utils.MultiCounter;
+import org.tuc.metrics.Metrics;
 import org.tuc.utils.ReadFile;
 
 /**
@@ -87,11 +87,11 @@ public class TestTrial {
                     treeTest.search(element);
                 }
 
-                float sumCounters = (float) MultiCounter.getCount(2) + MultiCounter.getCount(3); 
+                float sumCounters = (float) BTree.INNER_KEY_COMPARISONS.sum() + BTree.LEAF_KEY_COMPARISONS.sum(); 
                 
                 //M+1 to restore the "proper" order
                 System.out.println("For order: " + (order + 1) + " Mean of inner nodes: "
-                        + ((float) MultiCounter.getCount(1) / 100) + " | " + " Mean of keys comparison: "
+                        + ((float) BTree.NODE_VISITS.sum() / 100) + " | " + " Mean of keys comparison: "
                         + (sumCounters / 100));
                 
                 resetCounters(); // Reset the counters for the next order
@@ -121,9 +121,7 @@ public class TestTrial {
      * Resets the performance counters used for measuring mean inner nodes and key comparisons.
      */
     private void resetCounters() {
-        MultiCounter.resetCounter(1);
-        MultiCounter.resetCounter(2);
-        MultiCounter.resetCounter(3);
+        Metrics.reset();
     }
     
 }
@@ -0,0 +1,98 @@
+package org.tuc.testTrial;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.tuc.btree.BTree;
+
+/**
+ * Checks the B+ tree against a {@link TreeMap}. For every order it runs random inserts and deletes
+ * of keys from a small range on both, so the tree splits, borrows and merges many times, and after
+ * every operation it compares the touched key. Every few operations and at the end it compares all
+ * the keys of the range. The first difference stops the check with an exception.
+ *
+ * <p>Run it with {@code java -cp build org.tuc.testTrial.TreeMapCheck}. The seed, the operations per
+ * order and the key range can be changed with -Dcheck.seed=42, -Dcheck.operations=50000 and
+ * -Dcheck.keys=2000.
+ */
+public class TreeMapCheck {
+
+    // The orders of TestTrial and the odd and small orders around them
+    private static final int[] ORDERS = {2, 3, 4, 5, 6, 7, 8, 9, 10, 14, 15, 19, 24, 29, 39, 99};
+
+    private static final long SEED = Long.getLong("check.seed", 42L);
+    private static final int OPERATIONS = Integer.getInteger("check.operations", 50_000);
+    private static final int KEY_RANGE = Integer.getInteger("check.keys", 2_000);
+
+    // The operations between two comparisons of the whole range
+    private static final int FULL_CHECK_INTERVAL = 1_000;
+
+    private TreeMapCheck() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Entry point for the check.
+     *
+     * @param args Command-line arguments (unused).
+     */
+    public static void main(String[] args) {
+        for (int order : ORDERS) {
+            check(order, new Random(SEED + order));
+            System.out.println("Order " + order + ": " + OPERATIONS + " operations match the TreeMap");
+        }
+    }
+
+    /**
+     * Runs the random operations on a tree of the given order and on a TreeMap.
+     *
+     * @param order  the order of the tree
+     * @param random the source of the operations
+     * @throws IllegalStateException at the first key that the tree and the map disagree on
+     */
+    private static void check(int order, Random random) {
+        BTree<Integer, Integer> tree = new BTree<>(order);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int operation = 1; operation <= OPERATIONS; operation++) {
+            Integer key = random.nextInt(KEY_RANGE);
+            // a few more inserts than deletes, so the tree grows and shrinks through every height
+            if (random.nextInt(100) < 55) {
+                // the tree keeps duplicate keys, so a key is inserted only when it is absent
+                if (!expected.containsKey(key)) {
+                    tree.insert(key, operation);
+                    expected.put(key, operation);
+                }
+            } else {
+                tree.delete(key);
+                expected.remove(key);
+            }
+            compare(order, operation, key, tree, expected);
+            if (operation % FULL_CHECK_INTERVAL == 0) {
+                compareAll(order, operation, tree, expected);
+            }
+        }
+        // empty the tree, the deletes go through every merge up to the root
+        for (Integer key : expected.keySet().toArray(new Integer[0])) {
+            tree.delete(key);
+            expected.remove(key);
+            compare(order, OPERATIONS, key, tree, expected);
+        }
+        compareAll(order, OPERATIONS, tree, expected);
+    }
+
+    private static void compareAll(int order, int operation, BTree<Integer, Integer> tree, TreeMap<Integer, Integer> expected) {
+        for (int key = 0; key < KEY_RANGE; key++) {
+            compare(order, operation, key, tree, expected);
+        }
+    }
+
+    private static void compare(int order, int operation, Integer key, BTree<Integer, Integer> tree,
+            TreeMap<Integer, Integer> expected) {
+        Integer found = tree.search(key);
+        Integer value = expected.get(key);
+        if (value == null ? found != null : !value.equals(found)) {
+            throw new IllegalStateException("Order " + order + ", operation " + operation + ": the key " + key
+                    + " has the value " + found + " in the tree and " + value + " in the TreeMap");
+        }
+    }
+}
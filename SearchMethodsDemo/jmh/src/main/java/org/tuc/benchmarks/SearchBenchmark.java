@@ -0,0 +1,145 @@
+package org.tuc.benchmarks;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.dataClass.KeyPagePairs;
+import org.tuc.randomSearch.RandomSearch;
+import org.tuc.sortedFileIndexSearch.SortedFileIndexSearch;
+import org.tuc.unsortedFileIndexSearch.UnsortedFileIndexSearch;
+import org.tuc.utils.Clear;
+import org.tuc.utils.CreateFiles;
+import org.tuc.utils.ReadFile;
+import org.tuc.utils.WriteFile;
+
+/**
+ * JMH benchmark of one lookup of methods A, B and C. Every trial writes the files of a data set
+ * with {@link CreateFiles} in the working directory, and every invocation searches the next key
+ * of a fixed list in which a hitRatio share of the keys is in the file. The other keys are above
+ * the key range, so they are surely misses. With a bloomFilterFpp above 0 the files get a Bloom
+ * filter with that false positive rate and every method checks it before it reads a page.
+ *
+ * <p>The searches keep their page buffers in static fields, so the benchmark must run with one
+ * thread (the default). Run it with the GC profiler, e.g.
+ * {@code java -jar target/benchmarks.jar SearchBenchmark -prof gc -p pageSize=4096}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class SearchBenchmark {
+
+    // The keys of a trial, a power of two so the next key is taken with a mask
+    private static final int NUMBER_OF_KEYS = 4096;
+    private static final int MIN_VALUE_KEY = 1;
+
+    @Param({"1000", "100000"})
+    public int numOfRecords;
+
+    @Param({"55", "27"})
+    public int stringLength;
+
+    @Param({"1.0", "0.5", "0.0"})
+    public double hitRatio;
+
+    @Param({"256", "4096"})
+    public int pageSize;
+
+    @Param({"0"})
+    public double bloomFilterFpp;
+
+    private RandomAccessFile dataPairFile;
+    private RandomAccessFile unsortedFile;
+    private RandomAccessFile sortedFile;
+    private BloomFilter bloomFilter;
+    private int[] keys;
+    private int nextKey;
+
+    /**
+     * Writes the files of the data set and chooses the keys of the trial.
+     */
+    @Setup(Level.Trial)
+    public void createFiles() throws IOException {
+        int maxValue = numOfRecords * 2;
+        dataPairFile = new RandomAccessFile(WriteFile.DATA_PAIR_FILE_NAME, "rw");
+        CreateFiles.createTestFiles(numOfRecords, stringLength, MIN_VALUE_KEY, maxValue, dataPairFile,
+                new CreateFiles.Options().pageSize(pageSize).bloomFalsePositiveRate(bloomFilterFpp));
+        unsortedFile = new RandomAccessFile(WriteFile.UNSORTED_KEYS_FILE_NAME, "r");
+        sortedFile = new RandomAccessFile(WriteFile.SORTED_KEYS_FILE_NAME, "r");
+        bloomFilter = null;
+        if (bloomFilterFpp > 0) {
+            try (RandomAccessFile bloomFile = new RandomAccessFile(WriteFile.BLOOM_FILTER_FILE_NAME, "r")) {
+                bloomFilter = BloomFilter.readFrom(bloomFile);
+            }
+        }
+
+        // the same seed gives the same keys on every machine
+        SplittableRandom random = new SplittableRandom(42);
+        KeyPagePairs keyPairs = ReadFile.readKeyPagePairs(stringLength, dataPairFile);
+        keys = new int[NUMBER_OF_KEYS];
+        for (int i = 0; i < NUMBER_OF_KEYS; i++) {
+            keys[i] = random.nextDouble() < hitRatio
+                    ? keyPairs.getKey(random.nextInt(keyPairs.size()))
+                    : maxValue + 1 + random.nextInt(numOfRecords);
+        }
+        nextKey = 0;
+    }
+
+    /**
+     * Closes and deletes the files of the data set.
+     */
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Clear.clearAndDeleteFiles(dataPairFile, unsortedFile, sortedFile);
+    }
+
+    private int nextKey() {
+        return keys[nextKey++ & (NUMBER_OF_KEYS - 1)];
+    }
+
+    /**
+     * Method A: scans the dataPair file.
+     */
+    @Benchmark
+    public boolean randomSearch() throws IOException {
+        return RandomSearch.randomSearch(nextKey(), stringLength, dataPairFile, null, bloomFilter);
+    }
+
+    /**
+     * Method B: scans the unsorted keys file and searches the data page.
+     */
+    @Benchmark
+    public boolean unsortedFileIndexSearch() throws IOException {
+        int key = nextKey();
+        int dataPage = UnsortedFileIndexSearch.searchInUnsortedFile(key, unsortedFile, null, bloomFilter);
+        return UnsortedFileIndexSearch.searchGivenPage(key, dataPage, stringLength, dataPairFile);
+    }
+
+    /**
+     * Method C: binary searches the sorted keys file and searches the data page.
+     */
+    @Benchmark
+    public boolean sortedFileIndexSearch() throws IOException {
+        int key = nextKey();
+        int dataPage = SortedFileIndexSearch.binarySearch(key, sortedFile, null, bloomFilter);
+        return SortedFileIndexSearch.searchDataPage(key, dataPage, stringLength, dataPairFile);
+    }
+}
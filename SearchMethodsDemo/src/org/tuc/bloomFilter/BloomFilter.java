@@ -0,0 +1,139 @@
+package org.tuc.bloomFilter;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * A Bloom filter of the keys of the dataPair file. It answers "maybe" for every key of the file
+ * and "no" for most of the other keys, so a search can skip the disk for a key that is not there.
+ *
+ * <p>The filter is written next to the dataPair file when the files are created and read back
+ * when the tests open them. The file keeps the number of hash functions, the number of bits
+ * and then the bits themselves.
+ */
+public final class BloomFilter {
+
+    private final long[] bits;
+    private final long numBits;
+    private final int numHashFunctions;
+
+    private BloomFilter(long[] bits, long numBits, int numHashFunctions) {
+        this.bits = bits;
+        this.numBits = numBits;
+        this.numHashFunctions = numHashFunctions;
+    }
+
+    /**
+     * Creates an empty filter sized for the expected keys and the false positive rate.
+     *
+     * @param expectedKeys      the number of keys that will be added
+     * @param falsePositiveRate the probability that a key which was not added passes the filter, between 0 and 1
+     * @return the empty filter
+     */
+    public static BloomFilter create(int expectedKeys, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("The false positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        int keys = Math.max(1, expectedKeys);
+        // the optimal sizes: m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hash functions
+        long numBits = Math.max(Long.SIZE, (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int numHashFunctions = Math.max(1, (int) Math.round((double) numBits / keys * Math.log(2)));
+        int numLongs = (int) ((numBits + Long.SIZE - 1) / Long.SIZE);
+        return new BloomFilter(new long[numLongs], (long) numLongs * Long.SIZE, numHashFunctions);
+    }
+
+    /**
+     * Adds a key to the filter.
+     *
+     * @param key the key
+     */
+    public void add(int key) {
+        long hash = mix(key);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 0; i < numHashFunctions; i++) {
+            long bit = Integer.toUnsignedLong(hash1 + i * hash2) % numBits;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks the key against the filter.
+     *
+     * @param key the key
+     * @return false if the key was surely not added, true if it may have been added
+     */
+    public boolean mightContain(int key) {
+        long hash = mix(key);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 0; i < numHashFunctions; i++) {
+            long bit = Integer.toUnsignedLong(hash1 + i * hash2) % numBits;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The finalizer of MurmurHash3, the two halves give the two hashes of double hashing
+    private static long mix(int key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Writes the filter in a sidecar file.
+     *
+     * @param file the file to write, its old content is replaced
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    public void writeTo(RandomAccessFile file) throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(Integer.BYTES * 2 + bits.length * Long.BYTES);
+        bb.putInt(numHashFunctions);
+        bb.putInt(bits.length);
+        bb.asLongBuffer().put(bits);
+        file.setLength(0);
+        file.write(bb.array());
+    }
+
+    /**
+     * Reads a filter that was written with {@link #writeTo(RandomAccessFile)}.
+     *
+     * @param file the sidecar file
+     * @return the filter
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static BloomFilter readFrom(RandomAccessFile file) throws IOException {
+        file.seek(0);
+        int numHashFunctions = file.readInt();
+        int numLongs = file.readInt();
+        byte[] bytes = new byte[numLongs * Long.BYTES];
+        file.readFully(bytes);
+        long[] bits = new long[numLongs];
+        LongBuffer longs = ByteBuffer.wrap(bytes).asLongBuffer();
+        longs.get(bits);
+        return new BloomFilter(bits, (long) numLongs * Long.SIZE, numHashFunctions);
+    }
+
+    /**
+     * @return the bytes of the bits in memory
+     */
+    public long getMemoryBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+
+    /**
+     * @return the number of hash functions
+     */
+    public int getNumHashFunctions() {
+        return numHashFunctions;
+    }
+}
@@ -0,0 +1,164 @@
+package org.tuc.bufferPool;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.tuc.utils.PageFile;
+
+/**
+ * A cache of file pages shared by the data file and the key files.
+ * The pages are kept by (file, pageNo) and when the pool is full the {@link EvictionPolicy}
+ * chooses the page that leaves. Every request is a logical page access, and only the
+ * requests that miss the pool read the disk (physical reads).
+ */
+public class BufferPool {
+
+    private final int capacity;
+    private final EvictionPolicy policy;
+    private final Map<PageId, byte[]> pages;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param capacity the maximum number of pages in the pool
+     * @param policy   the policy that chooses the page to evict
+     */
+    public BufferPool(int capacity, EvictionPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        this.pages = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Creates an empty pool with the policy of the given name.
+     *
+     * @param capacity   the maximum number of pages in the pool
+     * @param policyName LRU or CLOCK
+     * @return the new pool
+     */
+    public static BufferPool create(int capacity, String policyName) {
+        switch (policyName.toUpperCase()) {
+            case "LRU":
+                return new BufferPool(capacity, new LruEvictionPolicy());
+            case "CLOCK":
+                return new BufferPool(capacity, new ClockEvictionPolicy(capacity));
+            default:
+                throw new IllegalArgumentException("Unknown eviction policy: " + policyName);
+        }
+    }
+
+    /**
+     * Returns a page of the file, from the pool if it is there or from the disk otherwise.
+     * The returned array belongs to the pool and must not be changed.
+     *
+     * @param file   the file to read
+     * @param pageNo the number of the page, 0 is the first page after the header
+     * @return the bytes of the page, or null if the page is out of the file
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public byte[] readPage(RandomAccessFile file, int pageNo) throws IOException {
+        long offset = PageFile.offsetOf(file, pageNo);
+        if (pageNo < 0 || offset >= file.length()) {
+            return null;
+        }
+        PageId pageId = new PageId(file, pageNo);
+        byte[] page = pages.get(pageId);
+        if (page != null) {
+            hits++;
+            policy.pageAccessed(pageId);
+            return page;
+        }
+
+        misses++;
+        if (pages.size() == capacity) {
+            //reuse the frame of the evicted page, if the files have the same page size
+            page = PageFile.fit(pages.remove(policy.evict()), PageFile.pageSize(file));
+            evictions++;
+        } else {
+            page = new byte[PageFile.pageSize(file)];
+        }
+        file.seek(offset);
+        int bytesRead = Math.max(0, file.read(page));
+        //a short last page is filled like the files are
+        Arrays.fill(page, bytesRead, page.length, (byte) ' ');
+        pages.put(pageId, page);
+        policy.pageLoaded(pageId);
+        return page;
+    }
+
+    /**
+     * Drops all the pages. It must be called before a file of the pool is closed.
+     */
+    public void clear() {
+        pages.clear();
+        policy.clear();
+    }
+
+    /**
+     * Sets the hits, misses and evictions to zero.
+     */
+    public void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * @return the number of requested pages (hits and misses)
+     */
+    public long getLogicalReads() {
+        return hits + misses;
+    }
+
+    /**
+     * @return the number of pages read from the disk (misses)
+     */
+    public long getPhysicalReads() {
+        return misses;
+    }
+
+    /**
+     * @return the number of requests served by the pool
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of requests that read the disk
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of pages that left the pool to make room for others
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the maximum number of pages in the pool
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the eviction policy of the pool
+     */
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+}
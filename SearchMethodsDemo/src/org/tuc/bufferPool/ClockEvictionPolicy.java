@@ -0,0 +1,70 @@
+package org.tuc.bufferPool;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CLOCK (second chance) policy. Every frame has a reference bit that is set on access.
+ * The hand goes around the frames, clears the bits it finds set and evicts the first
+ * page whose bit is already clear.
+ */
+public class ClockEvictionPolicy implements EvictionPolicy {
+
+    private final PageId[] frames;
+    private final boolean[] referenced;
+    private final Map<PageId, Integer> frameOfPage;
+    private int hand;
+
+    /**
+     * @param capacity the number of frames, the same as the capacity of the pool
+     */
+    public ClockEvictionPolicy(int capacity) {
+        this.frames = new PageId[capacity];
+        this.referenced = new boolean[capacity];
+        this.frameOfPage = new HashMap<>(capacity * 2);
+    }
+
+    @Override
+    public void pageLoaded(PageId pageId) {
+        //the pool evicts before it loads, so the hand points to a free frame when the pool is full
+        int frame = hand;
+        while (frames[frame] != null) {
+            frame = (frame + 1) % frames.length;
+        }
+        frames[frame] = pageId;
+        referenced[frame] = true;
+        frameOfPage.put(pageId, frame);
+        hand = (frame + 1) % frames.length;
+    }
+
+    @Override
+    public void pageAccessed(PageId pageId) {
+        referenced[frameOfPage.get(pageId)] = true;
+    }
+
+    @Override
+    public PageId evict() {
+        while (frames[hand] == null || referenced[hand]) {
+            referenced[hand] = false;
+            hand = (hand + 1) % frames.length;
+        }
+        PageId victim = frames[hand];
+        frames[hand] = null;
+        frameOfPage.remove(victim);
+        return victim;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(frames, null);
+        Arrays.fill(referenced, false);
+        frameOfPage.clear();
+        hand = 0;
+    }
+
+    @Override
+    public String getName() {
+        return "CLOCK";
+    }
+}
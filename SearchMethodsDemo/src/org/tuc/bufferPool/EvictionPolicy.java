@@ -0,0 +1,39 @@
+package org.tuc.bufferPool;
+
+/**
+ * Decides which page leaves the {@link BufferPool} when it is full.
+ * The pool tells the policy about every page it loads, uses and drops.
+ */
+public interface EvictionPolicy {
+
+    /**
+     * Called when a page is loaded in the pool.
+     *
+     * @param pageId the loaded page
+     */
+    void pageLoaded(PageId pageId);
+
+    /**
+     * Called when a page that is already in the pool is requested again.
+     *
+     * @param pageId the requested page
+     */
+    void pageAccessed(PageId pageId);
+
+    /**
+     * Chooses the page to evict and forgets it.
+     *
+     * @return the page that must leave the pool
+     */
+    PageId evict();
+
+    /**
+     * Forgets all the pages.
+     */
+    void clear();
+
+    /**
+     * @return a short name of the policy for the reports
+     */
+    String getName();
+}
@@ -0,0 +1,44 @@
+package org.tuc.bufferPool;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Least recently used policy. The pages are kept in the order of their last access
+ * and the oldest one is evicted.
+ */
+public class LruEvictionPolicy implements EvictionPolicy {
+
+    private final Set<PageId> accessOrder = new LinkedHashSet<>();
+
+    @Override
+    public void pageLoaded(PageId pageId) {
+        accessOrder.add(pageId);
+    }
+
+    @Override
+    public void pageAccessed(PageId pageId) {
+        //move it to the end, it is now the most recently used
+        accessOrder.remove(pageId);
+        accessOrder.add(pageId);
+    }
+
+    @Override
+    public PageId evict() {
+        Iterator<PageId> oldest = accessOrder.iterator();
+        PageId victim = oldest.next();
+        oldest.remove();
+        return victim;
+    }
+
+    @Override
+    public void clear() {
+        accessOrder.clear();
+    }
+
+    @Override
+    public String getName() {
+        return "LRU";
+    }
+}
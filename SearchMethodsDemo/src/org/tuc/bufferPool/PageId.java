@@ -0,0 +1,53 @@
+package org.tuc.bufferPool;
+
+import java.io.RandomAccessFile;
+
+/**
+ * Identifies a page of the buffer pool: the open file and the number of the page in it.
+ * Two ids are equal only when they refer to the same RandomAccessFile instance.
+ */
+public final class PageId {
+
+    private final RandomAccessFile file;
+    private final int pageNo;
+
+    /**
+     * @param file   the file that contains the page
+     * @param pageNo the number of the page in the file
+     */
+    public PageId(RandomAccessFile file, int pageNo) {
+        this.file = file;
+        this.pageNo = pageNo;
+    }
+
+    /**
+     * @return the file that contains the page
+     */
+    public RandomAccessFile getFile() {
+        return file;
+    }
+
+    /**
+     * @return the number of the page in the file
+     */
+    public int getPageNo() {
+        return pageNo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PageId)) {
+            return false;
+        }
+        PageId other = (PageId) o;
+        return file == other.file && pageNo == other.pageNo;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(file) + pageNo;
+    }
+}
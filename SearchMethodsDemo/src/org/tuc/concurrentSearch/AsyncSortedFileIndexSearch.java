@@ -0,0 +1,253 @@
+package org.tuc.concurrentSearch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.keyMatcher.KeyMatcher;
+import org.tuc.utils.DataPage;
+import org.tuc.utils.PageFile;
+
+/**
+ * Method C on an {@link AsynchronousFileChannel}. A lookup is a chain of reads: the pages of the
+ * binary search on the sorted keys file and then the data page. Every read starts when the one
+ * before it completes, without blocking a thread in between, so many lookups can have a read in
+ * flight at the same time and a batch of keys overlaps its I/O.
+ *
+ * <p>Every lookup reads into a buffer of its own. The page size of both files is read from their
+ * headers when they are opened. With a Bloom filter a key that the filter rejects completes at
+ * once, without a read.
+ */
+public final class AsyncSortedFileIndexSearch implements Closeable {
+
+    private static final int RECORD_SIZE_KEY_PAIR = Integer.BYTES * 2;
+
+    private final AsynchronousFileChannel sortedChannel;
+    private final AsynchronousFileChannel dataPairChannel;
+    private final int stringLength;
+    private final int sortedPageSize;
+    private final int sortedPages;
+    private final int dataPageSize;
+    private final BloomFilter bloomFilter;
+    private final LongAdder pagesRead = new LongAdder();
+
+    private AsyncSortedFileIndexSearch(AsynchronousFileChannel sortedChannel, AsynchronousFileChannel dataPairChannel,
+            int stringLength, BloomFilter bloomFilter) throws IOException {
+        this.sortedChannel = sortedChannel;
+        this.dataPairChannel = dataPairChannel;
+        this.stringLength = stringLength;
+        this.sortedPageSize = readPageSize(sortedChannel);
+        this.sortedPages = (int) Math.max(0, (sortedChannel.size() + sortedPageSize - 1) / sortedPageSize - 1);
+        this.dataPageSize = readPageSize(dataPairChannel);
+        this.bloomFilter = bloomFilter;
+    }
+
+    /**
+     * Opens the sorted keys file and the dataPair file for asynchronous reads.
+     *
+     * @param sortedFile   the path of the sorted keys file
+     * @param dataPairFile the path of the dataPair file
+     * @param stringLength the length of the string of a record, 55 or 27
+     * @return the search on the two files, to be closed by the caller
+     * @throws IOException if a file cannot be opened or has no page header
+     */
+    public static AsyncSortedFileIndexSearch open(Path sortedFile, Path dataPairFile, int stringLength) throws IOException {
+        return open(sortedFile, dataPairFile, stringLength, null);
+    }
+
+    /**
+     * Opens the sorted keys file and the dataPair file for asynchronous reads behind the Bloom
+     * filter of the dataPair file.
+     *
+     * @param sortedFile   the path of the sorted keys file
+     * @param dataPairFile the path of the dataPair file
+     * @param stringLength the length of the string of a record, 55 or 27
+     * @param bloomFilter  the filter of the keys of the dataPair file, or null to search every key
+     * @return the search on the two files, to be closed by the caller
+     * @throws IOException if a file cannot be opened or has no page header
+     */
+    public static AsyncSortedFileIndexSearch open(Path sortedFile, Path dataPairFile, int stringLength, BloomFilter bloomFilter)
+            throws IOException {
+        AsynchronousFileChannel sortedChannel = AsynchronousFileChannel.open(sortedFile, StandardOpenOption.READ);
+        AsynchronousFileChannel dataPairChannel = null;
+        try {
+            dataPairChannel = AsynchronousFileChannel.open(dataPairFile, StandardOpenOption.READ);
+            return new AsyncSortedFileIndexSearch(sortedChannel, dataPairChannel, stringLength, bloomFilter);
+        } catch (IOException | RuntimeException e) {
+            // the search was not made, so no caller will close the channels that are open
+            closeQuietly(sortedChannel, e);
+            closeQuietly(dataPairChannel, e);
+            throw e;
+        }
+    }
+
+    // Closes the channel after a failure, the error of the close is added to the failure
+    private static void closeQuietly(AsynchronousFileChannel channel, Exception failure) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Searches the key: the data page from the sorted keys file and then the key in that page.
+     *
+     * @param targetKey the key we are looking for
+     * @return a future that completes with true if the file contains the key
+     */
+    public CompletableFuture<Boolean> search(int targetKey) {
+        if (!ConcurrentSearch.mightContain(bloomFilter, targetKey)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        ByteBuffer page = ByteBuffer.allocate(Math.max(sortedPageSize, dataPageSize));
+        return binarySearch(targetKey, 0, sortedPages - 1, page)
+                .thenCompose(dataPage -> dataPage == -1
+                        ? CompletableFuture.completedFuture(false)
+                        : searchDataPage(targetKey, dataPage, page));
+    }
+
+    /**
+     * Searches a batch of keys with at most maxInFlight lookups running at once. Every lookup
+     * that completes starts the next key, so the reads of the batch stay pipelined.
+     *
+     * @param targetKeys  the keys we are looking for
+     * @param maxInFlight the lookups that may have a read in flight at the same time
+     * @return a future that completes with the result of every key (same index)
+     */
+    public CompletableFuture<boolean[]> searchAll(int[] targetKeys, int maxInFlight) {
+        boolean[] results = new boolean[targetKeys.length];
+        AtomicInteger nextKey = new AtomicInteger();
+        int lanes = Math.max(1, Math.min(maxInFlight, targetKeys.length));
+        CompletableFuture<?>[] laneFutures = new CompletableFuture<?>[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            CompletableFuture<Void> laneFuture = new CompletableFuture<>();
+            runLane(targetKeys, results, nextKey, laneFuture);
+            laneFutures[lane] = laneFuture;
+        }
+        return CompletableFuture.allOf(laneFutures).thenApply(done -> results);
+    }
+
+    // A lane searches one key at a time and takes the next one when the lookup completes
+    private void runLane(int[] targetKeys, boolean[] results, AtomicInteger nextKey, CompletableFuture<Void> lane) {
+        int index = nextKey.getAndIncrement();
+        if (index >= targetKeys.length) {
+            lane.complete(null);
+            return;
+        }
+        search(targetKeys[index]).whenComplete((found, error) -> {
+            if (error != null) {
+                lane.completeExceptionally(error);
+            } else {
+                results[index] = found;
+                runLane(targetKeys, results, nextKey, lane);
+            }
+        });
+    }
+
+    private CompletableFuture<Integer> binarySearch(int targetKey, int leftIndex, int rightIndex, ByteBuffer page) {
+        if (leftIndex > rightIndex) {
+            return CompletableFuture.completedFuture(-1);
+        }
+        int midIndex = (leftIndex + rightIndex) >>> 1;
+        return readPage(sortedChannel, sortedPageSize, midIndex, page).thenCompose(bytesRead -> {
+            int pairsPerPage = sortedPageSize / RECORD_SIZE_KEY_PAIR - 1;
+            int numPairs = ConcurrentSearch.pairsInPage(page.array(),
+                    Math.min(pairsPerPage, Math.max(0, bytesRead) / RECORD_SIZE_KEY_PAIR));
+            if (numPairs == 0 || targetKey < KeyMatcher.intAt(page.array(), 0)) {
+                return binarySearch(targetKey, leftIndex, midIndex - 1, page);
+            } else if (targetKey > KeyMatcher.intAt(page.array(), (numPairs - 1) * RECORD_SIZE_KEY_PAIR)) {
+                return binarySearch(targetKey, midIndex + 1, rightIndex, page);
+            }
+            return CompletableFuture.completedFuture(ConcurrentSearch.searchPairs(page.array(), numPairs, targetKey));
+        });
+    }
+
+    private CompletableFuture<Boolean> searchDataPage(int targetKey, int dataPage, ByteBuffer page) {
+        return readPage(dataPairChannel, dataPageSize, dataPage, page).thenApply(bytesRead -> bytesRead > 0
+                && DataPage.indexOfKey(page.array(), bytesRead, Integer.BYTES + stringLength, targetKey) != -1);
+    }
+
+    /**
+     * Reads a page into the start of the buffer. A short read is continued until the page is
+     * complete or the file ends.
+     *
+     * @return a future with the bytes read, or -1 after the end of the file
+     */
+    private CompletableFuture<Integer> readPage(AsynchronousFileChannel channel, int pageSize, int pageNo, ByteBuffer page) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        long offset = (long) (pageNo + 1) * pageSize;
+        page.clear().limit(pageSize);
+        channel.read(page, offset, null, new CompletionHandler<Integer, Void>() {
+            @Override
+            public void completed(Integer read, Void attachment) {
+                if (read != -1 && page.hasRemaining()) {
+                    channel.read(page, offset + page.position(), null, this);
+                    return;
+                }
+                if (page.position() == 0) {
+                    result.complete(-1);
+                } else {
+                    pagesRead.increment();
+                    result.complete(page.position());
+                }
+            }
+
+            @Override
+            public void failed(Throwable error, Void attachment) {
+                result.completeExceptionally(error);
+            }
+        });
+        return result;
+    }
+
+    private static int readPageSize(AsynchronousFileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(PageFile.HEADER_BYTES);
+        try {
+            if (channel.read(header, 0).get() < PageFile.HEADER_BYTES) {
+                throw new IOException("The file has no page header");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading the page header", e);
+        } catch (ExecutionException e) {
+            throw new IOException("The page header could not be read", e.getCause());
+        }
+        return PageFile.pageSize(header);
+    }
+
+    /**
+     * @return the pages read by the lookups since the last reset
+     */
+    public long getPagesRead() {
+        return pagesRead.sum();
+    }
+
+    /**
+     * Sets the pages read back to zero.
+     */
+    public void resetPagesRead() {
+        pagesRead.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sortedChannel.close();
+        } finally {
+            dataPairChannel.close();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package org.tuc.concurrentSearch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.keyMatcher.KeyMatcher;
+import org.tuc.keyMatcher.KeyMatchers;
+import org.tuc.metrics.Counter;
+import org.tuc.metrics.Metrics;
+import org.tuc.utils.DataPage;
+import org.tuc.utils.PageFile;
+
+/**
+ * Methods A, B and C on positional reads of a {@link FileChannel}. A read names its position
+ * instead of moving the file pointer, and every thread reads into a buffer of its own, so many
+ * threads can search the same open files at the same time.
+ *
+ * <p>Every page they read is added to the counter {@code concurrentSearch.pageReads} of
+ * {@link Metrics}, which many threads can increase at once, and {@link #getPagesRead()} returns it.
+ * Every method has an overload that checks the Bloom filter of the dataPair file first, which
+ * only reads the filter, so the threads can share it.
+ */
+public final class ConcurrentSearch {
+
+    private static final int RECORD_SIZE_KEY_PAIR = Integer.BYTES * 2;
+
+    // One page buffer per thread, resized to the page size of the file that is read
+    private static final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(0));
+
+    private static final Counter pagesRead = Metrics.counter("concurrentSearch.pageReads");
+
+    //This class should not be instantiated
+    private ConcurrentSearch() {
+        throw new IllegalStateException("static methods only");
+    }
+
+    /**
+     * Method A. Scans the dataPair file page by page until it finds the key.
+     *
+     * @param targetKey       the key we are looking for
+     * @param stringLength    the length of the string of a record, 55 or 27
+     * @param dataPairChannel the channel of the dataPair file
+     * @return true if the file contains the key
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static boolean randomSearch(int targetKey, int stringLength, FileChannel dataPairChannel) throws IOException {
+        int recordSize = Integer.BYTES + stringLength;
+        ByteBuffer page = pageBuffer(dataPairChannel);
+        for (int pageNo = 0; ; pageNo++) {
+            int bytesRead = readPage(dataPairChannel, pageNo, page);
+            if (bytesRead <= 0) {
+                return false;
+            }
+            if (DataPage.indexOfKey(page.array(), bytesRead, recordSize, targetKey) != -1) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Method B. Scans the unsorted keys file for the data page of the key and then searches that page.
+     *
+     * @param targetKey       the key we are looking for
+     * @param stringLength    the length of the string of a record, 55 or 27
+     * @param unsortedChannel the channel of the unsorted keys file
+     * @param dataPairChannel the channel of the dataPair file
+     * @return true if the file contains the key
+     * @throws IOException if an I/O error occurs while reading the files
+     */
+    public static boolean unsortedFileIndexSearch(int targetKey, int stringLength, FileChannel unsortedChannel,
+            FileChannel dataPairChannel) throws IOException {
+        int dataPage = searchInUnsortedFile(targetKey, unsortedChannel);
+        return dataPage != -1 && searchDataPage(targetKey, dataPage, stringLength, dataPairChannel);
+    }
+
+    /**
+     * Method C. Binary searches the sorted keys file for the data page of the key and then searches that page.
+     *
+     * @param targetKey       the key we are looking for
+     * @param stringLength    the length of the string of a record, 55 or 27
+     * @param sortedChannel   the channel of the sorted keys file
+     * @param dataPairChannel the channel of the dataPair file
+     * @return true if the file contains the key
+     * @throws IOException if an I/O error occurs while reading the files
+     */
+    public static boolean sortedFileIndexSearch(int targetKey, int stringLength, FileChannel sortedChannel,
+            FileChannel dataPairChannel) throws IOException {
+        int dataPage = binarySearch(targetKey, sortedChannel);
+        return dataPage != -1 && searchDataPage(targetKey, dataPage, stringLength, dataPairChannel);
+    }
+
+    /**
+     * Method A behind the Bloom filter: a key that the filter rejects is answered without a read.
+     *
+     * @param targetKey       the key we are looking for
+     * @param stringLength    the length of the string of a record, 55 or 27
+     * @param dataPairChannel the channel of the dataPair file
+     * @param bloomFilter     the filter of the keys of the dataPair file, or null to scan for every key
+     * @return true if the file contains the key
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static boolean randomSearch(int targetKey, int stringLength, FileChannel dataPairChannel, BloomFilter bloomFilter)
+            throws IOException {
+        return mightContain(bloomFilter, targetKey) && randomSearch(targetKey, stringLength, dataPairChannel);
+    }
+
+    /**
+     * Method B behind the Bloom filter: a key that the filter rejects is answered without a read.
+     *
+     * @param targetKey       the key we are looking for
+     * @param stringLength    the length of the string of a record, 55 or 27
+     * @param unsortedChannel the channel of the unsorted keys file
+     * @param dataPairChannel the channel of the dataPair file
+     * @param bloomFilter     the filter of the keys of the dataPair file, or null to search every key
+     * @return true if the file contains the key
+     * @throws IOException if an I/O error occurs while reading the files
+     */
+    public static boolean unsortedFileIndexSearch(int targetKey, int stringLength, FileChannel unsortedChannel,
+            FileChannel dataPairChannel, BloomFilter bloomFilter) throws IOException {
+        return mightContain(bloomFilter, targetKey)
+                && unsortedFileIndexSearch(targetKey, stringLength, unsortedChannel, dataPairChannel);
+    }
+
+    /**
+     * Method C behind the Bloom filter: a key that the filter rejects is answered without a read.
+     *
+     * @param targetKey       the key we are looking for
+     * @param stringLength    the length of the string of a record, 55 or 27
+     * @param sortedChannel   the channel of the sorted keys file
+     * @param dataPairChannel the channel of the dataPair file
+     * @param bloomFilter     the filter of the keys of the dataPair file, or null to search every key
+     * @return true if the file contains the key
+     * @throws IOException if an I/O error occurs while reading the files
+     */
+    public static boolean sortedFileIndexSearch(int targetKey, int stringLength, FileChannel sortedChannel,
+            FileChannel dataPairChannel, BloomFilter bloomFilter) throws IOException {
+        return mightContain(bloomFilter, targetKey)
+                && sortedFileIndexSearch(targetKey, stringLength, sortedChannel, dataPairChannel);
+    }
+
+    /**
+     * Scans the pages of the unsorted keys file for the key.
+     *
+     * @param targetKey       the key we are looking for
+     * @param unsortedChannel the channel of the unsorted keys file
+     * @return the data page of the key, or -1 if the file does not contain it
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static int searchInUnsortedFile(int targetKey, FileChannel unsortedChannel) throws IOException {
+        int pairsPerPage = PageFile.pageSize(unsortedChannel) / RECORD_SIZE_KEY_PAIR - 1;
+        KeyMatcher keyMatcher = KeyMatchers.get();
+        ByteBuffer page = pageBuffer(unsortedChannel);
+        for (int pageNo = 0; ; pageNo++) {
+            int bytesRead = readPage(unsortedChannel, pageNo, page);
+            if (bytesRead <= 0) {
+                return -1;
+            }
+            int numPairs = Math.min(pairsPerPage, bytesRead / RECORD_SIZE_KEY_PAIR);
+            int pair = keyMatcher.indexOfPairKey(page.array(), numPairs, targetKey);
+            if (pair != -1) {
+                return KeyMatcher.intAt(page.array(), pair * RECORD_SIZE_KEY_PAIR + Integer.BYTES);
+            }
+        }
+    }
+
+    /**
+     * Binary searches the pages of the sorted keys file and then the pairs of the page that
+     * can hold the key.
+     *
+     * @param targetKey     the key we are looking for
+     * @param sortedChannel the channel of the sorted keys file
+     * @return the data page of the key, or -1 if the file does not contain it
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static int binarySearch(int targetKey, FileChannel sortedChannel) throws IOException {
+        int pairsPerPage = PageFile.pageSize(sortedChannel) / RECORD_SIZE_KEY_PAIR - 1;
+        ByteBuffer page = pageBuffer(sortedChannel);
+        int leftIndex = 0;
+        int rightIndex = PageFile.pageCount(sortedChannel) - 1;
+        while (leftIndex <= rightIndex) {
+            int midIndex = (leftIndex + rightIndex) >>> 1;
+            int bytesRead = readPage(sortedChannel, midIndex, page);
+            int numPairs = pairsInPage(page.array(), Math.min(pairsPerPage, Math.max(0, bytesRead) / RECORD_SIZE_KEY_PAIR));
+            if (numPairs == 0 || targetKey < KeyMatcher.intAt(page.array(), 0)) {
+                rightIndex = midIndex - 1;
+            } else if (targetKey > KeyMatcher.intAt(page.array(), (numPairs - 1) * RECORD_SIZE_KEY_PAIR)) {
+                leftIndex = midIndex + 1;
+            } else {
+                return searchPairs(page.array(), numPairs, targetKey);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Searches the key in one page of the dataPair file.
+     *
+     * @param targetKey       the key we are looking for
+     * @param dataPage        the page of the dataPair file
+     * @param stringLength    the length of the string of a record, 55 or 27
+     * @param dataPairChannel the channel of the dataPair file
+     * @return true if the page contains the key
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static boolean searchDataPage(int targetKey, int dataPage, int stringLength, FileChannel dataPairChannel)
+            throws IOException {
+        if (dataPage < 0) {
+            return false;
+        }
+        ByteBuffer page = pageBuffer(dataPairChannel);
+        int bytesRead = readPage(dataPairChannel, dataPage, page);
+        return bytesRead > 0
+                && DataPage.indexOfKey(page.array(), bytesRead, Integer.BYTES + stringLength, targetKey) != -1;
+    }
+
+    /**
+     * @return the pages read by all the threads since the last reset
+     */
+    public static long getPagesRead() {
+        return pagesRead.sum();
+    }
+
+    /**
+     * Sets the pages read back to zero.
+     */
+    public static void resetPagesRead() {
+        pagesRead.reset();
+    }
+
+    // Without a filter every key may be in the file
+    static boolean mightContain(BloomFilter bloomFilter, int key) {
+        return bloomFilter == null || bloomFilter.mightContain(key);
+    }
+
+    private static ByteBuffer pageBuffer(FileChannel channel) throws IOException {
+        int pageSize = PageFile.pageSize(channel);
+        ByteBuffer page = buffers.get();
+        if (page.capacity() != pageSize) {
+            page = ByteBuffer.allocate(pageSize);
+            buffers.set(page);
+        }
+        return page;
+    }
+
+    /**
+     * Reads a whole page with positional reads, which leave the position of the channel alone.
+     *
+     * @return the bytes read, less than a page only at the end of the file, or -1 after its end
+     */
+    private static int readPage(FileChannel channel, int pageNo, ByteBuffer page) throws IOException {
+        long offset = PageFile.offsetOf(channel, pageNo);
+        page.clear();
+        while (page.hasRemaining()) {
+            int read = channel.read(page, offset + page.position());
+            if (read == -1) {
+                break;
+            }
+        }
+        if (page.position() == 0) {
+            return -1;
+        }
+        pagesRead.increment();
+        return page.position();
+    }
+
+    /**
+     * The pairs of a sorted page before the padding. The padding is END_CHARACTER, which is
+     * greater than every key, so the first padding pair is found with a binary search.
+     */
+    static int pairsInPage(byte[] page, int maxPairs) {
+        int leftIndex = 0;
+        int rightIndex = maxPairs;
+        while (leftIndex < rightIndex) {
+            int midIndex = (leftIndex + rightIndex) >>> 1;
+            if (KeyMatcher.intAt(page, midIndex * RECORD_SIZE_KEY_PAIR) == KeyMatcher.END_CHARACTER) {
+                rightIndex = midIndex;
+            } else {
+                leftIndex = midIndex + 1;
+            }
+        }
+        return leftIndex;
+    }
+
+    static int searchPairs(byte[] page, int numPairs, int targetKey) {
+        int leftIndex = 0;
+        int rightIndex = numPairs - 1;
+        while (leftIndex <= rightIndex) {
+            int midIndex = (leftIndex + rightIndex) >>> 1;
+            int midKey = KeyMatcher.intAt(page, midIndex * RECORD_SIZE_KEY_PAIR);
+            if (midKey == targetKey) {
+                return KeyMatcher.intAt(page, midIndex * RECORD_SIZE_KEY_PAIR + Integer.BYTES);
+            } else if (midKey < targetKey) {
+                leftIndex = midIndex + 1;
+            } else {
+                rightIndex = midIndex - 1;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,54 @@
+package org.tuc.concurrentSearch;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors that start a new thread for every task, like a service that serves every request
+ * on a thread of its own. On a JVM with virtual threads (Java 21 and later) the threads are
+ * virtual. The project is built for Java 17, so the executor is looked up by reflection and
+ * a cached pool of platform threads is used when it does not exist.
+ */
+public final class PerTaskExecutors {
+
+    private static final Method VIRTUAL_EXECUTOR = findVirtualExecutor();
+
+    //This class should not be instantiated
+    private PerTaskExecutors() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    private static Method findVirtualExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if {@link #newThreadPerTaskExecutor()} starts virtual threads
+     */
+    public static boolean isVirtual() {
+        return VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Returns an executor that starts a new thread for every task, a virtual one when the JVM
+     * has them and a platform one (from a cached pool) otherwise.
+     *
+     * @return the executor, to be shut down by the caller
+     */
+    public static ExecutorService newThreadPerTaskExecutor() {
+        if (VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR.invoke(null);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("The virtual thread executor could not be created", e);
+            }
+        }
+        return Executors.newCachedThreadPool();
+    }
+}
@@ -9,8 +9,8 @@ import java.util.stream.Collectors;
 
 /**
  * This class generates random data instances, which consist of a random key and a random string.
- * The class provides methods for generating random keys and strings, as well as for generating
- * a list of data instances.
+ * The class provides methods for generating lists of random keys; the records of the data pair
+ * file come from {@link DataPairGenerator}.
  */
 public class DataClass implements Serializable {
 	
@@ -22,39 +22,9 @@ public class DataClass implements Serializable {
     private static final int MAX_DUPLICATE_KEYS = 1000;
     public static List<Integer> uniqueKeys  = new ArrayList<>(MAX_INSTANCES);
     public static List<Integer> duplicateKeys = new ArrayList<>(MAX_DUPLICATE_KEYS);
-    public static List<DataPair> dataPairs = new ArrayList<>(MAX_INSTANCES);
     private static final Random random = new Random();
 
     
-    /**
-     * Generates a random string of length stringLength
-     * @param stringLength the length of the string to generate
-     * @param random the Random object to use for generating the string
-     * @return a random string of length stringLength
-     * Adopted from <a href="https://www.geeksforgeeks.org/generate-random-string-of-given-size-in-java/">geeksforgeeks</a> 
-     */
-    private static String generateRandomString(int stringLength) {
-    	// choose a Character random from this String
-    	  String AlphaNumericString = "ABCDEFGHIJKLMNOPQRSTUVWXYZ"
-    	         + "0123456789"
-    	         + "abcdefghijklmnopqrstuvxyz";
-    	 StringBuilder sb = new StringBuilder(stringLength);
-    	  for (int i = 0; i < stringLength; i++) {
-    	 
-    	   // generate a random number between
-    	   // 0 to AlphaNumericString variable length
-    	   int index
-    	    = (int)(AlphaNumericString.length()
-    	      * Math.random());
-    	 
-    	   // add Character one by one in end of sb
-    	   sb.append(AlphaNumericString
-    	      .charAt(index));
-    	  }
-        return sb.toString();
-    }
-    
-    
     /**
      * Generates a list of unique random keys.
      * 
@@ -100,27 +70,6 @@ public class DataClass implements Serializable {
         return duplicateKeys;
     }
 
-
-    
-    /**
-     * Generates N DataPair instances with random keys and strings and adds them to a list.
-     * 
-     * 
-     * @param N the number of instances to create
-     * @param stringLength the length of each random string
-     * @param minValue the minimum value of the random key(inclusive)
-     * @param maxValue the maximum value of the random key(exclusive)
-     * @return a List of N DataPair instances
-     */
-    public static List<DataPair> generateDataPairs(int N, int stringLength, int minValue, int maxValue) {
-    	List<Integer> helpList = generateRandomKeys(minValue, maxValue, N);
-    	for(Integer uniqueKey : helpList ) {
-        String randomString = generateRandomString(stringLength);
-        dataPairs.add(new DataPair(uniqueKey,randomString));
-        }
-        return dataPairs;
-    }
-
     /**
      * @return the random key stored in the object
      */
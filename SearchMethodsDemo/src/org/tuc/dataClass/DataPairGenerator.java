@@ -0,0 +1,138 @@
+package org.tuc.dataClass;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+/**
+ * Produces the records of a data pair file one at a time, without a {@link DataPair} or a
+ * {@link String} for any of them, so the memory used does not grow with the number of records.
+ * The keys are distinct random keys of [minValue, maxValue], like the ones of
+ * {@link DataClass#generateRandomKeys(int, int, int)}, and the strings are alphanumeric.
+ *
+ * <p>In generation order the keys are the first N numbers of a {@link KeyPermutation} of the range.
+ * In key order they come from selection sampling (Knuth, Algorithm S): every key of the range is
+ * taken with probability (keys still needed) / (keys still left), which gives N distinct keys in
+ * ascending order in one pass over the range.
+ *
+ * <p>The strings have stringLength characters, or, with variable lengths, a random length from 1
+ * to stringLength, which only the slotted pages of {@link org.tuc.utils.DataPage} store as they are.
+ */
+public class DataPairGenerator {
+
+    private static final byte[] ALPHA_NUMERIC = ("ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+            + "0123456789"
+            + "abcdefghijklmnopqrstuvxyz").getBytes(StandardCharsets.US_ASCII);
+
+    private final long numOfRecords;
+    private final int stringLength;
+    private final int minValue;
+    private final long range;
+    private final boolean sorted;
+    private final boolean variableLength;
+    private final SplittableRandom random;
+    private final KeyPermutation permutation;
+
+    private long generated;
+    // The offset from minValue of the next key that selection sampling looks at
+    private long candidate;
+
+    /**
+     * @param numOfRecords the number of records to produce
+     * @param stringLength the length of the string of a record, 55 or 27
+     * @param minValue     the minimum value of a key (inclusive)
+     * @param maxValue     the maximum value of a key (inclusive)
+     * @param sorted       whether the keys come in ascending order instead of random order
+     * @param seed         the seed of the keys and the strings, the same seed gives the same records
+     * @throws IllegalArgumentException if the range has fewer keys than the records
+     */
+    public DataPairGenerator(long numOfRecords, int stringLength, int minValue, int maxValue, boolean sorted, long seed) {
+        this(numOfRecords, stringLength, minValue, maxValue, sorted, seed, false);
+    }
+
+    /**
+     * @param numOfRecords   the number of records to produce
+     * @param stringLength   the length of the string of a record, or the longest length with variable lengths
+     * @param minValue       the minimum value of a key (inclusive)
+     * @param maxValue       the maximum value of a key (inclusive)
+     * @param sorted         whether the keys come in ascending order instead of random order
+     * @param seed           the seed of the keys and the strings, the same seed gives the same records
+     * @param variableLength whether every string gets a random length from 1 to stringLength
+     * @throws IllegalArgumentException if the range has fewer keys than the records
+     */
+    public DataPairGenerator(long numOfRecords, int stringLength, int minValue, int maxValue, boolean sorted, long seed,
+            boolean variableLength) {
+        this.range = (long) maxValue - minValue + 1;
+        if (numOfRecords < 0 || range < numOfRecords) {
+            throw new IllegalArgumentException("Cannot generate " + numOfRecords + " distinct keys in ["
+                    + minValue + ", " + maxValue + "]");
+        }
+        this.numOfRecords = numOfRecords;
+        this.stringLength = stringLength;
+        this.minValue = minValue;
+        this.sorted = sorted;
+        this.variableLength = variableLength;
+        this.random = new SplittableRandom(seed);
+        this.permutation = sorted || range <= 0 ? null : new KeyPermutation(range, random.nextLong());
+    }
+
+    /**
+     * @return true if there is one more record
+     */
+    public boolean hasNext() {
+        return generated < numOfRecords;
+    }
+
+    /**
+     * @return the key of the next record, distinct from every key before it
+     */
+    public int nextKey() {
+        if (!hasNext()) {
+            throw new IllegalStateException("All " + numOfRecords + " records were generated");
+        }
+        if (!sorted) {
+            return (int) (minValue + permutation.get(generated++));
+        }
+        long needed = numOfRecords - generated;
+        while (random.nextLong(range - candidate) >= needed) {
+            candidate++;
+        }
+        generated++;
+        return (int) (minValue + candidate++);
+    }
+
+    /**
+     * Writes a random string of ASCII characters, stringLength of them or fewer with variable lengths.
+     *
+     * @param destination the array to write to, with room for stringLength characters
+     * @param offset      the position of the first character
+     * @return the length of the string
+     */
+    public int nextString(byte[] destination, int offset) {
+        int length = variableLength ? random.nextInt(1, stringLength + 1) : stringLength;
+        for (int i = offset; i < offset + length; i++) {
+            destination[i] = ALPHA_NUMERIC[random.nextInt(ALPHA_NUMERIC.length)];
+        }
+        return length;
+    }
+
+    /**
+     * @return whether the strings have a random length up to {@link #getStringLength()}
+     */
+    public boolean isVariableLength() {
+        return variableLength;
+    }
+
+    /**
+     * @return the length of the string of a record, the longest one with variable lengths
+     */
+    public int getStringLength() {
+        return stringLength;
+    }
+
+    /**
+     * @return the number of records produced so far
+     */
+    public long getGenerated() {
+        return generated;
+    }
+}
@@ -0,0 +1,81 @@
+package org.tuc.dataClass;
+
+import java.util.Arrays;
+
+/**
+ * The pairs key-DataPage of a data pair file in two parallel primitive arrays, the same pairs
+ * as a list of {@link DataPagePair} without an object per pair. The pair i is
+ * ({@code getKey(i)}, {@code getDataPage(i)}), in the order in which the pairs were added.
+ */
+public final class KeyPagePairs {
+
+    private int[] keys;
+    private int[] pages;
+    private int size;
+
+    /**
+     * @param expectedPairs the number of pairs that will be added, the arrays grow if there are more
+     */
+    public KeyPagePairs(int expectedPairs) {
+        this.keys = new int[Math.max(16, expectedPairs)];
+        this.pages = new int[keys.length];
+    }
+
+    /**
+     * Adds a pair at the end.
+     *
+     * @param key      the key
+     * @param dataPage the page of the dataPair file with the key
+     */
+    public void add(int key, int dataPage) {
+        if (size == keys.length) {
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, (long) keys.length * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            pages = Arrays.copyOf(pages, capacity);
+        }
+        keys[size] = key;
+        pages[size] = dataPage;
+        size++;
+    }
+
+    /**
+     * @return the number of pairs
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index the number of the pair
+     * @return the key of the pair
+     */
+    public int getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @param index the number of the pair
+     * @return the data page of the pair
+     */
+    public int getDataPage(int index) {
+        return pages[index];
+    }
+
+    /**
+     * @return the number of data pages, one more than the largest data page of a pair
+     */
+    public int getPageCount() {
+        int pageCount = 0;
+        for (int i = 0; i < size; i++) {
+            pageCount = Math.max(pageCount, pages[i] + 1);
+        }
+        return pageCount;
+    }
+
+    /**
+     * Removes every pair.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,71 @@
+package org.tuc.dataClass;
+
+/**
+ * A random permutation of the numbers [0, size) that is computed instead of stored.
+ * A small Feistel network is a bijection on the numbers of an even number of bits, and the
+ * numbers that fall outside the range are encrypted again until they fall inside it (cycle
+ * walking), so {@link #get(long)} maps different indexes to different numbers in constant memory.
+ * The first N numbers of the permutation are N distinct random numbers of the range.
+ */
+public final class KeyPermutation {
+
+    private static final int ROUNDS = 4;
+
+    private final long size;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    /**
+     * @param size the numbers of the range, at least 1
+     * @param seed the seed of the round keys, the same seed gives the same permutation
+     */
+    public KeyPermutation(long size, long seed) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The range must not be empty: " + size);
+        }
+        this.size = size;
+        // the smallest domain of 2 * halfBits bits that holds the range, at most four times the range
+        int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(size - 1));
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+        long state = seed;
+        for (int round = 0; round < ROUNDS; round++) {
+            state += 0x9E3779B97F4A7C15L;
+            roundKeys[round] = mix(state);
+        }
+    }
+
+    /**
+     * @param index the position in the permutation, in [0, size)
+     * @return the number at that position, in [0, size)
+     */
+    public long get(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        long value = index;
+        do {
+            value = encrypt(value);
+        } while (value >= size);
+        return value;
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (long roundKey : roundKeys) {
+            long next = left ^ (mix(right ^ roundKey) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    // The finalizer of SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
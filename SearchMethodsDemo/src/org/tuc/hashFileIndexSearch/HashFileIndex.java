@@ -0,0 +1,345 @@
+package org.tuc.hashFileIndexSearch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.tuc.keyMatcher.KeyMatcher;
+import org.tuc.keyMatcher.KeyMatchers;
+import org.tuc.metrics.Counter;
+import org.tuc.metrics.Metrics;
+import org.tuc.utils.PageFile;
+
+/**
+ * A static hash index of pairs key-DataPage, grown with linear hashing.
+ *
+ * <p>The primary file keeps the state of linear hashing in its header page and then one page per
+ * bucket, so bucket b is page b. A split appends the new bucket at the end of the primary file and
+ * never moves the other buckets. Full buckets chain overflow pages, which live in a second file.
+ *
+ * <p>A bucket page has up to pageSize / 8 - 1 pairs from its start, like the pages of the other key
+ * files, followed by the number of pairs and the next overflow page (-1 for the end of the chain).
+ * Every page read by a search increases {@link #PAGE_READS}.
+ *
+ * <p>The state of linear hashing is written to the header page by {@link #flush()} or
+ * {@link #close()}, not by every insert, so a build of N pairs does not write the header N times.
+ * Closing the index does not close its files, which belong to the caller.
+ */
+public final class HashFileIndex implements Closeable {
+
+    /** The pages of the primary and the overflow file read by the searches of all the indexes. */
+    public static final Counter PAGE_READS = Metrics.counter("methodD.pageReads");
+
+    private static final int RECORD_SIZE_KEY_PAIR = Integer.BYTES * 2;
+    private static final int NO_PAGE = -1;
+
+    // A bucket splits when the pairs fill more than this part of the primary pages
+    private static final double MAX_LOAD_FACTOR = 0.8;
+
+    private final RandomAccessFile primaryFile;
+    private final RandomAccessFile overflowFile;
+    private final int pairsPerPage;
+    private final int countOffset;
+    private final int nextOffset;
+    private final byte[] buffer;
+
+    // The pairs of the bucket that splits, reused by every split and grown when a chain is longer
+    private int[] splitPairs;
+    // True if the state changed after the header page was written
+    private boolean metaChanged;
+
+    // The state of linear hashing, kept in the header page
+    private int initialBuckets;
+    private int level;
+    private int next;
+    private int numPairs;
+    private int overflowPages;
+    private int freeOverflowPage;
+
+    private HashFileIndex(RandomAccessFile primaryFile, RandomAccessFile overflowFile, int pageSize) {
+        this.primaryFile = primaryFile;
+        this.overflowFile = overflowFile;
+        this.pairsPerPage = (pageSize / RECORD_SIZE_KEY_PAIR) - 1;
+        this.countOffset = pairsPerPage * RECORD_SIZE_KEY_PAIR;
+        this.nextOffset = countOffset + Integer.BYTES;
+        this.buffer = new byte[pageSize];
+        this.splitPairs = new int[pairsPerPage * 2];
+    }
+
+    /**
+     * Creates an empty index in the given files.
+     *
+     * @param primaryFile    the file of the header page and the primary buckets
+     * @param overflowFile   the file of the overflow pages
+     * @param initialBuckets the buckets before the first split, a power of two
+     * @param pageSize       the size of a bucket page
+     * @return the empty index
+     * @throws IOException if an I/O error occurs while writing the files
+     */
+    public static HashFileIndex create(RandomAccessFile primaryFile, RandomAccessFile overflowFile, int initialBuckets,
+            int pageSize) throws IOException {
+        if (initialBuckets <= 0 || Integer.bitCount(initialBuckets) != 1) {
+            throw new IllegalArgumentException("initialBuckets must be a power of two: " + initialBuckets);
+        }
+        primaryFile.setLength(0);
+        overflowFile.setLength(0);
+        PageFile.writeHeader(primaryFile, pageSize);
+        PageFile.writeHeader(overflowFile, pageSize);
+        HashFileIndex index = new HashFileIndex(primaryFile, overflowFile, pageSize);
+        index.initialBuckets = initialBuckets;
+        index.freeOverflowPage = NO_PAGE;
+        for (int bucket = 0; bucket < initialBuckets; bucket++) {
+            index.writeBucketPage(primaryFile, bucket, new int[0], 0, NO_PAGE);
+        }
+        index.writeMeta();
+        return index;
+    }
+
+    /**
+     * Opens an index that was created before. Only the header page is read.
+     *
+     * @param primaryFile  the file of the header page and the primary buckets
+     * @param overflowFile the file of the overflow pages
+     * @return the index
+     * @throws IOException if an I/O error occurs while reading the header page
+     */
+    public static HashFileIndex open(RandomAccessFile primaryFile, RandomAccessFile overflowFile) throws IOException {
+        HashFileIndex index = new HashFileIndex(primaryFile, overflowFile, PageFile.pageSize(primaryFile));
+        primaryFile.seek(PageFile.HEADER_BYTES);
+        index.initialBuckets = primaryFile.readInt();
+        index.level = primaryFile.readInt();
+        index.next = primaryFile.readInt();
+        index.numPairs = primaryFile.readInt();
+        index.overflowPages = primaryFile.readInt();
+        index.freeOverflowPage = primaryFile.readInt();
+        return index;
+    }
+
+    /**
+     * Searches the key in its bucket and the overflow pages of the bucket.
+     *
+     * @param targetKey the key we are looking for
+     * @return the data page of the key, or -1 if the index does not contain it
+     * @throws IOException if an I/O error occurs while reading the files
+     */
+    public int search(int targetKey) throws IOException {
+        KeyMatcher keyMatcher = KeyMatchers.get();
+        RandomAccessFile file = primaryFile;
+        int pageNo = bucketOf(targetKey);
+        while (pageNo != NO_PAGE) {
+            PAGE_READS.increment();
+            readPage(file, pageNo);
+            int pair = keyMatcher.indexOfPairKey(buffer, KeyMatcher.intAt(buffer, countOffset), targetKey);
+            if (pair != -1) {
+                return KeyMatcher.intAt(buffer, pair * RECORD_SIZE_KEY_PAIR + Integer.BYTES);
+            }
+            pageNo = KeyMatcher.intAt(buffer, nextOffset);
+            file = overflowFile;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a pair to the index. When the load factor passes {@value #MAX_LOAD_FACTOR} the bucket
+     * {@code next} is split, so the index grows one bucket at a time without a rebuild.
+     * The new state reaches the header page with {@link #flush()} or {@link #close()}.
+     *
+     * @param key      the key
+     * @param dataPage the page of the dataPair file with the key
+     * @throws IOException if an I/O error occurs while writing the files
+     */
+    public void insert(int key, int dataPage) throws IOException {
+        appendToBucket(bucketOf(key), key, dataPage);
+        numPairs++;
+        if (numPairs > MAX_LOAD_FACTOR * getBuckets() * pairsPerPage) {
+            split();
+        }
+        metaChanged = true;
+    }
+
+    /**
+     * Writes the state of linear hashing to the header page, if it changed since the last time.
+     *
+     * @throws IOException if an I/O error occurs while writing the header page
+     */
+    public void flush() throws IOException {
+        if (metaChanged) {
+            writeMeta();
+            metaChanged = false;
+        }
+    }
+
+    /**
+     * Writes the state of the index with {@link #flush()}. The files stay open.
+     *
+     * @throws IOException if an I/O error occurs while writing the header page
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    private int bucketOf(int key) {
+        int hash = hash(key);
+        int bucket = hash & ((initialBuckets << level) - 1);
+        if (bucket < next) {
+            bucket = hash & ((initialBuckets << (level + 1)) - 1);
+        }
+        return bucket;
+    }
+
+    private static int hash(int key) {
+        // the keys of the tests are consecutive, so the bits are mixed before the low ones are used
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void appendToBucket(int bucket, int key, int dataPage) throws IOException {
+        RandomAccessFile file = primaryFile;
+        int pageNo = bucket;
+        while (true) {
+            readPage(file, pageNo);
+            int count = KeyMatcher.intAt(buffer, countOffset);
+            int nextPage = KeyMatcher.intAt(buffer, nextOffset);
+            if (count < pairsPerPage) {
+                ByteBuffer bb = ByteBuffer.wrap(buffer);
+                bb.putInt(count * RECORD_SIZE_KEY_PAIR, key);
+                bb.putInt(count * RECORD_SIZE_KEY_PAIR + Integer.BYTES, dataPage);
+                bb.putInt(countOffset, count + 1);
+                writePage(file, pageNo);
+                return;
+            }
+            if (nextPage == NO_PAGE) {
+                int overflowPage = allocateOverflowPage();
+                ByteBuffer.wrap(buffer).putInt(nextOffset, overflowPage);
+                writePage(file, pageNo);
+                writeBucketPage(overflowFile, overflowPage, new int[] {key, dataPage}, 1, NO_PAGE);
+                return;
+            }
+            file = overflowFile;
+            pageNo = nextPage;
+        }
+    }
+
+    /**
+     * Splits the bucket {@code next}: its pairs are shared between itself and a new bucket at the end
+     * of the primary file, according to one more bit of the hash.
+     */
+    private void split() throws IOException {
+        int oldBucket = next;
+        int newBucket = oldBucket + (initialBuckets << level);
+
+        // Collect the chain of the bucket and give its overflow pages back
+        int size = 0;
+        RandomAccessFile file = primaryFile;
+        int pageNo = oldBucket;
+        while (pageNo != NO_PAGE) {
+            readPage(file, pageNo);
+            int count = KeyMatcher.intAt(buffer, countOffset);
+            if (size + count * 2 > splitPairs.length) {
+                splitPairs = Arrays.copyOf(splitPairs, Math.max(splitPairs.length * 2, size + count * 2));
+            }
+            for (int i = 0; i < count * 2; i++) {
+                splitPairs[size++] = KeyMatcher.intAt(buffer, i * Integer.BYTES);
+            }
+            int nextPage = KeyMatcher.intAt(buffer, nextOffset);
+            if (file == overflowFile) {
+                freeOverflowPage(pageNo);
+            }
+            file = overflowFile;
+            pageNo = nextPage;
+        }
+
+        next++;
+        if (next == (initialBuckets << level)) {
+            level++;
+            next = 0;
+        }
+
+        writeBucketPage(primaryFile, oldBucket, new int[0], 0, NO_PAGE);
+        writeBucketPage(primaryFile, newBucket, new int[0], 0, NO_PAGE);
+        for (int i = 0; i < size; i += 2) {
+            int key = splitPairs[i];
+            appendToBucket(bucketOf(key), key, splitPairs[i + 1]);
+        }
+    }
+
+    private int allocateOverflowPage() throws IOException {
+        if (freeOverflowPage == NO_PAGE) {
+            return overflowPages++;
+        }
+        // only the link of the free page is read, the buffer still holds the page that needs it
+        int pageNo = freeOverflowPage;
+        overflowFile.seek(PageFile.offsetOf(overflowFile, pageNo) + nextOffset);
+        freeOverflowPage = overflowFile.readInt();
+        return pageNo;
+    }
+
+    private void freeOverflowPage(int pageNo) throws IOException {
+        writeBucketPage(overflowFile, pageNo, new int[0], 0, freeOverflowPage);
+        freeOverflowPage = pageNo;
+    }
+
+    private void writeBucketPage(RandomAccessFile file, int pageNo, int[] pairs, int count, int nextPage) throws IOException {
+        ByteBuffer bb = ByteBuffer.wrap(buffer);
+        for (int i = 0; i < pairsPerPage; i++) {
+            if (i < count) {
+                bb.putInt(pairs[i * 2]);
+                bb.putInt(pairs[i * 2 + 1]);
+            } else {
+                // the free slots end the search of the page, like the padding of the other key files
+                bb.putInt(KeyMatcher.END_CHARACTER);
+                bb.putInt(KeyMatcher.END_CHARACTER);
+            }
+        }
+        bb.putInt(count);
+        bb.putInt(nextPage);
+        writePage(file, pageNo);
+    }
+
+    private void writeMeta() throws IOException {
+        // the state follows the magic number and the page size in the header page
+        ByteBuffer bb = ByteBuffer.allocate(Integer.BYTES * 6);
+        bb.putInt(initialBuckets);
+        bb.putInt(level);
+        bb.putInt(next);
+        bb.putInt(numPairs);
+        bb.putInt(overflowPages);
+        bb.putInt(freeOverflowPage);
+        primaryFile.seek(PageFile.HEADER_BYTES);
+        primaryFile.write(bb.array());
+    }
+
+    private void readPage(RandomAccessFile file, int pageNo) throws IOException {
+        file.seek(PageFile.offsetOf(file, pageNo));
+        file.readFully(buffer);
+    }
+
+    private void writePage(RandomAccessFile file, int pageNo) throws IOException {
+        file.seek(PageFile.offsetOf(file, pageNo));
+        file.write(buffer);
+    }
+
+    /**
+     * @return the primary buckets of the index
+     */
+    public int getBuckets() {
+        return (initialBuckets << level) + next;
+    }
+
+    /**
+     * @return the overflow pages of the index, including the free ones
+     */
+    public int getOverflowPages() {
+        return overflowPages;
+    }
+
+    /**
+     * @return the pairs of the index
+     */
+    public int getNumPairs() {
+        return numPairs;
+    }
+}
@@ -0,0 +1,56 @@
+package org.tuc.keyMatcher;
+
+/**
+ * A kernel that finds a key inside one page that is already in memory.
+ * The search classes use it for their inner loops, so the comparison can be done
+ * either one key at a time or many keys at once (SIMD), see {@link KeyMatchers}.
+ */
+public interface KeyMatcher {
+
+    /**
+     * It is the decimal representation of the 32-bit number you get when you put 4 ASCII space
+     * characters in a 32-bit word. A key page ends when we reach it.
+     */
+    int END_CHARACTER = 538976288;
+
+    /**
+     * Finds the key in a page of the dataPair file, where every record is a key followed by a string.
+     *
+     * @param page       the bytes of the page
+     * @param length     the number of valid bytes in the page
+     * @param recordSize the size of a record (Integer.BYTES + stringLength)
+     * @param targetKey  the key we are looking for
+     * @return the index of the record with the key, or -1 if the page does not contain it
+     */
+    int indexOfKey(byte[] page, int length, int recordSize, int targetKey);
+
+    /**
+     * Finds the key in a page of a key file, where every record is a pair key-DataPage.
+     * The search stops at the end character, like the readers of the key files.
+     *
+     * @param page      the bytes of the page
+     * @param numPairs  the maximum number of pairs that the page can contain
+     * @param targetKey the key we are looking for
+     * @return the index of the pair with the key, or -1 if the page does not contain it
+     */
+    int indexOfPairKey(byte[] page, int numPairs, int targetKey);
+
+    /**
+     * @return a short name of the kernel for the reports
+     */
+    String getName();
+
+    /**
+     * Reads a big endian int (the order used by ByteBuffer when the files are written).
+     *
+     * @param page   the bytes of the page
+     * @param offset the position of the int
+     * @return the int at the given position
+     */
+    static int intAt(byte[] page, int offset) {
+        return (page[offset] << 24)
+                | ((page[offset + 1] & 0xFF) << 16)
+                | ((page[offset + 2] & 0xFF) << 8)
+                | (page[offset + 3] & 0xFF);
+    }
+}
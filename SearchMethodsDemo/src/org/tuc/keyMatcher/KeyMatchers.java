@@ -0,0 +1,55 @@
+package org.tuc.keyMatcher;
+
+/**
+ * Selects the kernel used by the search classes.
+ * The SIMD kernel is used when the JVM runs with {@code --add-modules jdk.incubator.vector},
+ * otherwise (or with {@code -DkeyMatcher=scalar}) the scalar one is used.
+ */
+public final class KeyMatchers {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_CLASS = "org.tuc.keyMatcher.VectorKeyMatcher";
+
+    private static final KeyMatcher SCALAR = new ScalarKeyMatcher();
+    private static final KeyMatcher VECTOR = loadVector();
+    private static final KeyMatcher SELECTED =
+            "scalar".equals(System.getProperty("keyMatcher")) || VECTOR == null ? SCALAR : VECTOR;
+
+    //This class should not be instantiated
+    private KeyMatchers() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @return the kernel that the search classes use
+     */
+    public static KeyMatcher get() {
+        return SELECTED;
+    }
+
+    /**
+     * @return the scalar kernel
+     */
+    public static KeyMatcher scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * @return the SIMD kernel, or null if the Vector API is not available
+     */
+    public static KeyMatcher vector() {
+        return VECTOR;
+    }
+
+    // The class is loaded by name, so nothing links to the Vector API when the module is missing
+    private static KeyMatcher loadVector() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            return (KeyMatcher) Class.forName(VECTOR_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.tuc.keyMatcher;
+
+/**
+ * The plain kernel, it compares one key at a time.
+ * It is always available and it is used when the Vector API is not.
+ */
+public final class ScalarKeyMatcher implements KeyMatcher {
+
+    @Override
+    public int indexOfKey(byte[] page, int length, int recordSize, int targetKey) {
+        int numPairs = length / recordSize;
+        for (int i = 0; i < numPairs; i++) {
+            if (KeyMatcher.intAt(page, i * recordSize) == targetKey) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int indexOfPairKey(byte[] page, int numPairs, int targetKey) {
+        for (int i = 0; i < numPairs; i++) {
+            int key = KeyMatcher.intAt(page, i * Integer.BYTES * 2);
+            if (key == END_CHARACTER) {
+                return -1;
+            }
+            if (key == targetKey) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,118 @@
+package org.tuc.keyMatcher;
+
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel built on the incubating Vector API (jdk.incubator.vector).
+ * It must only be created through {@link KeyMatchers}, which checks that the module is present.
+ *
+ * <p>Key pages have a stride of two ints, so a whole vector of ints is loaded and compared with
+ * the broadcast key, keeping only the even lanes. Data pages have a stride of
+ * Integer.BYTES + stringLength bytes, which is not a multiple of an int. There the page is
+ * compared byte by byte with the four bytes of the key, using four loads shifted by one byte,
+ * and a mask of the record starts keeps only the positions where a key begins.
+ */
+final class VectorKeyMatcher implements KeyMatcher {
+
+    private static final VectorSpecies<Byte> BYTE_SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+
+    // true on the lanes that hold a key in a key page, false on the DataPage lanes
+    private static final VectorMask<Integer> KEY_LANES = keyLanes();
+
+    // The record start masks for every record size, they grow with the largest page seen
+    private final Map<Integer, boolean[]> recordStarts = new ConcurrentHashMap<>();
+
+    @Override
+    public int indexOfKey(byte[] page, int length, int recordSize, int targetKey) {
+        int numPairs = length / recordSize;
+        int usedBytes = numPairs * recordSize;
+        boolean[] starts = recordStarts(recordSize, usedBytes);
+        byte byte0 = (byte) (targetKey >>> 24);
+        byte byte1 = (byte) (targetKey >>> 16);
+        byte byte2 = (byte) (targetKey >>> 8);
+        byte byte3 = (byte) targetKey;
+
+        int position = 0;
+        // the load at position + 3 must stay inside the records
+        int bound = usedBytes - BYTE_SPECIES.length() - (Integer.BYTES - 1);
+        for (; position <= bound; position += BYTE_SPECIES.length()) {
+            VectorMask<Byte> match = ByteVector.fromArray(BYTE_SPECIES, page, position).eq(byte0)
+                    .and(ByteVector.fromArray(BYTE_SPECIES, page, position + 1).eq(byte1))
+                    .and(ByteVector.fromArray(BYTE_SPECIES, page, position + 2).eq(byte2))
+                    .and(ByteVector.fromArray(BYTE_SPECIES, page, position + 3).eq(byte3))
+                    .and(VectorMask.fromArray(BYTE_SPECIES, starts, position));
+            if (match.anyTrue()) {
+                return (position + match.firstTrue()) / recordSize;
+            }
+        }
+        // the last records, one at a time
+        for (int i = (position + recordSize - 1) / recordSize; i < numPairs; i++) {
+            if (KeyMatcher.intAt(page, i * recordSize) == targetKey) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int indexOfPairKey(byte[] page, int numPairs, int targetKey) {
+        if (targetKey == END_CHARACTER) {
+            return -1; //the scalar search stops there before comparing it
+        }
+        int numInts = numPairs * 2;
+        int i = 0;
+        for (; i <= numInts - INT_SPECIES.length(); i += INT_SPECIES.length()) {
+            IntVector ints = IntVector.fromByteArray(INT_SPECIES, page, i * Integer.BYTES, ByteOrder.BIG_ENDIAN);
+            VectorMask<Integer> match = ints.eq(targetKey).or(ints.eq(END_CHARACTER)).and(KEY_LANES);
+            if (match.anyTrue()) {
+                int pair = (i + match.firstTrue()) / 2;
+                // the first hit may be the end of the page
+                return KeyMatcher.intAt(page, pair * Integer.BYTES * 2) == targetKey ? pair : -1;
+            }
+        }
+        for (int pair = i / 2; pair < numPairs; pair++) {
+            int key = KeyMatcher.intAt(page, pair * Integer.BYTES * 2);
+            if (key == END_CHARACTER) {
+                return -1;
+            }
+            if (key == targetKey) {
+                return pair;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String getName() {
+        return "vector(" + BYTE_SPECIES.vectorBitSize() + " bits)";
+    }
+
+    private boolean[] recordStarts(int recordSize, int usedBytes) {
+        boolean[] starts = recordStarts.get(recordSize);
+        if (starts == null || starts.length < usedBytes) {
+            // room for a whole vector after the last record
+            starts = new boolean[usedBytes + BYTE_SPECIES.length()];
+            for (int i = 0; i < starts.length; i += recordSize) {
+                starts[i] = true;
+            }
+            recordStarts.put(recordSize, starts);
+        }
+        return starts;
+    }
+
+    private static VectorMask<Integer> keyLanes() {
+        boolean[] lanes = new boolean[INT_SPECIES.length()];
+        for (int i = 0; i < lanes.length; i += 2) {
+            lanes[i] = true;
+        }
+        return VectorMask.fromArray(INT_SPECIES, lanes, 0);
+    }
+}
@@ -0,0 +1,98 @@
+package org.tuc.metrics;
+
+/**
+ * The values of a {@link LatencyHistogram} at one moment. A percentile is the largest value of
+ * the bucket that holds it, and never more than the largest value recorded.
+ */
+public final class HistogramSnapshot {
+
+    private final String name;
+    private final long[] buckets;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(String name, long[] buckets, long count, long sum, long max) {
+        this.name = name;
+        this.buckets = buckets;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * @return the name of the histogram in the registry
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of the values recorded, in nanoseconds
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the largest value recorded, 0 without values
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return the mean of the values recorded, 0 without values
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the values of this snapshot and another one together, e.g. of two runs of the same
+     * test. The name stays the one of this snapshot.
+     *
+     * @param other the snapshot to add
+     * @return a new snapshot with the values of both
+     */
+    public HistogramSnapshot add(HistogramSnapshot other) {
+        long[] sumOfBuckets = buckets.clone();
+        for (int bucket = 0; bucket < sumOfBuckets.length; bucket++) {
+            sumOfBuckets[bucket] += other.buckets[bucket];
+        }
+        return new HistogramSnapshot(name, sumOfBuckets, count + other.count, sum + other.sum,
+                Math.max(max, other.max));
+    }
+
+    /**
+     * Returns the value below which the given percent of the values fall, e.g. 99 for p99 or
+     * 99.9 for p999.
+     *
+     * @param percentile a percent from 0 to 100
+     * @return the value of the percentile, 0 without values
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be from 0 to 100: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            seen += buckets[bucket];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueOf(bucket), max);
+            }
+        }
+        return max;
+    }
+}
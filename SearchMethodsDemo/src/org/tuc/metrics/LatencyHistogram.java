@@ -0,0 +1,161 @@
+package org.tuc.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A named histogram of latencies in nanoseconds with logarithmic buckets. The values below
+ * {@value #SUB_BUCKETS} have a bucket each, and every power of two above is split in
+ * {@value #SUB_BUCKETS} buckets of equal width, so a bucket is at most 12.5% wider than its lowest
+ * value and 488 buckets cover every positive long.
+ *
+ * <p>The counts are striped like a {@link java.util.concurrent.atomic.LongAdder}: a thread records
+ * into the stripe that the hash of its id picks, with atomic adds, so threads on different stripes
+ * do not contend and threads that share a stripe lose no value. There are at most
+ * {@value #MAX_STRIPES} stripes, the number of processors rounded up to a power of two, and a
+ * stripe is created the first time a thread records into it, so a histogram of one thread holds
+ * one stripe however many threads come and go. {@link #snapshot()} adds the stripes.
+ * {@link #reset()} is meant for the time between two runs: a value that a thread records while
+ * the stripes are cleared may survive the reset.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    // The last three slots of a stripe, after the buckets
+    private static final int COUNT = BUCKETS;
+    private static final int SUM = BUCKETS + 1;
+    private static final int MAX = BUCKETS + 2;
+
+    static final int MAX_STRIPES = 64;
+    private static final int STRIPES = stripesFor(Runtime.getRuntime().availableProcessors());
+
+    private final String name;
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+
+    /**
+     * Creates a histogram outside the registry, e.g. for the lookups of one run. The ones of the
+     * registry come from {@link Metrics#histogram(String)}.
+     *
+     * @param name the name of the histogram
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the name of the histogram in the registry
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records one latency. Negative values, e.g. of a clock that went back, count as 0.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        AtomicLongArray counts = stripe();
+        counts.getAndIncrement(bucketOf(value));
+        counts.getAndIncrement(COUNT);
+        counts.getAndAdd(SUM, value);
+        long max = counts.get(MAX);
+        while (value > max && !counts.compareAndSet(MAX, max, value)) {
+            max = counts.get(MAX);
+        }
+    }
+
+    /**
+     * @return the values recorded by all the threads since the last reset
+     */
+    public HistogramSnapshot snapshot() {
+        long[] buckets = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (int s = 0; s < stripes.length(); s++) {
+            AtomicLongArray counts = stripes.get(s);
+            if (counts == null) {
+                continue;
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] += counts.get(i);
+            }
+            count += counts.get(COUNT);
+            sum += counts.get(SUM);
+            max = Math.max(max, counts.get(MAX));
+        }
+        return new HistogramSnapshot(name, buckets, count, sum, max);
+    }
+
+    /**
+     * Clears the stripes.
+     */
+    public void reset() {
+        for (int s = 0; s < stripes.length(); s++) {
+            AtomicLongArray counts = stripes.get(s);
+            if (counts == null) {
+                continue;
+            }
+            for (int i = 0; i < counts.length(); i++) {
+                counts.set(i, 0);
+            }
+        }
+    }
+
+    // The stripe of the current thread, created by the first thread that records into it
+    private AtomicLongArray stripe() {
+        // the ids are consecutive, so they are mixed before the low bits pick the stripe
+        long mixed = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        int index = (int) (mixed >>> 32) & (STRIPES - 1);
+        AtomicLongArray counts = stripes.get(index);
+        if (counts == null) {
+            stripes.compareAndSet(index, null, new AtomicLongArray(BUCKETS + 3));
+            counts = stripes.get(index);
+        }
+        return counts;
+    }
+
+    /**
+     * @param processors the available processors
+     * @return the processors rounded up to a power of two, at most {@value #MAX_STRIPES}
+     */
+    static int stripesFor(int processors) {
+        int stripes = 1;
+        while (stripes < processors && stripes < MAX_STRIPES) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    /**
+     * @param value a value that is not negative
+     * @return the bucket of the value
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @param bucket a bucket
+     * @return the largest value of the bucket
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
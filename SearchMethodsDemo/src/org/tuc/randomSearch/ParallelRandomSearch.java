@@ -0,0 +1,107 @@
+package org.tuc.randomSearch;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.tuc.utils.DataPage;
+import org.tuc.utils.MappedPageFile;
+
+/**
+ * Parallel version of method A. The mapped dataPair file is split in page aligned ranges
+ * that are scanned by the tasks of a {@link ForkJoinPool}. When one range finds the key
+ * the rest of the tasks stop at their next page.
+ */
+public final class ParallelRandomSearch {
+
+	// A task with fewer pages than this scans its range instead of splitting it again
+	private static final int MIN_PAGES_PER_TASK = 64;
+
+	//This class should not be instantiated
+	private ParallelRandomSearch() {
+		throw new IllegalStateException("static methods only");
+	}
+
+	/**
+	 * Searches the key in the mapped dataPair file using the threads of the given pool.
+	 * Every page that was scanned by any task is added to {@link RandomSearch#PAGE_READS}, so
+	 * the result can be compared with method A. Pages scanned after the key is found by another task
+	 * are counted too, since they were read.
+	 *
+	 * @param targetKey : the key we want to perform search.
+	 * @param stringLength : the stringLenght can be either 55 or 27.
+	 * @param dataPairMap : The mapping of the dataPair file, see {@link RandomSearch#mapDataFile}.
+	 * @param pool : The pool that runs the scan.
+	 * @return either true if we found the key either false
+	 */
+	public static boolean randomSearch(int targetKey, int stringLength, MappedPageFile dataPairMap, ForkJoinPool pool) {
+		PageRangeScan scan = new PageRangeScan(targetKey, Integer.BYTES + stringLength, dataPairMap,
+				0, dataPairMap.getPageCount(), new AtomicBoolean());
+		pool.invoke(scan);
+		return scan.found.get();
+	}
+
+	/**
+	 * Scans the pages [firstPage, lastPage) or splits them in two halves.
+	 * The flag is shared by all the tasks of one search, and they all add their pages to the
+	 * counter of method A, which many threads can increase at once.
+	 */
+	private static final class PageRangeScan extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final int targetKey;
+		private final int recordSize;
+		private final transient MappedPageFile dataPairMap;
+		private final int firstPage;
+		private final int lastPage;
+		private final AtomicBoolean found;
+
+		PageRangeScan(int targetKey, int recordSize, MappedPageFile dataPairMap, int firstPage, int lastPage,
+				AtomicBoolean found) {
+			this.targetKey = targetKey;
+			this.recordSize = recordSize;
+			this.dataPairMap = dataPairMap;
+			this.firstPage = firstPage;
+			this.lastPage = lastPage;
+			this.found = found;
+		}
+
+		@Override
+		protected void compute() {
+			if (found.get()) {
+				return; //another range already has the key
+			}
+			int numPages = lastPage - firstPage;
+			if (numPages <= MIN_PAGES_PER_TASK) {
+				scanRange();
+				return;
+			}
+			int midPage = (firstPage + lastPage) >>> 1;
+			invokeAll(new PageRangeScan(targetKey, recordSize, dataPairMap, firstPage, midPage, found),
+					new PageRangeScan(targetKey, recordSize, dataPairMap, midPage, lastPage, found));
+		}
+
+		private void scanRange() {
+			int pages = 0;
+			for (int page = firstPage; page < lastPage && !found.get(); page++) {
+				pages++;
+				//the page is found in its chunk with long arithmetic, so a file over 2 GB does not overflow
+				ByteBuffer chunk = dataPairMap.chunkOf(page);
+				int pageOffset = dataPairMap.positionOf(page);
+				int length = dataPairMap.lengthOf(page);
+				int numPairs = DataPage.recordCount(chunk, pageOffset, length, recordSize);
+				int keyStride = DataPage.keyStride(chunk, pageOffset, length, recordSize);
+				int position = pageOffset;
+				for (int i = 0; i < numPairs; i++) {
+					if (chunk.getInt(position) == targetKey) {
+						found.set(true);
+						break;
+					}
+					position += keyStride;
+				}
+			}
+			RandomSearch.PAGE_READS.add(pages);
+		}
+	}
+}
@@ -3,8 +3,18 @@ package org.tuc.randomSearch;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
-import org.tuc.utils.MultiCounter;
+import java.util.Arrays;
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.bufferPool.BufferPool;
+import org.tuc.keyMatcher.KeyMatcher;
+import org.tuc.metrics.Counter;
+import org.tuc.metrics.Metrics;
+import org.tuc.utils.DataPage;
+import org.tuc.utils.IntHashSet;
+import org.tuc.utils.MappedPageFile;
+import org.tuc.utils.PageFile;
 import org.tuc.utils.WriteFile;
+import org.tuc.zoneMap.ZoneMap;
 
 /**
  * 
@@ -13,7 +23,20 @@ import org.tuc.utils.WriteFile;
  * */
 public class RandomSearch {
 	
-	private static final  byte[] buffer = new byte[WriteFile.DATA_PAGE_SIZE];
+	/** The data pages read by method A, one per page scanned. */
+	public static final Counter PAGE_READS = Metrics.counter("methodA.pageReads");
+	
+	/** The data pages read by the batched scan of method A. */
+	public static final Counter BATCH_PAGE_READS = Metrics.counter("methodA.batched.pageReads");
+	
+	/** The data pages that the zone map of method A skipped without reading them. */
+	public static final Counter ZONE_MAP_PAGES_SKIPPED = Metrics.counter("methodA.zoneMap.pagesSkipped");
+	
+	/** The data pages that method A read after the zone map could not skip them. */
+	public static final Counter ZONE_MAP_PAGE_READS = Metrics.counter("methodA.zoneMap.pageReads");
+	
+	// resized by PageFile.fit to the page size of the file that is read
+	private static byte[] buffer = new byte[WriteFile.DATA_PAGE_SIZE];
 	
 	  //This class should not be instantiated
 	  private RandomSearch() {
@@ -34,22 +57,248 @@ public class RandomSearch {
      */
 	
 	public static boolean randomSearch(int targetKey, int stringLength, RandomAccessFile dataPairFile) throws IOException {
-		    dataPairFile.seek(0);
+	        buffer = PageFile.fit(buffer, PageFile.pageSize(dataPairFile));
+		    dataPairFile.seek(PageFile.offsetOf(dataPairFile, 0)); //skip the header page
 	        int recordSize = Integer.BYTES + stringLength; //calculate the size of the pair
-	        int bytesRead = dataPairFile.read(buffer); //read 256bytes each time
+	        int bytesRead = dataPairFile.read(buffer); //read a page each time
 	        while (bytesRead != -1) { //it returns -1 when we reach the end of the file
-	        	MultiCounter.increaseCounter(1);
-	            ByteBuffer bb = ByteBuffer.wrap(buffer, 0, bytesRead);
-	            int numPairs = bytesRead / recordSize;
-	            for (int i = 0; i < numPairs;  i++) {
-	                int key = bb.getInt();
-	                bb.position(bb.position() + stringLength); //skip the string since we are not intrested on that
-	                if (key == targetKey) {
-	                    return true;
-	                }
+	        	PAGE_READS.increment();
+	            //compare the keys of the page, the strings are skipped since we are not intrested on them
+	            if (DataPage.indexOfKey(buffer, bytesRead, recordSize, targetKey) != -1) {
+	                return true;
 	            }
 	            bytesRead = dataPairFile.read(buffer);
 	        }
 	        return false;
 	}
+
+	/**
+	 * Same scan as {@link #randomSearch(int, int, RandomAccessFile)} but the pages are
+	 * requested from the buffer pool, so the pages that are still there are not read again.
+	 *
+	 * @param targetKey : the key we want to perform search.
+	 * @param stringLength : the stringLenght can be either 55 or 27.
+	 * @param dataPairFile : The file that contains the pair key-string.
+	 * @param bufferPool : The pool that serves the pages.
+	 * @return either true if we found the key either false
+	 * @throws IOException
+	 */
+	public static boolean randomSearch(int targetKey, int stringLength, RandomAccessFile dataPairFile, BufferPool bufferPool) throws IOException {
+		int recordSize = Integer.BYTES + stringLength;
+		byte[] page = bufferPool.readPage(dataPairFile, 0);
+		for (int pageNo = 1; page != null; pageNo++) {
+			PAGE_READS.increment();
+			if (DataPage.indexOfKey(page, page.length, recordSize, targetKey) != -1) {
+				return true;
+			}
+			page = bufferPool.readPage(dataPairFile, pageNo);
+		}
+		return false;
+	}
+
+	/**
+	 * Method A behind the Bloom filter of the dataPair file. A key that the filter rejects is
+	 * surely not in the file, so it is answered without reading a page. The other keys are
+	 * scanned as usual, through the buffer pool if there is one.
+	 *
+	 * @param targetKey : the key we want to perform search.
+	 * @param stringLength : the stringLenght can be either 55 or 27.
+	 * @param dataPairFile : The file that contains the pair key-string.
+	 * @param bufferPool : The pool that serves the pages, or null to read them from the file.
+	 * @param bloomFilter : The filter of the keys of the file, or null to scan for every key.
+	 * @return either true if we found the key either false
+	 * @throws IOException
+	 */
+	public static boolean randomSearch(int targetKey, int stringLength, RandomAccessFile dataPairFile, BufferPool bufferPool,
+			BloomFilter bloomFilter) throws IOException {
+		if (bloomFilter != null && !bloomFilter.mightContain(targetKey)) {
+			return false;
+		}
+		if (bufferPool != null) {
+			return randomSearch(targetKey, stringLength, dataPairFile, bufferPool);
+		}
+		return randomSearch(targetKey, stringLength, dataPairFile);
+	}
+
+	/**
+	 * Same scan as {@link #randomSearch(int, int, RandomAccessFile)} but the pages whose key range
+	 * in the zone map excludes the target are skipped without reading them.
+	 * {@link #ZONE_MAP_PAGES_SKIPPED} is increased for every skipped page and {@link #ZONE_MAP_PAGE_READS}
+	 * for every page read.
+	 *
+	 * @param targetKey : the key we want to perform search.
+	 * @param stringLength : the stringLenght can be either 55 or 27.
+	 * @param dataPairFile : The file that contains the pair key-string.
+	 * @param zoneMap : The minimum and maximum key of every page of the file.
+	 * @return either true if we found the key either false
+	 * @throws IOException
+	 */
+	public static boolean randomSearch(int targetKey, int stringLength, RandomAccessFile dataPairFile, ZoneMap zoneMap) throws IOException {
+		int recordSize = Integer.BYTES + stringLength;
+		buffer = PageFile.fit(buffer, PageFile.pageSize(dataPairFile));
+		for (int pageNo = 0; pageNo < zoneMap.getPages(); pageNo++) {
+			if (!zoneMap.mightContain(pageNo, targetKey)) {
+				ZONE_MAP_PAGES_SKIPPED.increment();
+				continue;
+			}
+			ZONE_MAP_PAGE_READS.increment();
+			dataPairFile.seek(PageFile.offsetOf(dataPairFile, pageNo));
+			int bytesRead = dataPairFile.read(buffer);
+			if (bytesRead != -1 && DataPage.indexOfKey(buffer, bytesRead, recordSize, targetKey) != -1) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Searches many keys with one pass over the dataPair file. The keys are put in a
+	 * primitive hash set and every key read from a page is looked up there, so the file is
+	 * read once for the whole batch instead of once per key. The pass stops early when
+	 * all the keys have been found. {@link #BATCH_PAGE_READS} is increased once per data page.
+	 *
+	 * @param targetKeys : the keys we want to perform search, duplicates are allowed.
+	 * @param stringLength : the stringLenght can be either 55 or 27.
+	 * @param dataPairFile : The file that contains the pair key-string.
+	 * @return for every target key (same index) the dataPage that contains it, or -1 if it does not exist
+	 * @throws IOException
+	 */
+	public static int[] batchSearch(int[] targetKeys, int stringLength, RandomAccessFile dataPairFile) throws IOException {
+		IntHashSet keySet = new IntHashSet(targetKeys.length);
+		for (int key : targetKeys) {
+			keySet.add(key);
+		}
+		int[] pageOfSlot = new int[keySet.capacity()];
+		Arrays.fill(pageOfSlot, -1);
+
+		buffer = PageFile.fit(buffer, PageFile.pageSize(dataPairFile));
+		dataPairFile.seek(PageFile.offsetOf(dataPairFile, 0)); //skip the header page
+		int recordSize = Integer.BYTES + stringLength;
+		int keysFound = 0;
+		int dataPage = 0;
+		int bytesRead = dataPairFile.read(buffer);
+		while (bytesRead != -1 && keysFound < keySet.size()) {
+			BATCH_PAGE_READS.increment();
+			//the keys are recordSize apart in a fixed page and next to each other in a slotted one
+			int numPairs = DataPage.recordCount(buffer, bytesRead, recordSize);
+			int keyStride = DataPage.keyStride(buffer, bytesRead, recordSize);
+			for (int i = 0; i < numPairs; i++) {
+				int slot = keySet.slotOf(KeyMatcher.intAt(buffer, i * keyStride));
+				if (slot != -1 && pageOfSlot[slot] == -1) {
+					pageOfSlot[slot] = dataPage;
+					keysFound++;
+				}
+			}
+			dataPage++;
+			bytesRead = dataPairFile.read(buffer);
+		}
+
+		int[] pages = new int[targetKeys.length];
+		for (int i = 0; i < targetKeys.length; i++) {
+			pages[i] = pageOfSlot[keySet.slotOf(targetKeys[i])];
+		}
+		return pages;
+	}
+
+	/**
+	 * Same as {@link #batchSearch(int[], int, RandomAccessFile)} but the keys that the Bloom filter
+	 * rejects are left out of the pass, so a batch of misses does not read the file at all.
+	 *
+	 * @param targetKeys : the keys we want to perform search, duplicates are allowed.
+	 * @param stringLength : the stringLenght can be either 55 or 27.
+	 * @param dataPairFile : The file that contains the pair key-string.
+	 * @param bloomFilter : The filter of the keys of the file, or null to search every key.
+	 * @return for every target key (same index) the dataPage that contains it, or -1 if it does not exist
+	 * @throws IOException
+	 */
+	public static int[] batchSearch(int[] targetKeys, int stringLength, RandomAccessFile dataPairFile, BloomFilter bloomFilter) throws IOException {
+		if (bloomFilter == null) {
+			return batchSearch(targetKeys, stringLength, dataPairFile);
+		}
+		//the positions of the keys that may be in the file
+		int[] maybeKeys = new int[targetKeys.length];
+		int count = 0;
+		for (int i = 0; i < targetKeys.length; i++) {
+			if (bloomFilter.mightContain(targetKeys[i])) {
+				maybeKeys[count++] = i;
+			}
+		}
+		int[] pages = new int[targetKeys.length];
+		Arrays.fill(pages, -1);
+		if (count == 0) {
+			return pages;
+		}
+		int[] keys = new int[count];
+		for (int i = 0; i < count; i++) {
+			keys[i] = targetKeys[maybeKeys[i]];
+		}
+		int[] keyPages = batchSearch(keys, stringLength, dataPairFile);
+		for (int i = 0; i < count; i++) {
+			pages[maybeKeys[i]] = keyPages[i];
+		}
+		return pages;
+	}
+
+	/**
+	 * Maps the whole dataPair file in memory (read only) so it can be scanned
+	 * in place by {@link #randomSearch(int, int, MappedPageFile)}.
+	 * The file must already be written, since the mapping has a fixed size. A file over 2 GB
+	 * is mapped in chunks of whole pages, see {@link MappedPageFile}.
+	 *
+	 * @param dataPairFile : The file that contains the pair key-string.
+	 * @return a read only mapping of the whole file
+	 * @throws IOException
+	 */
+	public static MappedPageFile mapDataFile(RandomAccessFile dataPairFile) throws IOException {
+		return MappedPageFile.map(dataPairFile);
+	}
+
+	/**
+	 * Same scan as {@link #randomSearch(int, int, RandomAccessFile)} but the keys are read
+	 * straight from the mapped file, so no page is copied and no read call is made per page.
+	 * {@link #PAGE_READS} is still increased once per data page, so the numbers are comparable
+	 * with the ones of the classic method A.
+	 *
+	 * @param targetKey : the key we want to perform search.
+	 * @param stringLength : the stringLenght can be either 55 or 27.
+	 * @param dataPairMap : The mapping of the dataPair file, see {@link #mapDataFile(RandomAccessFile)}.
+	 * @return either true if we found the key either false
+	 */
+	public static boolean randomSearch(int targetKey, int stringLength, MappedPageFile dataPairMap) {
+		int recordSize = Integer.BYTES + stringLength;
+		for (int pageNo = 0; pageNo < dataPairMap.getPageCount(); pageNo++) {
+			PAGE_READS.increment();
+			ByteBuffer chunk = dataPairMap.chunkOf(pageNo);
+			int pageOffset = dataPairMap.positionOf(pageNo);
+			int pageSize = dataPairMap.lengthOf(pageNo);
+			int numPairs = DataPage.recordCount(chunk, pageOffset, pageSize, recordSize);
+			int keyStride = DataPage.keyStride(chunk, pageOffset, pageSize, recordSize);
+			int position = pageOffset;
+			for (int i = 0; i < numPairs; i++) {
+				//absolute get, the string is skipped by moving to the next key
+				if (chunk.getInt(position) == targetKey) {
+					return true;
+				}
+				position += keyStride;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Same scan as {@link #randomSearch(int, int, MappedPageFile)} but a key that the Bloom filter
+	 * rejects is answered without touching the mapping.
+	 *
+	 * @param targetKey : the key we want to perform search.
+	 * @param stringLength : the stringLenght can be either 55 or 27.
+	 * @param dataPairMap : The mapping of the dataPair file, see {@link #mapDataFile(RandomAccessFile)}.
+	 * @param bloomFilter : The filter of the keys of the file, or null to scan for every key.
+	 * @return either true if we found the key either false
+	 */
+	public static boolean randomSearch(int targetKey, int stringLength, MappedPageFile dataPairMap, BloomFilter bloomFilter) {
+		if (bloomFilter != null && !bloomFilter.mightContain(targetKey)) {
+			return false;
+		}
+		return randomSearch(targetKey, stringLength, dataPairMap);
+	}
 	}
\ No newline at end of file
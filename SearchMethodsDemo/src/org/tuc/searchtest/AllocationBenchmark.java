@@ -0,0 +1,129 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.tuc.keyMatcher.KeyMatchers;
+import org.tuc.sortedFileIndexSearch.SortedFileIndexSearch;
+import org.tuc.unsortedFileIndexSearch.UnsortedFileIndexSearch;
+import org.tuc.utils.Clear;
+import org.tuc.utils.CreateFiles;
+import org.tuc.utils.WriteFile;
+
+/**
+ * Measures the heap allocated per lookup of method B, which compares the keys straight from the
+ * page buffer and creates no objects. The bytes allocated by the thread come from
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)} and the collections from
+ * the {@link GarbageCollectorMXBean}s, before and after the measured lookups. The lookups are
+ * repeated first, so the numbers are the ones of compiled code: the interpreter allocates for the
+ * vectors of the SIMD kernel, which the compiled kernel keeps in registers.
+ *
+ * <p>Method C is measured the same way for comparison: it still copies every pair of the pages it
+ * reads into a {@code DataPagePair}.
+ */
+public class AllocationBenchmark {
+
+    // The N of the data sets. Change it with -Dallocation.records=1000,200000
+    private static final int[] NUMBER_OF_RECORDS = Arrays.stream(System.getProperty("allocation.records", "1000,10000,200000")
+            .split(",")).mapToInt(n -> Integer.parseInt(n.trim())).toArray();
+
+    // The time of the passes over the keys before the measured one. Change it with -Dallocation.warmupMillis=5000
+    private static final long WARMUP_MILLIS = Long.getLong("allocation.warmupMillis", 2000);
+
+    private static final int STRING_LENGTH = 55;
+
+    /**
+     * A lookup of one key on the open files.
+     */
+    @FunctionalInterface
+    private interface FileLookup {
+        boolean search(int key, RandomAccessFile keyFile, RandomAccessFile dataPairFile) throws IOException;
+    }
+
+    private AllocationBenchmark() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Entry point for the allocation benchmark.
+     *
+     * @param args Command-line arguments (unused).
+     */
+    public static void main(String[] args) throws IOException {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threadBean.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("The JVM does not count the bytes allocated by a thread");
+        }
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        System.out.println("Key matcher: " + KeyMatchers.get().getClass().getSimpleName());
+
+        List<Integer> keys = new ArrayList<>(SearchTests.KEYS_FOR_TEST);
+        for (int numOfRecords : NUMBER_OF_RECORDS) {
+            int maxValue = numOfRecords * 2;
+            try (
+                RandomAccessFile dataPairFile = new RandomAccessFile(WriteFile.DATA_PAIR_FILE_NAME, "rw");
+                RandomAccessFile unSortedFile = new RandomAccessFile(WriteFile.UNSORTED_KEYS_FILE_NAME, "rw");
+                RandomAccessFile sortedFile = new RandomAccessFile(WriteFile.SORTED_KEYS_FILE_NAME, "rw")
+            ) {
+                CreateFiles.createTestFiles(numOfRecords, STRING_LENGTH, SearchTests.MIN_VALUE_KEY, maxValue, dataPairFile);
+                SearchTests.prepareKeys(keys, numOfRecords, maxValue);
+                int[] targetKeys = keys.stream().mapToInt(Integer::intValue).toArray();
+
+                System.out.printf("For N: %d%n", numOfRecords);
+                measure(threadBean, "Method B", targetKeys, unSortedFile, dataPairFile, (key, keyFile, dataFile) ->
+                        UnsortedFileIndexSearch.searchGivenPage(key, UnsortedFileIndexSearch.searchInUnsortedFile(key, keyFile),
+                                STRING_LENGTH, dataFile));
+                measure(threadBean, "Method C", targetKeys, sortedFile, dataPairFile, (key, keyFile, dataFile) ->
+                        SortedFileIndexSearch.searchDataPage(key, SortedFileIndexSearch.binarySearch(key, keyFile),
+                                STRING_LENGTH, dataFile));
+                Clear.clearAndDeleteFiles(dataPairFile, unSortedFile, sortedFile);
+            }
+        }
+    }
+
+    /**
+     * Runs passes over the keys for the warm-up time and then one measured pass, and prints the bytes
+     * allocated per lookup and the collections during the measured pass.
+     */
+    private static void measure(com.sun.management.ThreadMXBean threadBean, String method, int[] targetKeys,
+            RandomAccessFile keyFile, RandomAccessFile dataPairFile, FileLookup lookup) throws IOException {
+        long warmupEnd = System.nanoTime() + WARMUP_MILLIS * 1_000_000;
+        do {
+            runKeys(targetKeys, keyFile, dataPairFile, lookup);
+        } while (System.nanoTime() < warmupEnd);
+        long threadId = Thread.currentThread().getId();
+        long collections = collectionCount();
+        long allocated = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long found = runKeys(targetKeys, keyFile, dataPairFile, lookup);
+        long time = System.nanoTime() - start;
+        allocated = threadBean.getThreadAllocatedBytes(threadId) - allocated;
+        collections = collectionCount() - collections;
+        System.out.printf("    %s | Lookups: %d | Found: %d | Bytes per lookup: %.1f | GCs: %d | Time per lookup: %d ns%n",
+                method, targetKeys.length, found, (double) allocated / targetKeys.length, collections, time / targetKeys.length);
+    }
+
+    private static long runKeys(int[] targetKeys, RandomAccessFile keyFile, RandomAccessFile dataPairFile, FileLookup lookup)
+            throws IOException {
+        long found = 0;
+        for (int key : targetKeys) {
+            if (lookup.search(key, keyFile, dataPairFile)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static long collectionCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+}
@@ -0,0 +1,87 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.concurrentSearch.AsyncSortedFileIndexSearch;
+import org.tuc.concurrentSearch.ConcurrentSearch;
+import org.tuc.utils.Clear;
+import org.tuc.utils.CreateFiles;
+import org.tuc.utils.WriteFile;
+
+/**
+ * Benchmark for {@link AsyncSortedFileIndexSearch}. For every N of {@link SearchTests} it times
+ * the keys of the test with blocking lookups, one after the other, and then as one asynchronous
+ * batch with an increasing number of lookups in flight. The results of every batch must be the
+ * same as the results of the blocking lookups. With -DbloomFilter.fpp both check the Bloom filter
+ * of {@link SearchTests} first.
+ */
+public class AsyncLookupBenchmark {
+
+    private static final int[] IN_FLIGHT = {1, 8, 64, 1000};
+    private static final int STRING_LENGTH = 55;
+
+    private AsyncLookupBenchmark() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Entry point for the asynchronous lookup benchmark.
+     *
+     * @param args Command-line arguments (unused).
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        List<Integer> keys = new ArrayList<>(SearchTests.KEYS_FOR_TEST);
+
+        for (int i = 0; i < SearchTests.NUMBER_OF_INSTANCES_PER_TEST.length; i++) {
+            int numOfRecords = SearchTests.NUMBER_OF_INSTANCES_PER_TEST[i];
+            int maxValue = SearchTests.MAX_VALUE[i];
+            try (
+                RandomAccessFile dataPairFile = new RandomAccessFile(WriteFile.DATA_PAIR_FILE_NAME, "rw");
+                RandomAccessFile unSortedFile = new RandomAccessFile(WriteFile.UNSORTED_KEYS_FILE_NAME, "rw");
+                RandomAccessFile sortedFile = new RandomAccessFile(WriteFile.SORTED_KEYS_FILE_NAME, "rw")
+            ) {
+                CreateFiles.createTestFiles(numOfRecords, STRING_LENGTH, SearchTests.MIN_VALUE_KEY, maxValue, dataPairFile,
+                        new CreateFiles.Options().bloomFalsePositiveRate(SearchTests.BLOOM_FILTER_FPP));
+                BloomFilter bloomFilter = SearchTests.BLOOM_FILTER_FPP > 0 ? SearchTests.readBloomFilter() : null;
+                SearchTests.prepareKeys(keys, numOfRecords, maxValue);
+                int[] keyArray = keys.stream().mapToInt(Integer::intValue).toArray();
+
+                // The blocking lookups give the expected results
+                FileChannel sortedChannel = sortedFile.getChannel();
+                FileChannel dataPairChannel = dataPairFile.getChannel();
+                boolean[] expected = new boolean[keyArray.length];
+                long start = System.nanoTime();
+                for (int k = 0; k < keyArray.length; k++) {
+                    expected[k] = ConcurrentSearch.sortedFileIndexSearch(keyArray[k], STRING_LENGTH, sortedChannel, dataPairChannel, bloomFilter);
+                }
+                long blockingTime = (System.nanoTime() - start) / keyArray.length;
+                System.out.printf("For N: %d | Blocking mean time: %d%n", numOfRecords, blockingTime);
+
+                try (AsyncSortedFileIndexSearch search = AsyncSortedFileIndexSearch.open(Paths.get(WriteFile.SORTED_KEYS_FILE_NAME),
+                        Paths.get(WriteFile.DATA_PAIR_FILE_NAME), STRING_LENGTH, bloomFilter)) {
+                    for (int inFlight : IN_FLIGHT) {
+                        search.resetPagesRead();
+                        start = System.nanoTime();
+                        boolean[] results = search.searchAll(keyArray, inFlight).get();
+                        long asyncTime = (System.nanoTime() - start) / keyArray.length;
+                        for (int k = 0; k < keyArray.length; k++) {
+                            if (results[k] != expected[k]) {
+                                throw new IllegalStateException("The asynchronous lookup of key " + keyArray[k] + " returned " + results[k]);
+                            }
+                        }
+                        System.out.printf("    In flight: %d | Mean time: %d | Pages per lookup: %.1f | Speedup: %.2f%n",
+                                inFlight, asyncTime, (double) search.getPagesRead() / keyArray.length, (double) blockingTime / asyncTime);
+                    }
+                }
+                Clear.clearAndDeleteFiles(dataPairFile, unSortedFile, sortedFile);
+            }
+        }
+    }
+}
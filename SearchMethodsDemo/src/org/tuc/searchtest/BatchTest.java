@@ -0,0 +1,69 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+/**
+ * A test that answers all its keys with one call of {@link #performBatchSearch}. The keys are not
+ * timed one by one, so the result is {@link SearchResult#batched} and has no latency percentiles.
+ */
+public abstract class BatchTest extends Test {
+
+    /**
+     * Constructs a new BatchTest instance and performs search tests.
+     *
+     * @param stringLength The length of the string used for the data pairs.
+     * @param keys         A list of keys to perform the tests.
+     * @param dataPairFile The dataPair file used for the search.
+     * @param keyFile      The key file used as a dictionary to locate random keys.
+     * @throws IOException If there's an I/O error.
+     */
+    protected BatchTest(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile, RandomAccessFile keyFile) throws IOException {
+        super(stringLength, keys, dataPairFile, keyFile);
+    }
+
+    /**
+     * Constructs a new BatchTest instance without running the tests, see {@link Test#Test(RandomAccessFile, RandomAccessFile)}.
+     *
+     * @param dataPairFile The dataPair file used for the search.
+     * @param keyFile      The key file used as a dictionary to locate random keys.
+     */
+    protected BatchTest(RandomAccessFile dataPairFile, RandomAccessFile keyFile) {
+        super(dataPairFile, keyFile);
+    }
+
+    /**
+     * Searches all the keys at once and times the batch as a whole.
+     */
+    @Override
+    final void runSearches(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile, RandomAccessFile keyFile)
+            throws IOException {
+        int[] targetKeys = keys.stream().mapToInt(Integer::intValue).toArray();
+        long pageReadsBefore = getPageReads().sum();
+        long startTimeTest = System.nanoTime();
+        boolean[] found = performBatchSearch(targetKeys, stringLength, dataPairFile, keyFile);
+        finalTimeTest = System.nanoTime() - startTimeTest;
+        for (boolean hit : found) {
+            if (hit) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        result = SearchResult.batched(getMethodName(), hits, misses, getPageReads().sum() - pageReadsBefore, finalTimeTest);
+    }
+
+    /**
+     * Searches all the keys at once.
+     *
+     * @param keys         The keys to search for, duplicates are allowed.
+     * @param stringLength The length of the string used for the data pairs.
+     * @param dataPairFile The data pair file used for the search.
+     * @param keyFile      The key file used as a dictionary to locate random keys.
+     * @return For every key (same index) true if it was found.
+     * @throws IOException If there's an I/O error.
+     */
+    protected abstract boolean[] performBatchSearch(int[] keys, int stringLength, RandomAccessFile dataPairFile,
+            RandomAccessFile keyFile) throws IOException;
+}
@@ -0,0 +1,251 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.tuc.utils.ResultWriter;
+
+/**
+ * Compares two result files of {@link SearchTests}, e.g. of last night and of tonight, and flags
+ * the regressions: a row of the candidate whose page reads, mean time or p99 latency grew, or
+ * whose throughput fell, by more than the threshold. The rows are matched by method, N,
+ * stringLength, pageSize and cache, and the files are CSV (.csv) or JSON lines (.json), as
+ * {@link ResultWriter#writeResults} writes them.
+ *
+ * <p>It exits with 1 if there is a regression or a row of the baseline is missing, so a script
+ * can stop on it: {@code java org.tuc.searchtest.CompareResults baseline.csv candidate.csv}.
+ * The threshold is 10% and can be changed with {@code -Dcompare.threshold=5}. A time that
+ * changed by less than {@code -Dcompare.minNanos=1000} nanoseconds is not flagged, since such a
+ * change is within the jitter of the clock and of the OS. A metric that is empty in either file,
+ * like the percentiles of a method that is not timed per lookup, is not compared.
+ */
+public class CompareResults {
+
+    // The change of a metric, in percent of the baseline, that is flagged
+    private static final double THRESHOLD_PERCENT = Double.parseDouble(System.getProperty("compare.threshold", "10"));
+
+    // The smallest change of a time that is flagged
+    private static final long MIN_NANOS = Long.getLong("compare.minNanos", 1000);
+
+    // The columns that identify a row
+    private static final String[] KEY_COLUMNS = {"method", "N", "stringLength", "pageSize", "cache"};
+
+    /**
+     * The compared metrics: the column, if a larger value is better and if it is a time.
+     */
+    private enum Metric {
+        PAGE_READS("pageReadsPerLookup", false, false),
+        MEAN("meanNanos", false, true),
+        P99("p99", false, true),
+        THROUGHPUT("throughput", true, false);
+
+        private final String column;
+        private final boolean higherIsBetter;
+        private final boolean time;
+
+        Metric(String column, boolean higherIsBetter, boolean time) {
+            this.column = column;
+            this.higherIsBetter = higherIsBetter;
+            this.time = time;
+        }
+    }
+
+    private CompareResults() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Entry point for comparing two result files.
+     *
+     * @param args The baseline file and the candidate file.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults <baseline.csv|.json> <candidate.csv|.json>");
+            System.exit(2);
+        }
+        Map<String, Map<String, String>> baseline = read(args[0]);
+        Map<String, Map<String, String>> candidate = read(args[1]);
+
+        int regressions = 0;
+        int improvements = 0;
+        for (Map.Entry<String, Map<String, String>> row : baseline.entrySet()) {
+            Map<String, String> candidateRow = candidate.get(row.getKey());
+            if (candidateRow == null) {
+                System.out.printf("MISSING   %s%n", row.getKey());
+                regressions++;
+                continue;
+            }
+            for (Metric metric : Metric.values()) {
+                String beforeValue = row.getValue().get(metric.column);
+                String afterValue = candidateRow.get(metric.column);
+                if (isEmpty(beforeValue) || isEmpty(afterValue)) {
+                    continue;
+                }
+                double before = Double.parseDouble(beforeValue);
+                double after = Double.parseDouble(afterValue);
+                if (before == after || (metric.time && Math.abs(after - before) < MIN_NANOS)) {
+                    continue;
+                }
+                // A metric that was 0 changes by 100%
+                double change = before == 0 ? 100 : (after - before) / before * 100;
+                if (Math.abs(change) <= THRESHOLD_PERCENT) {
+                    continue;
+                }
+                boolean worse = metric.higherIsBetter ? after < before : after > before;
+                if (worse) {
+                    regressions++;
+                } else {
+                    improvements++;
+                }
+                System.out.printf(Locale.ROOT, "%-9s %s | %s: %.2f -> %.2f (%+.1f%%)%n",
+                        worse ? "REGRESSED" : "IMPROVED", row.getKey(), metric.column, before, after, change);
+            }
+        }
+        for (String key : candidate.keySet()) {
+            if (!baseline.containsKey(key)) {
+                System.out.printf("NEW       %s%n", key);
+            }
+        }
+        System.out.printf(Locale.ROOT, "Compared %d rows with a threshold of %.1f%%: %d regressions, %d improvements%n",
+                baseline.size(), THRESHOLD_PERCENT, regressions, improvements);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    /**
+     * @return True if the value is missing, an empty CSV field or a JSON null.
+     */
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty() || value.equals("null");
+    }
+
+    /**
+     * Reads the rows of a result file.
+     *
+     * @param fileName A .csv or .json file of {@link ResultWriter#writeResults}.
+     * @return The rows by their key, each one a map from the column to the value.
+     * @throws IOException If the file cannot be read.
+     */
+    private static Map<String, Map<String, String>> read(String fileName) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(fileName), StandardCharsets.UTF_8);
+        List<Map<String, String>> rows = new ArrayList<>();
+        String lowerCaseName = fileName.toLowerCase(Locale.ROOT);
+        if (lowerCaseName.endsWith(".csv")) {
+            List<String> header = parseCsvLine(lines.get(0));
+            for (String line : lines.subList(1, lines.size())) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                List<String> values = parseCsvLine(line);
+                Map<String, String> row = new LinkedHashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    row.put(header.get(i), values.get(i));
+                }
+                rows.add(row);
+            }
+        } else if (lowerCaseName.endsWith(".json")) {
+            for (String line : lines) {
+                if (!line.isEmpty()) {
+                    rows.add(parseJsonLine(line));
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("The results file must end with .csv or .json: " + fileName);
+        }
+
+        Map<String, Map<String, String>> rowsByKey = new LinkedHashMap<>();
+        for (Map<String, String> row : rows) {
+            StringBuilder key = new StringBuilder();
+            for (String column : KEY_COLUMNS) {
+                key.append(key.length() == 0 ? "" : " ").append(column).append('=').append(row.get(column));
+            }
+            rowsByKey.put(key.toString(), row);
+        }
+        return rowsByKey;
+    }
+
+    /**
+     * Splits a CSV line; a field in double quotes may hold commas and doubled quotes.
+     */
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Reads a flat JSON object with string and number values, as the results are written.
+     */
+    private static Map<String, String> parseJsonLine(String line) {
+        Map<String, String> row = new LinkedHashMap<>();
+        int i = line.indexOf('{') + 1;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                StringBuilder name = new StringBuilder();
+                i = readJsonString(line, i, name);
+                i = line.indexOf(':', i) + 1;
+                while (line.charAt(i) == ' ') {
+                    i++;
+                }
+                StringBuilder value = new StringBuilder();
+                if (line.charAt(i) == '"') {
+                    i = readJsonString(line, i, value);
+                } else {
+                    while (i < line.length() && line.charAt(i) != ',' && line.charAt(i) != '}') {
+                        value.append(line.charAt(i++));
+                    }
+                }
+                row.put(name.toString(), value.toString().trim());
+            } else {
+                i++;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Reads the JSON string that starts at the quote at start into text.
+     *
+     * @return The index after the closing quote.
+     */
+    private static int readJsonString(String line, int start, StringBuilder text) {
+        int i = start + 1;
+        while (line.charAt(i) != '"') {
+            if (line.charAt(i) == '\\') {
+                i++;
+            }
+            text.append(line.charAt(i++));
+        }
+        return i + 1;
+    }
+}
@@ -0,0 +1,228 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.concurrentSearch.ConcurrentSearch;
+import org.tuc.concurrentSearch.PerTaskExecutors;
+import org.tuc.utils.Clear;
+import org.tuc.utils.CreateFiles;
+import org.tuc.utils.WriteFile;
+
+/**
+ * Load driver for methods B and C behind a request-per-thread service. Every lookup runs on a
+ * thread of its own (a virtual thread when the JVM has them, see {@link PerTaskExecutors}) and a
+ * semaphore limits the lookups that read the files at the same time, like the connection pool of
+ * a service. The driver has two modes:
+ *
+ * <ul>
+ * <li>fan-out: thousands of lookups start at once and each one waits for a permit;</li>
+ * <li>closed loop: a fixed number of clients, each one starts its next lookup when the previous
+ * one returns, for a fixed time.</li>
+ * </ul>
+ *
+ * It prints the throughput and the latency of every run. The latency of a lookup counts the wait
+ * for a permit, since that is what the caller of the service waits for. With -DbloomFilter.fpp the
+ * lookups check the Bloom filter of {@link SearchTests} first.
+ */
+public class ConcurrentLookupDriver {
+
+    // The data sets of the runs, as indexes of SearchTests.NUMBER_OF_INSTANCES_PER_TEST (N 10000 and 200000)
+    private static final int[] TEST_INDEXES = {8, 11};
+    private static final int STRING_LENGTH = 55;
+
+    // The lookups that read the files at the same time, 0 for no limit. Change it with -DlookupDriver.concurrency=64
+    private static final int CONCURRENCY_LIMIT = Integer.getInteger("lookupDriver.concurrency", 256);
+
+    // The lookups started at once by the fan-out run. Change it with -DlookupDriver.fanOut=10000
+    private static final int FAN_OUT_LOOKUPS = Integer.getInteger("lookupDriver.fanOut", 4000);
+
+    // The client counts of the closed loop runs. Change them with -DlookupDriver.clients=1,64,4096
+    private static final String CLIENT_COUNTS = System.getProperty("lookupDriver.clients", "1,16,256,4096");
+
+    // The duration of every closed loop run. Change it with -DlookupDriver.seconds=5
+    private static final int CLOSED_LOOP_SECONDS = Integer.getInteger("lookupDriver.seconds", 2);
+
+    private ConcurrentLookupDriver() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Entry point for the load driver.
+     *
+     * @param args Command-line arguments (unused).
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        List<Integer> keys = new ArrayList<>(SearchTests.KEYS_FOR_TEST);
+        System.out.printf("Threads: %s | Concurrency limit: %s%n", PerTaskExecutors.isVirtual() ? "virtual" : "platform (no virtual threads in this JVM)",
+                CONCURRENCY_LIMIT > 0 ? CONCURRENCY_LIMIT : "none");
+
+        for (int i : TEST_INDEXES) {
+            int numOfRecords = SearchTests.NUMBER_OF_INSTANCES_PER_TEST[i];
+            int maxValue = SearchTests.MAX_VALUE[i];
+            try (
+                RandomAccessFile dataPairFile = new RandomAccessFile(WriteFile.DATA_PAIR_FILE_NAME, "rw");
+                RandomAccessFile unSortedFile = new RandomAccessFile(WriteFile.UNSORTED_KEYS_FILE_NAME, "rw");
+                RandomAccessFile sortedFile = new RandomAccessFile(WriteFile.SORTED_KEYS_FILE_NAME, "rw")
+            ) {
+                CreateFiles.createTestFiles(numOfRecords, STRING_LENGTH, SearchTests.MIN_VALUE_KEY, maxValue, dataPairFile,
+                        new CreateFiles.Options().bloomFalsePositiveRate(SearchTests.BLOOM_FILTER_FPP));
+                BloomFilter bloomFilter = SearchTests.BLOOM_FILTER_FPP > 0 ? SearchTests.readBloomFilter() : null;
+                SearchTests.prepareKeys(keys, numOfRecords, maxValue);
+                int[] keyArray = keys.stream().mapToInt(Integer::intValue).toArray();
+                FileChannel dataPairChannel = dataPairFile.getChannel();
+
+                System.out.printf("For N: %d%n", numOfRecords);
+                drive("Method B", keyArray, unSortedFile.getChannel(), dataPairChannel,
+                        (key, keyChannel, dataChannel) -> ConcurrentSearch.unsortedFileIndexSearch(key, STRING_LENGTH, keyChannel, dataChannel, bloomFilter));
+                drive("Method C", keyArray, sortedFile.getChannel(), dataPairChannel,
+                        (key, keyChannel, dataChannel) -> ConcurrentSearch.sortedFileIndexSearch(key, STRING_LENGTH, keyChannel, dataChannel, bloomFilter));
+                Clear.clearAndDeleteFiles(dataPairFile, unSortedFile, sortedFile);
+            }
+        }
+    }
+
+    private static void drive(String method, int[] keys, FileChannel keyChannel, FileChannel dataPairChannel, Lookup lookup)
+            throws InterruptedException, ExecutionException {
+        long[] latencies = fanOut(keys, keyChannel, dataPairChannel, lookup);
+        print(method, "Fan-out: " + FAN_OUT_LOOKUPS + " lookups", latencies, latencies[latencies.length - 1]);
+        for (String clients : CLIENT_COUNTS.split(",")) {
+            int numClients = Integer.parseInt(clients.trim());
+            long start = System.nanoTime();
+            latencies = closedLoop(keys, keyChannel, dataPairChannel, lookup, numClients);
+            print(method, "Clients: " + numClients, latencies, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Starts every lookup on its own thread at once.
+     *
+     * @return the latency of every lookup, sorted; the last one is also the time of the whole run
+     */
+    private static long[] fanOut(int[] keys, FileChannel keyChannel, FileChannel dataPairChannel, Lookup lookup)
+            throws InterruptedException, ExecutionException {
+        Semaphore permits = newLimit();
+        long[] latencies = new long[FAN_OUT_LOOKUPS];
+        ExecutorService executor = PerTaskExecutors.newThreadPerTaskExecutor();
+        try {
+            List<Future<?>> lookups = new ArrayList<>(FAN_OUT_LOOKUPS);
+            long start = System.nanoTime();
+            for (int i = 0; i < FAN_OUT_LOOKUPS; i++) {
+                int index = i;
+                lookups.add(executor.submit(() -> {
+                    lookupWithPermit(keys[index % keys.length], keyChannel, dataPairChannel, lookup, permits);
+                    // every lookup is measured from the start, so the wait for a thread and a permit is included
+                    latencies[index] = System.nanoTime() - start;
+                    return null;
+                }));
+            }
+            for (Future<?> future : lookups) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    /**
+     * Runs the clients for {@link #CLOSED_LOOP_SECONDS}. Client c starts with the key c and goes on
+     * with every numClients-th key, so the clients do not search the same keys at the same time.
+     *
+     * @return the latency of every lookup that was completed, sorted
+     */
+    private static long[] closedLoop(int[] keys, FileChannel keyChannel, FileChannel dataPairChannel, Lookup lookup,
+            int numClients) throws InterruptedException, ExecutionException {
+        Semaphore permits = newLimit();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CLOSED_LOOP_SECONDS);
+        ExecutorService executor = PerTaskExecutors.newThreadPerTaskExecutor();
+        List<Future<long[]>> clients = new ArrayList<>(numClients);
+        try {
+            for (int c = 0; c < numClients; c++) {
+                int client = c;
+                clients.add(executor.submit(() -> {
+                    long[] clientLatencies = new long[64];
+                    int completed = 0;
+                    for (int k = client; System.nanoTime() < deadline; k += numClients) {
+                        long start = System.nanoTime();
+                        lookupWithPermit(keys[k % keys.length], keyChannel, dataPairChannel, lookup, permits);
+                        if (completed == clientLatencies.length) {
+                            clientLatencies = Arrays.copyOf(clientLatencies, completed * 2);
+                        }
+                        clientLatencies[completed++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(clientLatencies, completed);
+                }));
+            }
+            List<long[]> results = new ArrayList<>(numClients);
+            int total = 0;
+            for (Future<long[]> client : clients) {
+                long[] result = client.get();
+                results.add(result);
+                total += result.length;
+            }
+            long[] latencies = new long[total];
+            int position = 0;
+            for (long[] result : results) {
+                System.arraycopy(result, 0, latencies, position, result.length);
+                position += result.length;
+            }
+            Arrays.sort(latencies);
+            return latencies;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void lookupWithPermit(int key, FileChannel keyChannel, FileChannel dataPairChannel, Lookup lookup,
+            Semaphore permits) throws IOException, InterruptedException {
+        if (permits != null) {
+            permits.acquire();
+        }
+        try {
+            lookup.search(key, keyChannel, dataPairChannel);
+        } finally {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    private static Semaphore newLimit() {
+        return CONCURRENCY_LIMIT > 0 ? new Semaphore(CONCURRENCY_LIMIT) : null;
+    }
+
+    private static void print(String method, String run, long[] latencies, long time) {
+        if (latencies.length == 0) {
+            System.out.printf("    %s | %s | No lookup was completed%n", method, run);
+            return;
+        }
+        long sum = 0;
+        for (long latency : latencies) {
+            sum += latency;
+        }
+        System.out.printf("    %s | %s | Lookups/sec: %.0f | Latency (us) mean: %d, p50: %d, p99: %d, max: %d%n",
+                method, run, latencies.length * 1_000_000_000.0 / time,
+                sum / latencies.length / 1000,
+                percentile(latencies, 0.50) / 1000,
+                percentile(latencies, 0.99) / 1000,
+                latencies[latencies.length - 1] / 1000);
+    }
+
+    // The nearest rank percentile of sorted latencies
+    private static long percentile(long[] sortedLatencies, double fraction) {
+        int rank = (int) Math.ceil(fraction * sortedLatencies.length);
+        return sortedLatencies[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,117 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.concurrentSearch.ConcurrentSearch;
+import org.tuc.utils.Clear;
+import org.tuc.utils.CreateFiles;
+import org.tuc.utils.WriteFile;
+
+/**
+ * Throughput benchmark for {@link ConcurrentSearch}. For every N of {@link SearchTests} the
+ * threads share one open channel per file and split the keys between them. It prints the
+ * lookups per second of methods A, B and C for every thread count and the speedup over one thread.
+ * With -DbloomFilter.fpp the lookups check the Bloom filter of {@link SearchTests} first.
+ */
+public class ConcurrentSearchBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+    private static final int STRING_LENGTH = 55;
+
+    private ConcurrentSearchBenchmark() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Entry point for the throughput benchmark.
+     *
+     * @param args Command-line arguments (unused).
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        List<Integer> keys = new ArrayList<>(SearchTests.KEYS_FOR_TEST);
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+
+        for (int i = 0; i < SearchTests.NUMBER_OF_INSTANCES_PER_TEST.length; i++) {
+            int numOfRecords = SearchTests.NUMBER_OF_INSTANCES_PER_TEST[i];
+            int maxValue = SearchTests.MAX_VALUE[i];
+            try (
+                RandomAccessFile dataPairFile = new RandomAccessFile(WriteFile.DATA_PAIR_FILE_NAME, "rw");
+                RandomAccessFile unSortedFile = new RandomAccessFile(WriteFile.UNSORTED_KEYS_FILE_NAME, "rw");
+                RandomAccessFile sortedFile = new RandomAccessFile(WriteFile.SORTED_KEYS_FILE_NAME, "rw")
+            ) {
+                CreateFiles.createTestFiles(numOfRecords, STRING_LENGTH, SearchTests.MIN_VALUE_KEY, maxValue, dataPairFile,
+                        new CreateFiles.Options().bloomFalsePositiveRate(SearchTests.BLOOM_FILTER_FPP));
+                BloomFilter bloomFilter = SearchTests.BLOOM_FILTER_FPP > 0 ? SearchTests.readBloomFilter() : null;
+                SearchTests.prepareKeys(keys, numOfRecords, maxValue);
+                FileChannel dataPairChannel = dataPairFile.getChannel();
+
+                System.out.printf("For N: %d%n", numOfRecords);
+                benchmark("Method A", keys, null, dataPairChannel,
+                        (key, keyChannel, dataChannel) -> ConcurrentSearch.randomSearch(key, STRING_LENGTH, dataChannel, bloomFilter));
+                benchmark("Method B", keys, unSortedFile.getChannel(), dataPairChannel,
+                        (key, keyChannel, dataChannel) -> ConcurrentSearch.unsortedFileIndexSearch(key, STRING_LENGTH, keyChannel, dataChannel, bloomFilter));
+                benchmark("Method C", keys, sortedFile.getChannel(), dataPairChannel,
+                        (key, keyChannel, dataChannel) -> ConcurrentSearch.sortedFileIndexSearch(key, STRING_LENGTH, keyChannel, dataChannel, bloomFilter));
+                Clear.clearAndDeleteFiles(dataPairFile, unSortedFile, sortedFile);
+            }
+        }
+    }
+
+    /**
+     * Runs the keys of the test with every thread count and prints the throughput. The keys found
+     * must be the same for every thread count, otherwise the searches are not thread safe.
+     */
+    private static void benchmark(String method, List<Integer> keys, FileChannel keyChannel, FileChannel dataPairChannel,
+            Lookup lookup) throws InterruptedException, ExecutionException {
+        double singleThreadRate = 0;
+        long expectedFound = -1;
+        for (int threads : THREAD_COUNTS) {
+            ConcurrentSearch.resetPagesRead();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<Long>> results = new ArrayList<>(threads);
+                long start = System.nanoTime();
+                for (int t = 0; t < threads; t++) {
+                    int first = t;
+                    // thread t takes the keys t, t + threads, t + 2 * threads, ...
+                    results.add(executor.submit(() -> {
+                        long found = 0;
+                        for (int k = first; k < keys.size(); k += threads) {
+                            if (lookup.search(keys.get(k), keyChannel, dataPairChannel)) {
+                                found++;
+                            }
+                        }
+                        return found;
+                    }));
+                }
+                long found = 0;
+                for (Future<Long> result : results) {
+                    found += result.get();
+                }
+                long time = System.nanoTime() - start;
+
+                double rate = keys.size() * 1_000_000_000.0 / time;
+                if (threads == 1) {
+                    singleThreadRate = rate;
+                    expectedFound = found;
+                } else if (found != expectedFound) {
+                    throw new IllegalStateException(method + " found " + found + " keys with " + threads
+                            + " threads instead of " + expectedFound);
+                }
+                System.out.printf("    %s | Threads: %d | Lookups/sec: %.0f | Pages per lookup: %.1f | Speedup: %.2f%n",
+                        method, threads, rate, (double) ConcurrentSearch.getPagesRead() / keys.size(), rate / singleThreadRate);
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+}
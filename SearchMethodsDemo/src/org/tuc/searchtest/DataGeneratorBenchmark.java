@@ -0,0 +1,89 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.tuc.dataClass.DataPairGenerator;
+import org.tuc.keyMatcher.KeyMatcher;
+import org.tuc.utils.PageFile;
+import org.tuc.utils.WriteFile;
+
+/**
+ * Writes a large dataPair file with {@link DataPairGenerator} and prints the time, the write rate and
+ * the heap in use, which stays the same for any number of records. It then reads the file back and
+ * checks that it has every record.
+ *
+ * <p>Run it with a small heap to see that the size of the file does not depend on it, e.g.
+ * {@code java -Xmx32m -Dgenerator.records=50000000 ...} writes a file of more than 3 GB.
+ */
+public class DataGeneratorBenchmark {
+
+    // The records of the file. Change it with -Dgenerator.records=50000000
+    private static final long NUMBER_OF_RECORDS = Long.getLong("generator.records", 10_000_000L);
+
+    // The length of the string of a record. Change it with -Dgenerator.stringLength=27
+    private static final int STRING_LENGTH = Integer.getInteger("generator.stringLength", 55);
+
+    // The page size of the file. Change it with -Dgenerator.pageSize=4096
+    private static final int PAGE_SIZE = Integer.getInteger("generator.pageSize", WriteFile.DATA_PAGE_SIZE);
+
+    private DataGeneratorBenchmark() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Entry point for the data generator benchmark.
+     *
+     * @param args Command-line arguments (unused).
+     */
+    public static void main(String[] args) throws IOException {
+        Runtime runtime = Runtime.getRuntime();
+        // twice as many keys as records, like the range of the tests
+        int maxValue = (int) Math.min(KeyMatcher.END_CHARACTER - 1L, NUMBER_OF_RECORDS * 2);
+        DataPairGenerator generator = new DataPairGenerator(NUMBER_OF_RECORDS, STRING_LENGTH, 1, maxValue, false, 42);
+        System.out.printf("Records: %d | String length: %d | Page size: %d | Max heap: %d bytes%n",
+                NUMBER_OF_RECORDS, STRING_LENGTH, PAGE_SIZE, runtime.maxMemory());
+        try {
+            long start = System.nanoTime();
+            long pages = WriteFile.writeDataPairs(generator, PAGE_SIZE);
+            long time = System.nanoTime() - start;
+            long bytes = Files.size(Paths.get(WriteFile.DATA_PAIR_FILE_NAME));
+            System.out.printf("Wrote %d pages (%d bytes) in %d ms | %.1f MB/s | %d ns per record | Heap used: %d bytes%n",
+                    pages, bytes, time / 1_000_000, bytes / 1e6 / (time / 1e9), time / Math.max(1, NUMBER_OF_RECORDS),
+                    runtime.totalMemory() - runtime.freeMemory());
+            long records = countRecords();
+            if (records != NUMBER_OF_RECORDS) {
+                throw new IllegalStateException("The file has " + records + " records instead of " + NUMBER_OF_RECORDS);
+            }
+            System.out.println("The file has every record");
+        } finally {
+            Files.deleteIfExists(Paths.get(WriteFile.DATA_PAIR_FILE_NAME));
+        }
+    }
+
+    /**
+     * Reads the file page by page and counts the records before the padding of every page.
+     */
+    private static long countRecords() throws IOException {
+        try (RandomAccessFile dataPairFile = new RandomAccessFile(WriteFile.DATA_PAIR_FILE_NAME, "r")) {
+            int pageSize = PageFile.pageSize(dataPairFile);
+            int recordSize = Integer.BYTES + STRING_LENGTH;
+            int recordsPerPage = (pageSize - 1) / recordSize;
+            byte[] page = new byte[pageSize];
+            long records = 0;
+            dataPairFile.seek(PageFile.offsetOf(dataPairFile, 0));
+            while (dataPairFile.read(page) != -1) {
+                for (int record = 0; record < recordsPerPage; record++) {
+                    int key = KeyMatcher.intAt(page, record * recordSize);
+                    if (key == 0 || key == KeyMatcher.END_CHARACTER) {
+                        break;
+                    }
+                    records++;
+                }
+            }
+            return records;
+        }
+    }
+}
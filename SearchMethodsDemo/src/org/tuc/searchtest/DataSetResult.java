@@ -0,0 +1,84 @@
+package org.tuc.searchtest;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The results of all the methods on one data set, with the parameters of the data set.
+ */
+public final class DataSetResult {
+
+    private final int numberOfRecords;
+    private final int stringLength;
+    private final int pageSize;
+    private final boolean coldCache;
+    private final List<SearchResult> results;
+
+    /**
+     * Constructs the results of a data set.
+     *
+     * @param numberOfRecords The number of records of the data set.
+     * @param stringLength    The length of the strings of the records.
+     * @param pageSize        The page size of the files.
+     * @param coldCache       True if the files were dropped from the page cache before every method.
+     * @param results         The result of every method, in the order they ran.
+     */
+    public DataSetResult(int numberOfRecords, int stringLength, int pageSize, boolean coldCache, List<SearchResult> results) {
+        this.numberOfRecords = numberOfRecords;
+        this.stringLength = stringLength;
+        this.pageSize = pageSize;
+        this.coldCache = coldCache;
+        this.results = Collections.unmodifiableList(results);
+    }
+
+    /**
+     * @return The number of records of the data set.
+     */
+    public int getNumberOfRecords() {
+        return numberOfRecords;
+    }
+
+    /**
+     * @return The length of the strings of the records.
+     */
+    public int getStringLength() {
+        return stringLength;
+    }
+
+    /**
+     * @return The page size of the files.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return True if the files were dropped from the page cache before every method, false if they stayed cached.
+     */
+    public boolean isColdCache() {
+        return coldCache;
+    }
+
+    /**
+     * @return The result of every method, in the order they ran.
+     */
+    public List<SearchResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Returns the result of a method.
+     *
+     * @param method The name of the method, e.g. methodA.
+     * @return The result of the method.
+     * @throws IllegalArgumentException If the method did not run on the data set.
+     */
+    public SearchResult getResult(String method) {
+        for (SearchResult result : results) {
+            if (result.getMethod().equals(method)) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("No result for the method " + method);
+    }
+}
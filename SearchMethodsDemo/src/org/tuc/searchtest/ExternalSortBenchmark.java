@@ -0,0 +1,155 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+import org.tuc.dataClass.DataPairGenerator;
+import org.tuc.keyMatcher.KeyMatcher;
+import org.tuc.utils.ExternalSort;
+import org.tuc.utils.PageFile;
+import org.tuc.utils.WriteFile;
+
+/**
+ * Builds a sorted keys file from more pairs than the heap can hold as objects. By default the pairs
+ * are random keys on consecutive data pages, generated while the sort reads them, so only the memory
+ * budget of the sort is used. With -DexternalSort.source=dataPairs a data pair file of that many
+ * records is written first and the sorted file is built from it with
+ * {@link WriteFile#writeSortedKeys(RandomAccessFile, int, int, long)}, the way {@code CreateFiles}
+ * builds it. It prints the time of the sort and checks that the file is sorted and has every pair.
+ *
+ * <p>Run it with a small heap to see that the size of the data set does not depend on it, e.g.
+ * {@code java -Xmx128m -DexternalSort.keys=100000000 -DexternalSort.memory=67108864 ...}
+ */
+public class ExternalSortBenchmark {
+
+    // The pairs of the data set. Change it with -DexternalSort.keys=100000000
+    private static final long NUMBER_OF_KEYS = Long.getLong("externalSort.keys", 10_000_000L);
+
+    // Where the pairs come from, random or dataPairs. Change it with -DexternalSort.source=dataPairs
+    private static final String SOURCE = System.getProperty("externalSort.source", "random");
+
+    // The length of the string of a record
+    private static final int STRING_LENGTH = 55;
+
+    // The records of a data page with strings of 55 characters
+    private static final int RECORDS_PER_DATA_PAGE = WriteFile.DATA_PAGE_SIZE / (Integer.BYTES + STRING_LENGTH);
+
+    private ExternalSortBenchmark() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Entry point for the external sort benchmark.
+     *
+     * @param args Command-line arguments (unused).
+     */
+    public static void main(String[] args) throws IOException {
+        System.out.printf("Keys: %d | Source: %s | Memory budget: %d bytes | Max heap: %d bytes%n",
+                NUMBER_OF_KEYS, SOURCE, ExternalSort.DEFAULT_MEMORY_BUDGET, Runtime.getRuntime().maxMemory());
+        if ("dataPairs".equals(SOURCE)) {
+            sortDataPairFile();
+        } else if ("random".equals(SOURCE)) {
+            sortRandomPairs();
+        } else {
+            throw new IllegalArgumentException("externalSort.source must be random or dataPairs: " + SOURCE);
+        }
+    }
+
+    /**
+     * Sorts random pairs that are generated while the sort reads them.
+     */
+    private static void sortRandomPairs() throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        ExternalSort.PairSource source = new ExternalSort.PairSource() {
+            private long generated;
+
+            @Override
+            public boolean hasNext() {
+                return generated < NUMBER_OF_KEYS;
+            }
+
+            @Override
+            public long next() {
+                int dataPage = (int) (generated++ / RECORDS_PER_DATA_PAGE);
+                // below the end character, which the key files use for their padding
+                return ExternalSort.pack(random.nextInt(1, KeyMatcher.END_CHARACTER), dataPage);
+            }
+        };
+
+        try (RandomAccessFile sortedFile = new RandomAccessFile(WriteFile.SORTED_KEYS_FILE_NAME, "rw")) {
+            long start = System.nanoTime();
+            long written = ExternalSort.sort(source, sortedFile, WriteFile.DATA_PAGE_SIZE, ExternalSort.DEFAULT_MEMORY_BUDGET);
+            long time = System.nanoTime() - start;
+            System.out.printf("Sorted %d pairs in %d ms (%d ns per pair) | File: %d bytes%n",
+                    written, time / 1_000_000, time / Math.max(1, written), sortedFile.length());
+            check(sortedFile);
+        } finally {
+            Files.deleteIfExists(Paths.get(WriteFile.SORTED_KEYS_FILE_NAME));
+        }
+    }
+
+    /**
+     * Writes a data pair file with a generator and sorts its keys straight from the file.
+     */
+    private static void sortDataPairFile() throws IOException {
+        try (RandomAccessFile dataPairFile = new RandomAccessFile(WriteFile.DATA_PAIR_FILE_NAME, "rw")) {
+            long start = System.nanoTime();
+            // below the end character, which the key files use for their padding
+            WriteFile.writeDataPairs(new DataPairGenerator(NUMBER_OF_KEYS, STRING_LENGTH, 1, KeyMatcher.END_CHARACTER - 1,
+                    false, 42), WriteFile.DATA_PAGE_SIZE);
+            System.out.printf("Wrote the data pair file in %d ms | File: %d bytes%n",
+                    (System.nanoTime() - start) / 1_000_000, dataPairFile.length());
+
+            start = System.nanoTime();
+            WriteFile.writeSortedKeys(dataPairFile, STRING_LENGTH, WriteFile.DATA_PAGE_SIZE, ExternalSort.DEFAULT_MEMORY_BUDGET);
+            long time = System.nanoTime() - start;
+            try (RandomAccessFile sortedFile = new RandomAccessFile(WriteFile.SORTED_KEYS_FILE_NAME, "r")) {
+                System.out.printf("Sorted %d pairs in %d ms (%d ns per pair) | File: %d bytes%n",
+                        NUMBER_OF_KEYS, time / 1_000_000, time / Math.max(1, NUMBER_OF_KEYS), sortedFile.length());
+                check(sortedFile);
+            }
+        } finally {
+            Files.deleteIfExists(Paths.get(WriteFile.SORTED_KEYS_FILE_NAME));
+            Files.deleteIfExists(Paths.get(WriteFile.DATA_PAIR_FILE_NAME));
+        }
+    }
+
+    private static void check(RandomAccessFile sortedFile) throws IOException {
+        long checked = checkSorted(sortedFile);
+        if (checked != NUMBER_OF_KEYS) {
+            throw new IllegalStateException("The file has " + checked + " pairs instead of " + NUMBER_OF_KEYS);
+        }
+        System.out.println("The file is sorted and has every pair");
+    }
+
+    /**
+     * Reads the file page by page and checks that every key is not smaller than the one before it.
+     *
+     * @return the pairs of the file
+     */
+    private static long checkSorted(RandomAccessFile sortedFile) throws IOException {
+        int pageSize = PageFile.pageSize(sortedFile);
+        int pairsPerPage = pageSize / (Integer.BYTES * 2) - 1;
+        byte[] page = new byte[pageSize];
+        long pairs = 0;
+        int previousKey = Integer.MIN_VALUE;
+        sortedFile.seek(PageFile.offsetOf(sortedFile, 0));
+        while (sortedFile.read(page) != -1) {
+            for (int pair = 0; pair < pairsPerPage; pair++) {
+                int key = KeyMatcher.intAt(page, pair * Integer.BYTES * 2);
+                if (key == KeyMatcher.END_CHARACTER) {
+                    break;
+                }
+                if (key < previousKey) {
+                    throw new IllegalStateException("The key " + key + " follows the key " + previousKey);
+                }
+                previousKey = key;
+                pairs++;
+            }
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,91 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.tuc.dataClass.DataPagePair;
+import org.tuc.dataClass.DataPairGenerator;
+import org.tuc.dataClass.KeyPagePairs;
+import org.tuc.utils.ReadFile;
+import org.tuc.utils.WriteFile;
+
+/**
+ * Compares the two ways to build the unsorted and the sorted keys file from the dataPair file:
+ * a list with a {@link DataPagePair} per record, sorted with {@code Collections.sort}, and the
+ * primitive arrays of {@link KeyPagePairs}, sorted as packed longs. Every round builds both files
+ * both ways and prints the time and the bytes that the thread allocated
+ * ({@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}); the first rounds are
+ * the warm-up of the compiler.
+ */
+public class IndexBuildBenchmark {
+
+    // The records of the dataPair file. Change it with -DindexBuild.records=5000000
+    private static final int NUMBER_OF_RECORDS = Integer.getInteger("indexBuild.records", 1_000_000);
+
+    // The rounds of the two builds. Change it with -DindexBuild.rounds=10
+    private static final int ROUNDS = Integer.getInteger("indexBuild.rounds", 5);
+
+    private static final int STRING_LENGTH = 55;
+    private static final boolean UNSORTED = false;
+    private static final boolean SORTED = true;
+
+    /**
+     * One way to build the two keys files.
+     */
+    @FunctionalInterface
+    private interface IndexBuild {
+        void build(RandomAccessFile dataPairFile) throws IOException;
+    }
+
+    private IndexBuildBenchmark() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Entry point for the index build benchmark.
+     *
+     * @param args Command-line arguments (unused).
+     */
+    public static void main(String[] args) throws IOException {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        WriteFile.writeDataPairs(new DataPairGenerator(NUMBER_OF_RECORDS, STRING_LENGTH, 1, NUMBER_OF_RECORDS * 2, false, 42),
+                WriteFile.DATA_PAGE_SIZE);
+        System.out.printf("Records: %d | Max heap: %d bytes%n", NUMBER_OF_RECORDS, Runtime.getRuntime().maxMemory());
+        try (RandomAccessFile dataPairFile = new RandomAccessFile(WriteFile.DATA_PAIR_FILE_NAME, "r")) {
+            for (int round = 1; round <= ROUNDS; round++) {
+                measure(threadBean, round, "DataPagePair list", dataPairFile, file -> {
+                    List<DataPagePair> keyPairList = ReadFile.readDataPairs(STRING_LENGTH, file);
+                    WriteFile.writeKeys(keyPairList, UNSORTED, WriteFile.DATA_PAGE_SIZE);
+                    WriteFile.writeKeys(keyPairList, SORTED, WriteFile.DATA_PAGE_SIZE);
+                    keyPairList.clear();
+                });
+                measure(threadBean, round, "Primitive arrays", dataPairFile, file -> {
+                    KeyPagePairs keyPairs = ReadFile.readKeyPagePairs(STRING_LENGTH, file);
+                    WriteFile.writeKeys(keyPairs, UNSORTED, WriteFile.DATA_PAGE_SIZE);
+                    WriteFile.writeKeys(keyPairs, SORTED, WriteFile.DATA_PAGE_SIZE);
+                });
+            }
+        } finally {
+            Files.deleteIfExists(Paths.get(WriteFile.DATA_PAIR_FILE_NAME));
+            Files.deleteIfExists(Paths.get(WriteFile.UNSORTED_KEYS_FILE_NAME));
+            Files.deleteIfExists(Paths.get(WriteFile.SORTED_KEYS_FILE_NAME));
+        }
+    }
+
+    private static void measure(com.sun.management.ThreadMXBean threadBean, int round, String method,
+            RandomAccessFile dataPairFile, IndexBuild build) throws IOException {
+        long threadId = Thread.currentThread().getId();
+        long allocated = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        build.build(dataPairFile);
+        long time = System.nanoTime() - start;
+        allocated = threadBean.getThreadAllocatedBytes(threadId) - allocated;
+        System.out.printf("    Round %d | %s | Time: %d ms | Allocated: %d bytes (%.1f per record)%n",
+                round, method, time / 1_000_000, allocated, (double) allocated / NUMBER_OF_RECORDS);
+    }
+}
@@ -0,0 +1,132 @@
+package org.tuc.searchtest;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.tuc.keyMatcher.KeyMatcher;
+import org.tuc.keyMatcher.KeyMatchers;
+
+/**
+ * Compares the scalar and the SIMD key matching kernels on pages of different sizes.
+ * For every page size it fills pages like the dataPair file (both string lengths) and like
+ * the key files, and prints the mean time needed to search one page with each kernel.
+ * Run it with {@code --add-modules jdk.incubator.vector}, otherwise only the scalar kernel is timed.
+ */
+public class KeyMatcherBenchmark {
+
+    private static final int[] PAGE_SIZES = {256, 4096, 65536};
+    private static final int[] STRING_LENGTHS = {55, 27};
+    private static final int PAGES = 64;
+    // Enough rounds for the JIT to compile the kernels, the Vector API is very slow before that
+    private static final int WARMUP_ROUNDS = 2000;
+    private static final int MEASURED_ROUNDS = 500;
+    private static final int MAX_KEY = 400000;
+    private static final Random random = new Random(42);
+
+    // Keeps the results alive, so the JIT cannot drop the searches
+    private static long blackhole;
+
+    private KeyMatcherBenchmark() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Entry point for the kernel benchmark.
+     *
+     * @param args Command-line arguments (unused).
+     */
+    public static void main(String[] args) {
+        KeyMatcher[] kernels = KeyMatchers.vector() == null
+                ? new KeyMatcher[] {KeyMatchers.scalar()}
+                : new KeyMatcher[] {KeyMatchers.scalar(), KeyMatchers.vector()};
+        if (kernels.length == 1) {
+            System.out.println("The Vector API is not available, run with --add-modules jdk.incubator.vector");
+        }
+
+        for (int pageSize : PAGE_SIZES) {
+            for (int stringLength : STRING_LENGTHS) {
+                int recordSize = Integer.BYTES + stringLength;
+                byte[][] pages = new byte[PAGES][];
+                int[] targets = new int[PAGES];
+                for (int i = 0; i < PAGES; i++) {
+                    pages[i] = dataPage(pageSize, recordSize, targets, i);
+                }
+                StringBuilder line = new StringBuilder(String.format("Page size: %d | Data page, stringLength %d", pageSize, stringLength));
+                for (KeyMatcher kernel : kernels) {
+                    line.append(String.format(" | %s: %d ns", kernel.getName(), timeDataPages(kernel, pages, pageSize, recordSize, targets)));
+                }
+                System.out.println(line);
+            }
+
+            int numPairs = pageSize / (Integer.BYTES * 2) - 1;
+            byte[][] pages = new byte[PAGES][];
+            int[] targets = new int[PAGES];
+            for (int i = 0; i < PAGES; i++) {
+                pages[i] = keyPage(pageSize, numPairs, targets, i);
+            }
+            StringBuilder line = new StringBuilder(String.format("Page size: %d | Key page", pageSize));
+            for (KeyMatcher kernel : kernels) {
+                line.append(String.format(" | %s: %d ns", kernel.getName(), timeKeyPages(kernel, pages, numPairs, targets)));
+            }
+            System.out.println(line);
+        }
+        System.out.println("Checksum: " + blackhole);
+    }
+
+    private static long timeDataPages(KeyMatcher kernel, byte[][] pages, int pageSize, int recordSize, int[] targets) {
+        long time = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < PAGES; i++) {
+                blackhole += kernel.indexOfKey(pages[i], pageSize, recordSize, targets[i]);
+            }
+            if (round >= WARMUP_ROUNDS) {
+                time += System.nanoTime() - start;
+            }
+        }
+        return time / ((long) MEASURED_ROUNDS * PAGES);
+    }
+
+    private static long timeKeyPages(KeyMatcher kernel, byte[][] pages, int numPairs, int[] targets) {
+        long time = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < PAGES; i++) {
+                blackhole += kernel.indexOfPairKey(pages[i], numPairs, targets[i]);
+            }
+            if (round >= WARMUP_ROUNDS) {
+                time += System.nanoTime() - start;
+            }
+        }
+        return time / ((long) MEASURED_ROUNDS * PAGES);
+    }
+
+    // A page of records key-string, half of the targets are in the page and half are not
+    private static byte[] dataPage(int pageSize, int recordSize, int[] targets, int index) {
+        ByteBuffer bb = ByteBuffer.allocate(pageSize);
+        int numPairs = pageSize / recordSize;
+        int[] keys = new int[numPairs];
+        for (int i = 0; i < numPairs; i++) {
+            keys[i] = 1 + random.nextInt(MAX_KEY);
+            bb.putInt(i * recordSize, keys[i]);
+            for (int j = Integer.BYTES; j < recordSize; j++) {
+                bb.put(i * recordSize + j, (byte) ('A' + random.nextInt(26)));
+            }
+        }
+        targets[index] = index % 2 == 0 ? keys[random.nextInt(numPairs)] : MAX_KEY + 1;
+        return bb.array();
+    }
+
+    // A page of pairs key-DataPage, half of the targets are in the page and half are not
+    private static byte[] keyPage(int pageSize, int numPairs, int[] targets, int index) {
+        ByteBuffer bb = ByteBuffer.allocate(pageSize);
+        int[] keys = new int[numPairs];
+        for (int i = 0; i < numPairs; i++) {
+            keys[i] = 1 + random.nextInt(MAX_KEY);
+            bb.putInt(keys[i]);
+            bb.putInt(random.nextInt(MAX_KEY));
+        }
+        targets[index] = index % 2 == 0 ? keys[random.nextInt(numPairs)] : MAX_KEY + 1;
+        return bb.array();
+    }
+}
@@ -0,0 +1,21 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * One lookup of a method on the channels of the dataPair file and of its key file,
+ * for the benchmarks that search from many threads.
+ */
+@FunctionalInterface
+interface Lookup {
+
+    /**
+     * @param key             the key we are looking for
+     * @param keyChannel      the channel of the key file of the method, null for method A
+     * @param dataPairChannel the channel of the dataPair file
+     * @return true if the file contains the key
+     * @throws IOException if an I/O error occurs while reading the files
+     */
+    boolean search(int key, FileChannel keyChannel, FileChannel dataPairChannel) throws IOException;
+}
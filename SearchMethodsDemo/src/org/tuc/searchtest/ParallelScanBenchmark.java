@@ -0,0 +1,110 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.tuc.randomSearch.ParallelRandomSearch;
+import org.tuc.randomSearch.RandomSearch;
+import org.tuc.utils.Clear;
+import org.tuc.utils.CreateFiles;
+import org.tuc.utils.MappedPageFile;
+import org.tuc.utils.WriteFile;
+
+/**
+ * Scaling benchmark for {@link ParallelRandomSearch}. For every N of {@link SearchTests}
+ * it times the sequential mapped scan and the parallel scan with an increasing number of
+ * threads and prints the mean time per key and the speedup. Every timing comes after untimed
+ * passes over the same keys, so the speedup does not include the compilation of the scans.
+ */
+public class ParallelScanBenchmark {
+
+    // The thread counts above the available processors are skipped.
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+    private static final int STRING_LENGTH = 55;
+
+    // The untimed passes over the keys before every timed one. Change it with -DparallelScan.warmupPasses=5
+    private static final int WARMUP_PASSES = Integer.getInteger("parallelScan.warmupPasses", 2);
+
+    private ParallelScanBenchmark() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Entry point for the scaling benchmark.
+     *
+     * @param args Command-line arguments (unused).
+     */
+    public static void main(String[] args) throws IOException {
+        int processors = Runtime.getRuntime().availableProcessors();
+        List<Integer> keys = new ArrayList<>(SearchTests.KEYS_FOR_TEST);
+        System.out.println("Available processors: " + processors);
+
+        for (int i = 0; i < SearchTests.NUMBER_OF_INSTANCES_PER_TEST.length; i++) {
+            int numOfRecords = SearchTests.NUMBER_OF_INSTANCES_PER_TEST[i];
+            int maxValue = SearchTests.MAX_VALUE[i];
+            try (
+                RandomAccessFile dataPairFile = new RandomAccessFile(WriteFile.DATA_PAIR_FILE_NAME, "rw");
+                RandomAccessFile unSortedFile = new RandomAccessFile(WriteFile.UNSORTED_KEYS_FILE_NAME, "rw");
+                RandomAccessFile sortedFile = new RandomAccessFile(WriteFile.SORTED_KEYS_FILE_NAME, "rw")
+            ) {
+                CreateFiles.createTestFiles(numOfRecords, STRING_LENGTH, SearchTests.MIN_VALUE_KEY, maxValue, dataPairFile);
+                SearchTests.prepareKeys(keys, numOfRecords, maxValue);
+                MappedPageFile dataPairMap = RandomSearch.mapDataFile(dataPairFile);
+
+                long sequentialTime = timeSequential(keys, dataPairMap);
+                System.out.printf("For N: %d | Sequential mean time: %d%n", numOfRecords, sequentialTime);
+                for (int threads : THREAD_COUNTS) {
+                    if (threads > 1 && threads > processors) {
+                        break;
+                    }
+                    long parallelTime = timeParallel(keys, dataPairMap, threads);
+                    System.out.printf("    Threads: %d | Mean time: %d | Speedup: %.2f%n",
+                            threads, parallelTime, (double) sequentialTime / parallelTime);
+                }
+                Clear.clearAndDeleteFiles(dataPairFile, unSortedFile, sortedFile);
+            }
+        }
+    }
+
+    private static long timeSequential(List<Integer> keys, MappedPageFile dataPairMap) {
+        for (int pass = 0; pass < WARMUP_PASSES; pass++) {
+            scanSequential(keys, dataPairMap);
+        }
+        long start = System.nanoTime();
+        scanSequential(keys, dataPairMap);
+        long time = (System.nanoTime() - start) / keys.size();
+        RandomSearch.PAGE_READS.reset();
+        return time;
+    }
+
+    private static void scanSequential(List<Integer> keys, MappedPageFile dataPairMap) {
+        for (Integer key : keys) {
+            RandomSearch.randomSearch(key, STRING_LENGTH, dataPairMap);
+        }
+    }
+
+    private static long timeParallel(List<Integer> keys, MappedPageFile dataPairMap, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            // the pool of every thread count starts its threads in the warm-up, not in the timed pass
+            for (int pass = 0; pass < WARMUP_PASSES; pass++) {
+                scanParallel(keys, dataPairMap, pool);
+            }
+            long start = System.nanoTime();
+            scanParallel(keys, dataPairMap, pool);
+            return (System.nanoTime() - start) / keys.size();
+        } finally {
+            pool.shutdown();
+            RandomSearch.PAGE_READS.reset();
+        }
+    }
+
+    private static void scanParallel(List<Integer> keys, MappedPageFile dataPairMap, ForkJoinPool pool) {
+        for (Integer key : keys) {
+            ParallelRandomSearch.randomSearch(key, STRING_LENGTH, dataPairMap, pool);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.bufferPool.BufferPool;
+import org.tuc.metrics.LatencyHistogram;
+import org.tuc.metrics.Metrics;
+
+/**
+ * A test that searches its keys one at a time with {@link #performSearch}, so every lookup is timed
+ * and the result has latency percentiles. The search may go through a buffer pool and a Bloom filter,
+ * which the search methods check before they read a page.
+ */
+public abstract class PerKeyTest extends Test {
+
+    protected BufferPool bufferPool;
+    protected BloomFilter bloomFilter;
+    private long bloomNegatives;
+    private long bloomSavedReads;
+    private long logicalReads;
+    private long physicalReads;
+
+    /**
+     * Constructs a new PerKeyTest instance and performs search tests.
+     *
+     * @param stringLength The length of the string used for the data pairs.
+     * @param keys         A list of keys to perform the tests.
+     * @param dataPairFile The dataPair file used for the search.
+     * @param keyFile      The key file used as a dictionary to locate random keys.
+     * @throws IOException If there's an I/O error.
+     */
+    protected PerKeyTest(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile, RandomAccessFile keyFile) throws IOException {
+        super(stringLength, keys, dataPairFile, keyFile);
+    }
+
+    /**
+     * Constructs a new PerKeyTest instance without running the tests, see {@link Test#Test(RandomAccessFile, RandomAccessFile)}.
+     *
+     * @param dataPairFile The dataPair file used for the search.
+     * @param keyFile      The key file used as a dictionary to locate random keys.
+     */
+    protected PerKeyTest(RandomAccessFile dataPairFile, RandomAccessFile keyFile) {
+        super(dataPairFile, keyFile);
+    }
+
+    /**
+     * Searches the keys one by one. The time of every lookup is recorded in the histogram
+     * {@code <method name>.latency} of {@link Metrics} and in the histograms of the result,
+     * where the hits and the misses are also apart.
+     */
+    @Override
+    final void runSearches(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile, RandomAccessFile keyFile)
+            throws IOException {
+        if (bufferPool != null) {
+            // Every method starts with an empty pool, so the methods do not warm it up for each other
+            bufferPool.clear();
+            bufferPool.resetStatistics();
+        }
+        LatencyHistogram registryLatency = Metrics.histogram(getMethodName() + ".latency");
+        LatencyHistogram latency = new LatencyHistogram(getMethodName() + ".latency");
+        LatencyHistogram hitLatency = new LatencyHistogram(getMethodName() + ".hitLatency");
+        LatencyHistogram missLatency = new LatencyHistogram(getMethodName() + ".missLatency");
+        long pageReadsBefore = getPageReads().sum();
+        long startTimeTest = System.nanoTime();
+        for (Integer key : keys) {
+            long startLookup = System.nanoTime();
+            boolean found = performSearch(key, stringLength, dataPairFile, keyFile);
+            long lookupTime = System.nanoTime() - startLookup;
+            registryLatency.record(lookupTime);
+            latency.record(lookupTime);
+            if (found) {
+                hits++;
+                hitLatency.record(lookupTime);
+            } else {
+                misses++;
+                missLatency.record(lookupTime);
+            }
+        }
+        long endTimeTest = System.nanoTime();
+        finalTimeTest = endTimeTest - startTimeTest;
+        long pageReads = getPageReads().sum() - pageReadsBefore;
+        result = new SearchResult(getMethodName(), hits, misses, pageReads, finalTimeTest,
+                latency.snapshot(), hitLatency.snapshot(), missLatency.snapshot());
+        if (bufferPool != null) {
+            logicalReads = bufferPool.getLogicalReads();
+            physicalReads = bufferPool.getPhysicalReads();
+        }
+        bloomNegatives = 0;
+        bloomSavedReads = 0;
+        if (bloomFilter != null) {
+            for (Integer key : keys) {
+                if (!bloomFilter.mightContain(key)) {
+                    bloomNegatives++;
+                }
+            }
+            bloomSavedReads = unfilteredPageReads(stringLength, keys, dataPairFile, keyFile) - pageReads;
+        }
+        if (bufferPool != null) {
+            bufferPool.clear();
+        }
+    }
+
+    /**
+     * Searches the keys again without the Bloom filter, from an empty buffer pool like the measured
+     * pass, and returns the page reads of this pass. The pass is not timed, and its reads are taken
+     * off the counter of the method again, so the metrics count only the measured pass.
+     */
+    private long unfilteredPageReads(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile, RandomAccessFile keyFile)
+            throws IOException {
+        BloomFilter filter = bloomFilter;
+        bloomFilter = null;
+        if (bufferPool != null) {
+            bufferPool.clear();
+        }
+        long pageReadsBefore = getPageReads().sum();
+        try {
+            for (Integer key : keys) {
+                performSearch(key, stringLength, dataPairFile, keyFile);
+            }
+        } finally {
+            bloomFilter = filter;
+        }
+        long pageReads = getPageReads().sum() - pageReadsBefore;
+        getPageReads().add(-pageReads);
+        return pageReads;
+    }
+
+    /**
+     * Performs the search operation for a given key and string length using provided data files.
+     *
+     * @param key          The key to search for.
+     * @param stringLength The length of the string used for the data pairs.
+     * @param dataPairFile The data pair file used for the search.
+     * @param keyFile      The key file used as a dictionary to locate random keys.
+     * @return True if the search was successful, false otherwise.
+     * @throws IOException If there's an I/O error.
+     */
+    protected abstract boolean performSearch(int key, int stringLength, RandomAccessFile dataPairFile, RandomAccessFile keyFile) throws IOException;
+
+    /**
+     * Returns the buffer pool used by the test.
+     *
+     * @return The buffer pool, or null if the test reads the files directly.
+     */
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Returns the pages that the test requested from the buffer pool.
+     *
+     * @return The logical page accesses, 0 without a buffer pool.
+     */
+    public long getLogicalReads() {
+        return logicalReads;
+    }
+
+    /**
+     * Returns the pages that the buffer pool had to read from the disk during the test.
+     *
+     * @return The physical reads, 0 without a buffer pool.
+     */
+    public long getPhysicalReads() {
+        return physicalReads;
+    }
+
+    /**
+     * Returns the Bloom filter used by the test.
+     *
+     * @return The Bloom filter, or null if every key is searched on the disk.
+     */
+    public BloomFilter getBloomFilter() {
+        return bloomFilter;
+    }
+
+    /**
+     * Returns the keys that the Bloom filter rejected, so they were not searched on the disk.
+     *
+     * @return The rejected keys, 0 without a Bloom filter.
+     */
+    public long getBloomNegatives() {
+        return bloomNegatives;
+    }
+
+    /**
+     * Returns the page reads that the Bloom filter saved: the reads of an unfiltered pass over the
+     * same keys minus the reads of the measured pass.
+     *
+     * @return The saved page reads, 0 without a Bloom filter.
+     */
+    public long getBloomSavedReads() {
+        return bloomSavedReads;
+    }
+}
@@ -0,0 +1,235 @@
+package org.tuc.searchtest;
+
+import java.util.List;
+
+import org.tuc.metrics.HistogramSnapshot;
+import org.tuc.metrics.LatencyHistogram;
+
+/**
+ * The result of one method on one data set: the lookups, hits and misses, the page reads, the
+ * total time and the latency of every lookup, all of them and the hits and the misses apart.
+ * The times are in nanoseconds. A method that answers all the keys at once, like the batched
+ * method A, has a total time but no latencies: it is made with {@link #batched}, its histograms are
+ * empty and {@link #isTimedPerLookup()} is false, so its percentiles are not read as data.
+ *
+ * <p>The results of several iterations of the same test are put together with
+ * {@link #combine(List)}: the counts, the times and the histograms are added, and the mean time of
+ * every iteration is kept for the standard deviation.
+ */
+public final class SearchResult {
+
+    private final String method;
+    private final long hits;
+    private final long misses;
+    private final long pageReads;
+    private final long timeNanos;
+    private final HistogramSnapshot latency;
+    private final HistogramSnapshot hitLatency;
+    private final HistogramSnapshot missLatency;
+    private final long[] iterationTimeNanos;
+    private final boolean timedPerLookup;
+
+    /**
+     * Constructs the result of a test.
+     *
+     * @param method      The name of the method in the metrics, e.g. methodA.
+     * @param hits        The keys that were found.
+     * @param misses      The keys that were not found.
+     * @param pageReads   The pages that the method read during the test.
+     * @param timeNanos   The time of all the lookups.
+     * @param latency     The latency of every lookup.
+     * @param hitLatency  The latency of the lookups that found their key.
+     * @param missLatency The latency of the lookups that did not.
+     */
+    public SearchResult(String method, long hits, long misses, long pageReads, long timeNanos,
+            HistogramSnapshot latency, HistogramSnapshot hitLatency, HistogramSnapshot missLatency) {
+        this(method, hits, misses, pageReads, timeNanos, latency, hitLatency, missLatency, new long[] {timeNanos}, true);
+    }
+
+    private SearchResult(String method, long hits, long misses, long pageReads, long timeNanos,
+            HistogramSnapshot latency, HistogramSnapshot hitLatency, HistogramSnapshot missLatency,
+            long[] iterationTimeNanos, boolean timedPerLookup) {
+        this.method = method;
+        this.hits = hits;
+        this.misses = misses;
+        this.pageReads = pageReads;
+        this.timeNanos = timeNanos;
+        this.latency = latency;
+        this.hitLatency = hitLatency;
+        this.missLatency = missLatency;
+        this.iterationTimeNanos = iterationTimeNanos;
+        this.timedPerLookup = timedPerLookup;
+    }
+
+    /**
+     * Constructs the result of a test that answered all its keys at once, so only the total time
+     * is known and the result has no latency percentiles.
+     *
+     * @param method    The name of the method in the metrics, e.g. methodA.batched.
+     * @param hits      The keys that were found.
+     * @param misses    The keys that were not found.
+     * @param pageReads The pages that the method read during the test.
+     * @param timeNanos The time of the whole batch.
+     * @return The result, with empty histograms.
+     */
+    public static SearchResult batched(String method, long hits, long misses, long pageReads, long timeNanos) {
+        HistogramSnapshot empty = new LatencyHistogram(method + ".latency").snapshot();
+        return new SearchResult(method, hits, misses, pageReads, timeNanos, empty, empty, empty, new long[] {timeNanos}, false);
+    }
+
+    /**
+     * Puts together the results of several iterations of the same test, with the same keys.
+     *
+     * @param iterations The result of every iteration, at least one.
+     * @return The result of all the iterations.
+     */
+    public static SearchResult combine(List<SearchResult> iterations) {
+        SearchResult first = iterations.get(0);
+        long hits = 0;
+        long misses = 0;
+        long pageReads = 0;
+        long timeNanos = 0;
+        HistogramSnapshot latency = first.latency;
+        HistogramSnapshot hitLatency = first.hitLatency;
+        HistogramSnapshot missLatency = first.missLatency;
+        long[] iterationTimeNanos = new long[iterations.size()];
+        for (int i = 0; i < iterations.size(); i++) {
+            SearchResult iteration = iterations.get(i);
+            hits += iteration.hits;
+            misses += iteration.misses;
+            pageReads += iteration.pageReads;
+            timeNanos += iteration.timeNanos;
+            if (i > 0) {
+                latency = latency.add(iteration.latency);
+                hitLatency = hitLatency.add(iteration.hitLatency);
+                missLatency = missLatency.add(iteration.missLatency);
+            }
+            iterationTimeNanos[i] = iteration.timeNanos;
+        }
+        return new SearchResult(first.method, hits, misses, pageReads, timeNanos, latency, hitLatency, missLatency, iterationTimeNanos,
+                first.timedPerLookup);
+    }
+
+    /**
+     * @return The name of the method in the metrics, e.g. methodA.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return The keys that were searched, hits and misses.
+     */
+    public long getLookups() {
+        return hits + misses;
+    }
+
+    /**
+     * @return The keys that were found.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return The keys that were not found.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return The pages that the method read during the test.
+     */
+    public long getPageReads() {
+        return pageReads;
+    }
+
+    /**
+     * @return The page reads per lookup, 0 without lookups.
+     */
+    public double getPageReadsPerLookup() {
+        return getLookups() == 0 ? 0 : (double) pageReads / getLookups();
+    }
+
+    /**
+     * @return The time of all the lookups, in nanoseconds.
+     */
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    /**
+     * Returns the mean time of a lookup. Misses are timed like hits, so the time is divided by
+     * all the lookups.
+     *
+     * @return The mean time in nanoseconds, 0 without lookups.
+     */
+    public long getMeanNanos() {
+        return getLookups() == 0 ? 0 : timeNanos / getLookups();
+    }
+
+    /**
+     * Returns the standard deviation of the mean time of a lookup between the iterations, which
+     * shows how much the mean of a single run can be trusted.
+     *
+     * @return The sample standard deviation in nanoseconds, 0 with a single iteration.
+     */
+    public double getMeanNanosStdDev() {
+        int n = iterationTimeNanos.length;
+        if (n < 2 || getLookups() == 0) {
+            return 0;
+        }
+        // Every iteration searched the same keys
+        double lookupsPerIteration = (double) getLookups() / n;
+        double mean = (double) timeNanos / getLookups();
+        double squares = 0;
+        for (long time : iterationTimeNanos) {
+            double deviation = time / lookupsPerIteration - mean;
+            squares += deviation * deviation;
+        }
+        return Math.sqrt(squares / (n - 1));
+    }
+
+    /**
+     * @return The iterations of the test in this result.
+     */
+    public int getIterations() {
+        return iterationTimeNanos.length;
+    }
+
+    /**
+     * @return The lookups per second, 0 if no time was measured.
+     */
+    public double getThroughput() {
+        return timeNanos == 0 ? 0 : getLookups() * 1e9 / timeNanos;
+    }
+
+    /**
+     * @return True if every lookup was timed, false for a batch whose percentiles are not known.
+     */
+    public boolean isTimedPerLookup() {
+        return timedPerLookup;
+    }
+
+    /**
+     * @return The latency of every lookup.
+     */
+    public HistogramSnapshot getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return The latency of the lookups that found their key.
+     */
+    public HistogramSnapshot getHitLatency() {
+        return hitLatency;
+    }
+
+    /**
+     * @return The latency of the lookups that did not find their key.
+     */
+    public HistogramSnapshot getMissLatency() {
+        return missLatency;
+    }
+}
@@ -6,24 +6,79 @@ package org.tuc.searchtest;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.bufferPool.BufferPool;
 import org.tuc.dataClass.DataClass;
+import org.tuc.hashFileIndexSearch.HashFileIndex;
+import org.tuc.metrics.Metrics;
+import org.tuc.sortedFileIndexSearch.FenceKeyDirectory;
+import org.tuc.sortedFileIndexSearch.SortedSearchMode;
 import org.tuc.utils.Clear;
 import org.tuc.utils.CreateFiles;
+import org.tuc.utils.DataPage;
+import org.tuc.utils.PageCache;
 import org.tuc.utils.ResultWriter;
 import org.tuc.utils.PrintScreen;
 import org.tuc.utils.WriteFile;
+import org.tuc.zoneMap.ZoneMap;
 
 public class SearchTests {
 
-    private static final int[] NUMBER_OF_INSTANCES_PER_TEST = {50, 100, 200, 500, 800, 1000, 2000, 5000, 10000, 50000, 100000, 200000};
-    private static final int[] MAX_VALUE = {100, 200, 400, 1000, 1600, 2000, 4000, 10000, 20000, 100000, 200000, 400000};
-    private static final int[] CAPACITY_OF_THE_RECORDS = {55, 27};
-    private static final int MIN_VALUE_KEY = 1;
+    static final int[] NUMBER_OF_INSTANCES_PER_TEST = {50, 100, 200, 500, 800, 1000, 2000, 5000, 10000, 50000, 100000, 200000};
+    static final int[] MAX_VALUE = {100, 200, 400, 1000, 1600, 2000, 4000, 10000, 20000, 100000, 200000, 400000};
+    static final int[] CAPACITY_OF_THE_RECORDS = {55, 27};
+    static final int MIN_VALUE_KEY = 1;
     public static final int KEYS_FOR_TEST = 1000;
 
+    // The layout of the data pages, fixed size records or slotted pages with a slot directory. Change it with -DdataPair.layout=slotted
+    private static final boolean SLOTTED_PAGES = parseLayout(System.getProperty("dataPair.layout", "fixed"));
+
+    // Give every string a random length up to the record length, which slotted pages store without padding. Enable it with -DdataPair.variableStrings=true
+    private static final boolean VARIABLE_STRINGS = Boolean.getBoolean("dataPair.variableStrings");
+
+    // The page sizes of the sweep, every dataset is written and searched once per size. Sweep more with -DpageSizes=256,4096,65536
+    private static final int[] PAGE_SIZES = parsePageSizes(System.getProperty("pageSizes", "256"), SLOTTED_PAGES);
+
+    // Run method A on a memory mapped dataPair file. Enable it with -DmappedScan=true
+    private static final boolean MAPPED_SCAN = Boolean.getBoolean("mappedScan");
+
+    // Pages of the shared buffer pool, 0 reads the files directly. Enable it with -DbufferPool.capacity=64
+    private static final int BUFFER_POOL_CAPACITY = Integer.getInteger("bufferPool.capacity", 0);
+
+    // The eviction policy of the buffer pool, LRU or CLOCK
+    private static final String BUFFER_POOL_POLICY = System.getProperty("bufferPool.policy", "LRU");
+
+    // Write the data pairs in key order, so the zone maps of method A can skip pages. Enable it with -DdataPair.clustered=true
+    private static final boolean CLUSTERED_DATA = Boolean.getBoolean("dataPair.clustered");
+
+    // False positive rate of the Bloom filter that methods A, B and C check before the disk, 0 for no filter. Enable it with -DbloomFilter.fpp=0.01
+    // The concurrent and asynchronous benchmarks use it too
+    static final double BLOOM_FILTER_FPP = Double.parseDouble(System.getProperty("bloomFilter.fpp", "0"));
+
+    // Append the counters and latency histograms of every data set to this file, CSV or JSON lines. Enable it with -Dmetrics.file=metrics.csv
+    private static final String METRICS_FILE = System.getProperty("metrics.file");
+
+    // Passes of all the methods over every data set before the measured ones, so the JIT compiles the searches first. Enable them with -Dwarmup.iterations=2
+    private static final int WARMUP_ITERATIONS = Integer.getInteger("warmup.iterations", 0);
+
+    // Measured passes over every data set, their results are added and the spread of the mean time is reported. Change it with -Dmeasure.iterations=5
+    private static final int MEASURED_ITERATIONS = positive("measure.iterations", Integer.getInteger("measure.iterations", 1));
+
+    // Drop the files from the page cache of the OS before every measured method, warm leaves them cached. Enable it with -Dcache=cold
+    private static final boolean COLD_CACHE = parseCacheMode(System.getProperty("cache", "warm"));
+
+    // The files of the results for programs, one row per method and data set, CSV, JSON lines or ODS by the extension. Change it with -Dresults.files=nightly.csv
+    private static final String[] RESULTS_FILES = System.getProperty("results.files", "test_results.csv,test_results.json,test_results.ods").split(",");
+
+    // The results of every data set, for the table that closes the results file
+    private static final List<DataSetResult> results = new ArrayList<>();
+
     /**
      * Entry point for running search performance tests.
      * 
@@ -35,6 +90,9 @@ public class SearchTests {
         try {
             storedInformation = new ArrayList<>();
             List<Integer> keys = new ArrayList<>(KEYS_FOR_TEST);
+            if (METRICS_FILE != null) {
+                Files.deleteIfExists(Paths.get(METRICS_FILE));
+            }
             
             for (int len : CAPACITY_OF_THE_RECORDS) {
                 runTestsForKeyLength(len, keys);
@@ -48,7 +106,14 @@ public class SearchTests {
             storedInformation = PrintScreen.getStoredInformation();
             
             //Write the results
-            ResultWriter.writeResultsToODS(storedInformation);
+            ResultWriter.writeReport(storedInformation, results);
+            for (String resultsFile : RESULTS_FILES) {
+                try {
+                    ResultWriter.writeResults(resultsFile.trim(), results);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
         }
     }
 
@@ -61,8 +126,10 @@ public class SearchTests {
      * @throws IOException If there is an I/O error during the test.
      */
     private static void runTestsForKeyLength(int keyLength, List<Integer> keys) throws IOException {
-        for (int i = 0; i < MAX_VALUE.length; i++) {
-            runTest(keyLength, NUMBER_OF_INSTANCES_PER_TEST[i], MAX_VALUE[i], keys);
+        for (int pageSize : PAGE_SIZES) {
+            for (int i = 0; i < MAX_VALUE.length; i++) {
+                runTest(keyLength, NUMBER_OF_INSTANCES_PER_TEST[i], MAX_VALUE[i], pageSize, keys);
+            }
         }
     }
 
@@ -72,29 +139,246 @@ public class SearchTests {
      * @param keyLength Length of the keys.
      * @param numOfRecords Number of records in the data set.
      * @param maxValue Maximum value for generating data.
+     * @param pageSize Page size of the data pair file and the key files.
      * @param keys List of keys for the test.
      * @param storedInformation List to store test results.
      * @throws IOException If there is an I/O error during the test.
      */
-    private static void runTest(int keyLength, int numOfRecords, int maxValue, List<Integer> keys) throws IOException {
+    private static void runTest(int keyLength, int numOfRecords, int maxValue, int pageSize, List<Integer> keys) throws IOException {
         try (
             RandomAccessFile dataPairFile = new RandomAccessFile(WriteFile.DATA_PAIR_FILE_NAME, "rw");
             RandomAccessFile unSortedFile = new RandomAccessFile(WriteFile.UNSORTED_KEYS_FILE_NAME, "rw");
-            RandomAccessFile sortedFile = new RandomAccessFile(WriteFile.SORTED_KEYS_FILE_NAME, "rw")
+            RandomAccessFile sortedFile = new RandomAccessFile(WriteFile.SORTED_KEYS_FILE_NAME, "rw");
+            RandomAccessFile hashFile = new RandomAccessFile(WriteFile.HASH_KEYS_FILE_NAME, "rw");
+            RandomAccessFile hashOverflowFile = new RandomAccessFile(WriteFile.HASH_OVERFLOW_FILE_NAME, "rw")
         ) {
-        	CreateFiles.createTestFiles(numOfRecords, keyLength, MIN_VALUE_KEY, maxValue, dataPairFile);
+        	CreateFiles.createTestFiles(numOfRecords, keyLength, MIN_VALUE_KEY, maxValue, dataPairFile, new CreateFiles.Options()
+        	        .bloomFalsePositiveRate(BLOOM_FILTER_FPP)
+        	        .clustered(CLUSTERED_DATA)
+        	        .pageSize(pageSize)
+        	        .slotted(SLOTTED_PAGES)
+        	        .variableStrings(VARIABLE_STRINGS));
             prepareKeys(keys, numOfRecords, maxValue);
 
-            TestRandomSearch testRandom = new TestRandomSearch(keyLength, keys, dataPairFile);
-            TestUnsortedFileIndexSearch testUnsorted = new TestUnsortedFileIndexSearch(keyLength, keys, unSortedFile, dataPairFile);
-            TestSortedFileIndexSearch testSorted = new TestSortedFileIndexSearch(keyLength, keys, sortedFile, dataPairFile);
-            
+            BufferPool bufferPool = BUFFER_POOL_CAPACITY > 0 ? BufferPool.create(BUFFER_POOL_CAPACITY, BUFFER_POOL_POLICY) : null;
+            BloomFilter bloomFilter = BLOOM_FILTER_FPP > 0 ? readBloomFilter() : null;
+
+            ZoneMap zoneMap = readZoneMap();
+            FenceKeyDirectory fenceKeys = FenceKeyDirectory.build(sortedFile);
+            HashFileIndex hashIndex = HashFileIndex.open(hashFile, hashOverflowFile);
+
+            // The warmup iterations let the JIT compile the searches, and their results are dropped
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                new Iteration(keyLength, keys, dataPairFile, unSortedFile, sortedFile, hashFile, bufferPool, bloomFilter, zoneMap, fenceKeys, hashIndex, false);
+            }
+            Metrics.reset();
+            List<List<SearchResult>> iterations = new ArrayList<>();
+            Iteration last = null;
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                last = new Iteration(keyLength, keys, dataPairFile, unSortedFile, sortedFile, hashFile, bufferPool, bloomFilter, zoneMap, fenceKeys, hashIndex, COLD_CACHE);
+                iterations.add(last.getResults());
+            }
+            List<SearchResult> methods = new ArrayList<>();
+            for (int method = 0; method < last.getResults().size(); method++) {
+                List<SearchResult> methodIterations = new ArrayList<>();
+                for (List<SearchResult> iteration : iterations) {
+                    methodIterations.add(iteration.get(method));
+                }
+                methods.add(SearchResult.combine(methodIterations));
+            }
+            DataSetResult result = new DataSetResult(numOfRecords, keyLength, pageSize, COLD_CACHE, methods);
+            results.add(result);
+
             // Print and store test results
-            PrintScreen.print(testRandom, testUnsorted, testSorted, numOfRecords, keyLength);
-            PrintScreen.storeData(testRandom, testUnsorted, testSorted, numOfRecords, keyLength);
+            PrintScreen.print(result, last.random, last.zoneMap, last.unsorted, last.sorted, last.fence, last.hash);
+            PrintScreen.storeData(result, last.random, last.zoneMap, last.unsorted, last.sorted, last.fence, last.hash);
+            if (METRICS_FILE != null) {
+                ResultWriter.appendMetrics(METRICS_FILE, String.format("N=%d stringLength=%d pageSize=%d cache=%s layout=%s",
+                        numOfRecords, keyLength, pageSize, COLD_CACHE ? "cold" : "warm", SLOTTED_PAGES ? "slotted" : "fixed"));
+            }
             
             //Delete the files
-            Clear.clearAndDeleteFiles(dataPairFile, unSortedFile, sortedFile);
+            Clear.clearAndDeleteFiles(dataPairFile, unSortedFile, sortedFile, hashFile, hashOverflowFile);
+        }
+    }
+
+    /**
+     * One pass of every method over the keys of a data set. Without a pool or a filter (null) the
+     * plain methods run.
+     */
+    private static final class Iteration {
+
+        /**
+         * Creates a test, which runs the method when it is created.
+         */
+        @FunctionalInterface
+        private interface TestFactory<T extends Test> {
+            T create() throws IOException;
+        }
+
+        private final List<Test> tests = new ArrayList<>();
+        private final boolean coldCache;
+
+        final TestRandomSearch random;
+        final TestZoneMapRandomSearch zoneMap;
+        final TestUnsortedFileIndexSearch unsorted;
+        final TestSortedFileIndexSearch sorted;
+        final TestFenceKeySearch fence;
+        final TestHashFileIndexSearch hash;
+
+        /**
+         * Runs every method once.
+         *
+         * @param coldCache True to drop the files from the page cache before every method.
+         * @throws IOException If there is an I/O error during the test.
+         */
+        Iteration(int keyLength, List<Integer> keys, RandomAccessFile dataPairFile, RandomAccessFile unSortedFile,
+                RandomAccessFile sortedFile, RandomAccessFile hashFile, BufferPool bufferPool, BloomFilter bloomFilter,
+                ZoneMap zoneMap, FenceKeyDirectory fenceKeys, HashFileIndex hashIndex, boolean coldCache) throws IOException {
+            this.coldCache = coldCache;
+            random = add(() -> MAPPED_SCAN
+                    ? new TestMappedRandomSearch(keyLength, keys, dataPairFile, bloomFilter)
+                    : new TestRandomSearch(keyLength, keys, dataPairFile, bufferPool, bloomFilter));
+            this.zoneMap = add(() -> new TestZoneMapRandomSearch(keyLength, keys, dataPairFile, zoneMap));
+            add(() -> new TestBatchRandomSearch(keyLength, keys, dataPairFile, bloomFilter));
+            unsorted = add(() -> new TestUnsortedFileIndexSearch(keyLength, keys, unSortedFile, dataPairFile, bufferPool, bloomFilter));
+            sorted = add(() -> new TestSortedFileIndexSearch(keyLength, keys, sortedFile, dataPairFile, bufferPool, bloomFilter));
+            add(() -> new TestSortedFileIndexSearch(keyLength, keys, sortedFile, dataPairFile, SortedSearchMode.INTERPOLATION));
+            add(() -> new TestSortedFileIndexSearch(keyLength, keys, sortedFile, dataPairFile, SortedSearchMode.HYBRID));
+            fence = add(() -> new TestFenceKeySearch(keyLength, keys, sortedFile, dataPairFile, fenceKeys));
+            hash = add(() -> new TestHashFileIndexSearch(keyLength, keys, hashFile, dataPairFile, hashIndex));
+        }
+
+        /**
+         * Prepares the page cache, runs a method and keeps its test in the run order.
+         *
+         * @param factory Creates the test of the method.
+         * @return The test.
+         * @throws IOException If there is an I/O error during the test.
+         */
+        private <T extends Test> T add(TestFactory<T> factory) throws IOException {
+            prepareCache(coldCache);
+            T test = factory.create();
+            tests.add(test);
+            return test;
+        }
+
+        /**
+         * @return The result of every method, in the order they ran.
+         */
+        List<SearchResult> getResults() {
+            List<SearchResult> results = new ArrayList<>(tests.size());
+            for (Test test : tests) {
+                results.add(test.getResult());
+            }
+            return results;
+        }
+
+        private static void prepareCache(boolean coldCache) throws IOException {
+            if (coldCache) {
+                PageCache.evict(WriteFile.DATA_PAIR_FILE_NAME, WriteFile.UNSORTED_KEYS_FILE_NAME, WriteFile.SORTED_KEYS_FILE_NAME,
+                        WriteFile.HASH_KEYS_FILE_NAME, WriteFile.HASH_OVERFLOW_FILE_NAME);
+            }
+        }
+    }
+
+    /**
+     * Checks that a setting is at least 1.
+     *
+     * @param name  The name of the system property.
+     * @param value The value of the setting.
+     * @return The value.
+     */
+    private static int positive(String name, int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be at least 1: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Parses the cache mode of the measured iterations.
+     *
+     * @param mode warm or cold.
+     * @return True for cold.
+     */
+    private static boolean parseCacheMode(String mode) {
+        switch (mode.trim().toLowerCase(Locale.ROOT)) {
+            case "warm":
+                return false;
+            case "cold":
+                return true;
+            default:
+                throw new IllegalArgumentException("The cache mode must be warm or cold: " + mode);
+        }
+    }
+
+    /**
+     * Parses the layout of the data pages.
+     *
+     * @param layout fixed or slotted.
+     * @return True for slotted.
+     */
+    private static boolean parseLayout(String layout) {
+        switch (layout.trim().toLowerCase(Locale.ROOT)) {
+            case "fixed":
+                return false;
+            case "slotted":
+                return true;
+            default:
+                throw new IllegalArgumentException("The data page layout must be fixed or slotted: " + layout);
+        }
+    }
+
+    /**
+     * Parses the page sizes of the sweep. Every size must hold at least one record and one pair of the
+     * key files besides the padding, so anything below {@value WriteFile#DATA_PAGE_SIZE} bytes is refused.
+     * The sizes above {@value WriteFile#MAX_DATA_PAGE_SIZE} bytes, or above
+     * {@value DataPage#MAX_SLOTTED_PAGE_SIZE} bytes with slotted pages, are refused here, before any
+     * data set runs.
+     *
+     * @param pageSizes The page sizes separated by commas.
+     * @param slotted   True if the data pages have the slotted layout.
+     * @return The page sizes in the given order.
+     */
+    private static int[] parsePageSizes(String pageSizes, boolean slotted) {
+        int maxPageSize = slotted ? DataPage.MAX_SLOTTED_PAGE_SIZE : WriteFile.MAX_DATA_PAGE_SIZE;
+        String[] values = pageSizes.split(",");
+        int[] sizes = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            sizes[i] = Integer.parseInt(values[i].trim());
+            if (sizes[i] < WriteFile.DATA_PAGE_SIZE) {
+                throw new IllegalArgumentException("The page size must be at least " + WriteFile.DATA_PAGE_SIZE + ": " + sizes[i]);
+            }
+            if (sizes[i] > maxPageSize) {
+                throw new IllegalArgumentException("The page size must be at most " + maxPageSize
+                        + (slotted ? " with slotted pages: " : ": ") + sizes[i]);
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * Loads the zone map that was written next to the data pair file.
+     *
+     * @return The key range of every page of the data pair file.
+     * @throws IOException If there is an I/O error while reading the sidecar file.
+     */
+    private static ZoneMap readZoneMap() throws IOException {
+        try (RandomAccessFile zoneMapFile = new RandomAccessFile(WriteFile.ZONE_MAP_FILE_NAME, "r")) {
+            return ZoneMap.readFrom(zoneMapFile);
+        }
+    }
+
+    /**
+     * Loads the Bloom filter that was written next to the data pair file.
+     *
+     * @return The filter of the keys of the data pair file.
+     * @throws IOException If there is an I/O error while reading the sidecar file.
+     */
+    static BloomFilter readBloomFilter() throws IOException {
+        try (RandomAccessFile bloomFile = new RandomAccessFile(WriteFile.BLOOM_FILTER_FILE_NAME, "r")) {
+            return BloomFilter.readFrom(bloomFile);
         }
     }
 
@@ -105,7 +389,7 @@ public class SearchTests {
      * @param numOfRecords Number of records in the data set.
      * @param maxValue Maximum value for generating keys.
      */
-    private static void prepareKeys(List<Integer> keys, int numOfRecords, int maxValue) {
+    static void prepareKeys(List<Integer> keys, int numOfRecords, int maxValue) {
         keys.clear();
         if (numOfRecords <= 1000) {
             keys.addAll(DataClass.generateDuplicateKeys(MIN_VALUE_KEY, maxValue, KEYS_FOR_TEST));
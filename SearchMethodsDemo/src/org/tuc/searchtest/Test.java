@@ -2,17 +2,22 @@ package org.tuc.searchtest;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.util.ArrayList;
 import java.util.List;
 
+import org.tuc.metrics.Counter;
+import org.tuc.metrics.Metrics;
+
 /**
- * An abstract base class for performing search tests and collecting results.
+ * An abstract base class for performing search tests and collecting results. It owns the counters
+ * and the {@link SearchResult} of a test. A {@link PerKeyTest} searches the keys one by one and a
+ * {@link BatchTest} answers all of them at once.
  */
 public abstract class Test {
 
-    protected List<Boolean> collectSuccessResults;
-    protected List<Boolean> collectFailResults;
+    protected long hits;
+    protected long misses;
     protected long finalTimeTest;
+    protected SearchResult result;
     private RandomAccessFile keyFile;
     private RandomAccessFile dataPairFile;
 
@@ -26,18 +31,30 @@ public abstract class Test {
      * @throws IOException If there's an I/O error.
      */
     protected Test(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile, RandomAccessFile keyFile) throws IOException {
-        initializeLists();
+        this(dataPairFile, keyFile);
+        runTests(stringLength, keys);
+    }
+
+    /**
+     * Constructs a new Test instance without running the tests.
+     * Subclasses that need their own state for the search use this constructor,
+     * set their fields and then call {@link #runTests(int, List)} themselves.
+     *
+     * @param dataPairFile The dataPair file used for the search.
+     * @param keyFile      The key file used as a dictionary to locate random keys.
+     */
+    protected Test(RandomAccessFile dataPairFile, RandomAccessFile keyFile) {
+        initializeCounts();
         this.keyFile = keyFile;
         this.dataPairFile = dataPairFile;
-        runTests(stringLength, keys);
     }
 
     /**
-     * Initializes the lists and counters used for collecting test results.
+     * Initializes the counters used for collecting test results.
      */
-    private void initializeLists() {
-        collectSuccessResults = new ArrayList<>();
-        collectFailResults = new ArrayList<>();
+    private void initializeCounts() {
+        hits = 0;
+        misses = 0;
         finalTimeTest = 0;
     }
 
@@ -48,44 +65,64 @@ public abstract class Test {
      * @param keys         A list of keys to perform the tests.
      * @throws IOException If there's an I/O error.
      */
-    private void runTests(int stringLength, List<Integer> keys) throws IOException {
-        long startTimeTest = System.nanoTime();
-        for (Integer key : keys) {
-            boolean result = performSearch(key, stringLength, dataPairFile, keyFile);
-            (result ? collectSuccessResults : collectFailResults).add(result);
-        }
-        long endTimeTest = System.nanoTime();
-        finalTimeTest = endTimeTest - startTimeTest;
+    protected final void runTests(int stringLength, List<Integer> keys) throws IOException {
+        runSearches(stringLength, keys, dataPairFile, keyFile);
     }
 
     /**
-     * Performs the search operation for a given key and string length using provided data files.
+     * Searches the keys, counts the hits and the misses and sets {@link #result}.
      *
-     * @param key          The key to search for.
      * @param stringLength The length of the string used for the data pairs.
+     * @param keys         A list of keys to perform the tests.
      * @param dataPairFile The data pair file used for the search.
      * @param keyFile      The key file used as a dictionary to locate random keys.
-     * @return True if the search was successful, false otherwise.
      * @throws IOException If there's an I/O error.
      */
-    protected abstract boolean performSearch(int key, int stringLength, RandomAccessFile dataPairFile, RandomAccessFile keyFile) throws IOException;
+    abstract void runSearches(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile, RandomAccessFile keyFile)
+            throws IOException;
+
+    /**
+     * Returns the name of the method in {@link Metrics}, the prefix of its counters and histograms.
+     *
+     * @return The name of the method, e.g. methodA.
+     */
+    protected abstract String getMethodName();
+
+    /**
+     * Returns the counter of the page reads of the method, {@code <method name>.pageReads} of {@link Metrics}.
+     * A test that runs a method under another name overrides it with the counter that the method increases.
+     *
+     * @return The counter of the page reads.
+     */
+    protected Counter getPageReads() {
+        return Metrics.counter(getMethodName() + ".pageReads");
+    }
+
+    /**
+     * Returns the number of successful searches.
+     *
+     * @return The keys that were found.
+     */
+    public long getHits() {
+        return hits;
+    }
 
     /**
-     * Returns a list of successful search results.
+     * Returns the number of failed searches.
      *
-     * @return The list of successful search results.
+     * @return The keys that were not found.
      */
-    public List<Boolean> getCollectSuccessResults() {
-        return collectSuccessResults;
+    public long getMisses() {
+        return misses;
     }
 
     /**
-     * Returns a list of failed search results.
+     * Returns the result of the test: counts, page reads, time and latency percentiles.
      *
-     * @return The list of failed search results.
+     * @return The result of the test.
      */
-    public List<Boolean> getCollectFailResults() {
-        return collectFailResults;
+    public SearchResult getResult() {
+        return result;
     }
 
     /**
@@ -0,0 +1,46 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.randomSearch.RandomSearch;
+
+/**
+ * Batched method A. All the keys of the test are answered by one call of
+ * {@link RandomSearch#batchSearch}, so the dataPair file is read at most once.
+ * The batch is timed as a whole, so the result has no latency percentiles. With a Bloom filter
+ * the keys that it rejects are left out of the pass.
+ */
+public class TestBatchRandomSearch extends BatchTest {
+
+    private BloomFilter bloomFilter;
+
+    public TestBatchRandomSearch(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile) throws IOException {
+        super(stringLength, keys, dataPairFile, null);
+    }
+
+    public TestBatchRandomSearch(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile, BloomFilter bloomFilter)
+            throws IOException {
+        super(dataPairFile, null);
+        this.bloomFilter = bloomFilter;
+        runTests(stringLength, keys);
+    }
+
+    @Override
+    protected String getMethodName() {
+        return "methodA.batched";
+    }
+
+    @Override
+    protected boolean[] performBatchSearch(int[] keys, int stringLength, RandomAccessFile dataPairFile, RandomAccessFile keyFile)
+            throws IOException {
+        int[] pages = RandomSearch.batchSearch(keys, stringLength, dataPairFile, bloomFilter);
+        boolean[] found = new boolean[pages.length];
+        for (int i = 0; i < pages.length; i++) {
+            found[i] = pages[i] != -1;
+        }
+        return found;
+    }
+}
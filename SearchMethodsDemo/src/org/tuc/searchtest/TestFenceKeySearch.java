@@ -0,0 +1,43 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.tuc.sortedFileIndexSearch.FenceKeyDirectory;
+import org.tuc.sortedFileIndexSearch.SortedFileIndexSearch;
+
+/**
+ * Method C with the fence key directory: one index page per search instead of a binary search on the file.
+ */
+public class TestFenceKeySearch extends PerKeyTest {
+
+    private final FenceKeyDirectory directory;
+
+    public TestFenceKeySearch(int stringLength, List<Integer> keys, RandomAccessFile sortedFile, RandomAccessFile dataPairFile,
+            FenceKeyDirectory directory) throws IOException {
+        super(dataPairFile, sortedFile);
+        this.directory = directory;
+        runTests(stringLength, keys);
+    }
+
+    @Override
+    protected String getMethodName() {
+        return "methodC.fenceKeys";
+    }
+
+    @Override
+    protected boolean performSearch(int key, int stringLength, RandomAccessFile dataPairFile, RandomAccessFile keyFile) throws IOException {
+        int tempResult = directory.search(key, keyFile);
+        return SortedFileIndexSearch.searchDataPage(key, tempResult, stringLength, dataPairFile);
+    }
+
+    /**
+     * Returns the directory used by the test.
+     *
+     * @return The fence key directory of the sorted file.
+     */
+    public FenceKeyDirectory getDirectory() {
+        return directory;
+    }
+}
@@ -0,0 +1,43 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.tuc.hashFileIndexSearch.HashFileIndex;
+import org.tuc.unsortedFileIndexSearch.UnsortedFileIndexSearch;
+
+/**
+ * Method D: the data page of the key comes from the hash index.
+ */
+public class TestHashFileIndexSearch extends PerKeyTest {
+
+    private final HashFileIndex hashIndex;
+
+    public TestHashFileIndexSearch(int stringLength, List<Integer> keys, RandomAccessFile hashFile, RandomAccessFile dataPairFile,
+            HashFileIndex hashIndex) throws IOException {
+        super(dataPairFile, hashFile);
+        this.hashIndex = hashIndex;
+        runTests(stringLength, keys);
+    }
+
+    @Override
+    protected String getMethodName() {
+        return "methodD";
+    }
+
+    @Override
+    protected boolean performSearch(int key, int stringLength, RandomAccessFile dataPairFile, RandomAccessFile keyFile) throws IOException {
+        int tempResult = hashIndex.search(key);
+        return UnsortedFileIndexSearch.searchGivenPage(key, tempResult, stringLength, dataPairFile);
+    }
+
+    /**
+     * Returns the hash index used by the test.
+     *
+     * @return The hash index of method D.
+     */
+    public HashFileIndex getHashIndex() {
+        return hashIndex;
+    }
+}
@@ -0,0 +1,45 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.metrics.Counter;
+import org.tuc.randomSearch.RandomSearch;
+import org.tuc.utils.MappedPageFile;
+
+/**
+ * Method A running on a memory mapped dataPair file instead of read calls.
+ * It uses the same counter as {@link TestRandomSearch}, so it can take its place in the tests.
+ */
+public class TestMappedRandomSearch extends TestRandomSearch {
+
+    private final MappedPageFile dataPairMap;
+
+    public TestMappedRandomSearch(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile) throws IOException {
+        this(stringLength, keys, dataPairFile, null);
+    }
+
+    public TestMappedRandomSearch(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile, BloomFilter bloomFilter) throws IOException {
+        super(dataPairFile);
+        this.dataPairMap = RandomSearch.mapDataFile(dataPairFile);
+        this.bloomFilter = bloomFilter;
+        runTests(stringLength, keys);
+    }
+
+    @Override
+    protected String getMethodName() {
+        return "methodA.mapped";
+    }
+
+    @Override
+    protected Counter getPageReads() {
+        return RandomSearch.PAGE_READS;
+    }
+
+    @Override
+    protected boolean performSearch(int key, int stringLength, RandomAccessFile dataPairFile, RandomAccessFile keyFile) throws IOException {
+        return RandomSearch.randomSearch(key, stringLength, dataPairMap, bloomFilter);
+    }
+}
@@ -4,17 +4,39 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.List;
 
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.bufferPool.BufferPool;
 import org.tuc.randomSearch.RandomSearch;
 
-public class TestRandomSearch extends Test {
+public class TestRandomSearch extends PerKeyTest {
     public TestRandomSearch(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile) throws IOException {
         super(stringLength, keys, dataPairFile, null); // Passing null for keyFile as it's not used in RandomSearch
     }
 
+    public TestRandomSearch(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile, BufferPool bufferPool) throws IOException {
+        this(stringLength, keys, dataPairFile, bufferPool, null);
+    }
+
+    public TestRandomSearch(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile, BufferPool bufferPool,
+            BloomFilter bloomFilter) throws IOException {
+        super(dataPairFile, null);
+        this.bufferPool = bufferPool;
+        this.bloomFilter = bloomFilter;
+        runTests(stringLength, keys);
+    }
+
+    protected TestRandomSearch(RandomAccessFile dataPairFile) {
+        super(dataPairFile, null);
+    }
+
+    @Override
+    protected String getMethodName() {
+        return "methodA";
+    }
+
     @Override
     protected boolean performSearch(int key, int stringLength, RandomAccessFile dataPairFile, RandomAccessFile keyFile) throws IOException {
-        return RandomSearch.randomSearch(key, stringLength, dataPairFile);
+        return RandomSearch.randomSearch(key, stringLength, dataPairFile, bufferPool, bloomFilter);
     }
 
 }
-
@@ -3,18 +3,64 @@ package org.tuc.searchtest;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.List;
+import java.util.Locale;
 
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.bufferPool.BufferPool;
 import org.tuc.sortedFileIndexSearch.SortedFileIndexSearch;
+import org.tuc.sortedFileIndexSearch.SortedSearchMode;
+
+public class TestSortedFileIndexSearch extends PerKeyTest {
+
+    private final SortedSearchMode mode;
 
-public class TestSortedFileIndexSearch extends Test {
     public TestSortedFileIndexSearch(int stringLength, List<Integer> keys, RandomAccessFile sortedFile, RandomAccessFile dataPairFile) throws IOException {
-        super(stringLength, keys, dataPairFile, sortedFile);
+        this(stringLength, keys, sortedFile, dataPairFile, SortedSearchMode.BINARY);
+    }
+
+    public TestSortedFileIndexSearch(int stringLength, List<Integer> keys, RandomAccessFile sortedFile, RandomAccessFile dataPairFile,
+            SortedSearchMode mode) throws IOException {
+        super(dataPairFile, sortedFile);
+        this.mode = mode;
+        runTests(stringLength, keys);
+    }
+
+    public TestSortedFileIndexSearch(int stringLength, List<Integer> keys, RandomAccessFile sortedFile, RandomAccessFile dataPairFile,
+            BufferPool bufferPool) throws IOException {
+        this(stringLength, keys, sortedFile, dataPairFile, bufferPool, null);
+    }
+
+    public TestSortedFileIndexSearch(int stringLength, List<Integer> keys, RandomAccessFile sortedFile, RandomAccessFile dataPairFile,
+            BufferPool bufferPool, BloomFilter bloomFilter) throws IOException {
+        super(dataPairFile, sortedFile);
+        this.mode = SortedSearchMode.BINARY;
+        this.bufferPool = bufferPool;
+        this.bloomFilter = bloomFilter;
+        runTests(stringLength, keys);
+    }
+
+    @Override
+    protected String getMethodName() {
+        return mode == SortedSearchMode.BINARY ? "methodC" : "methodC." + mode.name().toLowerCase(Locale.ROOT);
     }
 
     @Override
     protected boolean performSearch(int key, int stringLength, RandomAccessFile dataPairFile, RandomAccessFile keyFile) throws IOException {
-        int tempResult = SortedFileIndexSearch.binarySearch(key, keyFile);
+        if (bufferPool != null) {
+            int tempResult = SortedFileIndexSearch.binarySearch(key, keyFile, bufferPool, bloomFilter);
+            return SortedFileIndexSearch.searchDataPage(key, tempResult, stringLength, dataPairFile, bufferPool);
+        }
+        int tempResult = SortedFileIndexSearch.search(key, keyFile, mode, bloomFilter);
         return SortedFileIndexSearch.searchDataPage(key, tempResult, stringLength, dataPairFile);
     }
+
+    /**
+     * Returns how the pages of the sorted file are chosen in this test.
+     *
+     * @return The search mode.
+     */
+    public SortedSearchMode getMode() {
+        return mode;
+    }
 }
 
@@ -4,16 +4,39 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.List;
 
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.bufferPool.BufferPool;
 import org.tuc.unsortedFileIndexSearch.UnsortedFileIndexSearch;
 
-public class TestUnsortedFileIndexSearch extends Test {
+public class TestUnsortedFileIndexSearch extends PerKeyTest {
     public TestUnsortedFileIndexSearch(int stringLength, List<Integer> keys, RandomAccessFile unsortedFile, RandomAccessFile dataPairFile) throws IOException {
         super(stringLength, keys, dataPairFile, unsortedFile);
     }
 
+    public TestUnsortedFileIndexSearch(int stringLength, List<Integer> keys, RandomAccessFile unsortedFile, RandomAccessFile dataPairFile,
+            BufferPool bufferPool) throws IOException {
+        this(stringLength, keys, unsortedFile, dataPairFile, bufferPool, null);
+    }
+
+    public TestUnsortedFileIndexSearch(int stringLength, List<Integer> keys, RandomAccessFile unsortedFile, RandomAccessFile dataPairFile,
+            BufferPool bufferPool, BloomFilter bloomFilter) throws IOException {
+        super(dataPairFile, unsortedFile);
+        this.bufferPool = bufferPool;
+        this.bloomFilter = bloomFilter;
+        runTests(stringLength, keys);
+    }
+
+    @Override
+    protected String getMethodName() {
+        return "methodB";
+    }
+
     @Override
     protected boolean performSearch(int key, int stringLength, RandomAccessFile dataPairFile, RandomAccessFile keyFile) throws IOException {
-        int tempResult = UnsortedFileIndexSearch.searchInUnsortedFile(key, keyFile);
+        int tempResult = UnsortedFileIndexSearch.searchInUnsortedFile(key, keyFile, bufferPool, bloomFilter);
+        if (bufferPool != null) {
+            return UnsortedFileIndexSearch.searchGivenPage(key, tempResult, stringLength, dataPairFile, bufferPool);
+        }
         return UnsortedFileIndexSearch.searchGivenPage(key, tempResult, stringLength, dataPairFile);
     }
 }
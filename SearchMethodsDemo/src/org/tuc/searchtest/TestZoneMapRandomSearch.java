@@ -0,0 +1,41 @@
+package org.tuc.searchtest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.tuc.randomSearch.RandomSearch;
+import org.tuc.zoneMap.ZoneMap;
+
+/**
+ * Method A with the zone map of the dataPair file: only the pages whose key range contains the key are read.
+ */
+public class TestZoneMapRandomSearch extends PerKeyTest {
+
+    private final ZoneMap zoneMap;
+
+    public TestZoneMapRandomSearch(int stringLength, List<Integer> keys, RandomAccessFile dataPairFile, ZoneMap zoneMap) throws IOException {
+        super(dataPairFile, null);
+        this.zoneMap = zoneMap;
+        runTests(stringLength, keys);
+    }
+
+    @Override
+    protected String getMethodName() {
+        return "methodA.zoneMap";
+    }
+
+    @Override
+    protected boolean performSearch(int key, int stringLength, RandomAccessFile dataPairFile, RandomAccessFile keyFile) throws IOException {
+        return RandomSearch.randomSearch(key, stringLength, dataPairFile, zoneMap);
+    }
+
+    /**
+     * Returns the zone map used by the test.
+     *
+     * @return The zone map of the dataPair file.
+     */
+    public ZoneMap getZoneMap() {
+        return zoneMap;
+    }
+}
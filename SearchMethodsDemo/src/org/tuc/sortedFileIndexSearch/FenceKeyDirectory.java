@@ -0,0 +1,154 @@
+package org.tuc.sortedFileIndexSearch;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.tuc.keyMatcher.KeyMatcher;
+import org.tuc.metrics.Counter;
+import org.tuc.metrics.Metrics;
+import org.tuc.utils.PageFile;
+
+/**
+ * An in memory directory with the first key of every page of the sorted keys file.
+ * A lookup finds the page of the key with a binary search in memory and then reads
+ * exactly one index page, where it binary searches the pairs in place.
+ * Every index page read by a lookup increases {@link #PAGE_READS}.
+ */
+public final class FenceKeyDirectory {
+
+    /** The pages of the sorted keys file read by the lookups of all the directories. */
+    public static final Counter PAGE_READS = Metrics.counter("methodC.fenceKeys.pageReads");
+
+    private static final int RECORD_SIZE_KEY_PAIR = Integer.BYTES * 2;
+
+    private final int[] firstKeys;
+    private final int pairsPerPage;
+    private final byte[] buffer;
+
+    private FenceKeyDirectory(int[] firstKeys, int pageSize) {
+        this.firstKeys = firstKeys;
+        this.pairsPerPage = pairsPerPage(pageSize);
+        this.buffer = new byte[pageSize];
+    }
+
+    private static int pairsPerPage(int pageSize) {
+        return (pageSize / RECORD_SIZE_KEY_PAIR) - 1;
+    }
+
+    /**
+     * Builds the directory when the sorted file is opened. Only the first key of every page
+     * is read, one read per page.
+     *
+     * @param sortedFile the file with sorted keys
+     * @return the directory of the file
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static FenceKeyDirectory build(RandomAccessFile sortedFile) throws IOException {
+        int pageSize = PageFile.pageSize(sortedFile);
+        int pages = PageFile.pageCount(sortedFile);
+        int[] firstKeys = new int[pages];
+        int used = 0;
+        for (int pageNo = 0; pageNo < pages; pageNo++) {
+            sortedFile.seek(PageFile.offsetOf(sortedFile, pageNo));
+            int firstKey = sortedFile.readInt();
+            // The padding of the last page is not a key, so a page that holds only padding is left out
+            if (firstKey == KeyMatcher.END_CHARACTER) {
+                break;
+            }
+            firstKeys[used++] = firstKey;
+        }
+        if (used < pages) {
+            int[] trimmed = new int[used];
+            System.arraycopy(firstKeys, 0, trimmed, 0, used);
+            return new FenceKeyDirectory(trimmed, pageSize);
+        }
+        return new FenceKeyDirectory(firstKeys, pageSize);
+    }
+
+    /**
+     * Searches the key with one read of the sorted file.
+     *
+     * @param key        the key to search for
+     * @param sortedFile the file with sorted keys the directory was built from
+     * @return the data page associated with the key, or -1 if the key is not found
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public int search(int key, RandomAccessFile sortedFile) throws IOException {
+        int pageNo = pageOf(key);
+        if (pageNo < 0) {
+            return -1;
+        }
+        PAGE_READS.increment();
+        sortedFile.seek(PageFile.offsetOf(sortedFile, pageNo));
+        int bytesRead = sortedFile.read(buffer);
+        if (bytesRead <= 0) {
+            return -1;
+        }
+        return searchPairs(buffer, Math.min(pairsPerPage, bytesRead / RECORD_SIZE_KEY_PAIR), key);
+    }
+
+    /**
+     * Finds the last page whose first key is not greater than the key.
+     *
+     * @return the page, or -1 if the key is smaller than every key of the file
+     */
+    private int pageOf(int key) {
+        int leftIndex = 0;
+        int rightIndex = firstKeys.length - 1;
+        int pageNo = -1;
+        while (leftIndex <= rightIndex) {
+            int midIndex = (leftIndex + rightIndex) >>> 1;
+            if (firstKeys[midIndex] <= key) {
+                pageNo = midIndex;
+                leftIndex = midIndex + 1;
+            } else {
+                rightIndex = midIndex - 1;
+            }
+        }
+        return pageNo;
+    }
+
+    /**
+     * Binary searches the pairs of an index page. The padding of the last page is
+     * END_CHARACTER, which is greater than every key, so the pairs stay sorted up to the end.
+     */
+    private static int searchPairs(byte[] page, int numPairs, int key) {
+        int leftIndex = 0;
+        int rightIndex = numPairs - 1;
+        while (leftIndex <= rightIndex) {
+            int midIndex = (leftIndex + rightIndex) >>> 1;
+            int midKey = KeyMatcher.intAt(page, midIndex * RECORD_SIZE_KEY_PAIR);
+            if (midKey == key) {
+                return KeyMatcher.intAt(page, midIndex * RECORD_SIZE_KEY_PAIR + Integer.BYTES);
+            } else if (midKey < key) {
+                leftIndex = midIndex + 1;
+            } else {
+                rightIndex = midIndex - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the pages of the sorted file in the directory
+     */
+    public int getPages() {
+        return firstKeys.length;
+    }
+
+    /**
+     * @return the bytes of the directory in memory, 4 per page
+     */
+    public long getMemoryBytes() {
+        return (long) firstKeys.length * Integer.BYTES;
+    }
+
+    /**
+     * The memory of a directory for a million keys, with the pairs that fit in a page of the sorted file.
+     *
+     * @return the bytes of the directory per million keys
+     */
+    public long getMemoryBytesPerMillionKeys() {
+        return ((1_000_000L + pairsPerPage - 1) / pairsPerPage) * Integer.BYTES;
+    }
+}
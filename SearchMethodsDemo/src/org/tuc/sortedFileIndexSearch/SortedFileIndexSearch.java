@@ -5,8 +5,13 @@ import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.bufferPool.BufferPool;
 import org.tuc.dataClass.DataPagePair;
-import org.tuc.utils.MultiCounter;
+import org.tuc.metrics.Counter;
+import org.tuc.metrics.Metrics;
+import org.tuc.utils.DataPage;
+import org.tuc.utils.PageFile;
 import org.tuc.utils.WriteFile;
 
 /**
@@ -15,6 +20,15 @@ import org.tuc.utils.WriteFile;
  */
 public final class SortedFileIndexSearch {
 
+    /** The pages of the sorted keys file read by the binary search of method C. */
+    public static final Counter PAGE_READS = Metrics.counter("methodC.pageReads");
+
+    /** The pages of the sorted keys file read by the interpolation search. */
+    public static final Counter INTERPOLATION_PAGE_READS = Metrics.counter("methodC.interpolation.pageReads");
+
+    /** The pages of the sorted keys file read by the hybrid search. */
+    public static final Counter HYBRID_PAGE_READS = Metrics.counter("methodC.hybrid.pageReads");
+
     private SortedFileIndexSearch() {
         throw new UnsupportedOperationException("static methods only");
     }
@@ -25,7 +39,8 @@ public final class SortedFileIndexSearch {
      */
     private static final int END_CHARACTER = 538976288;
     private static final int RECORD_SIZE_KEY_PAIR = Integer.BYTES * 2;
-    private static final byte[] buffer = new byte[WriteFile.DATA_PAGE_SIZE];
+    // resized by PageFile.fit to the page size of the file that is read
+    private static byte[] buffer = new byte[WriteFile.DATA_PAGE_SIZE];
     private static final List<DataPagePair> binary = new ArrayList<>();
 
     /**
@@ -37,18 +52,30 @@ public final class SortedFileIndexSearch {
      * @throws IOException if an I/O error occurs while reading the file
      */
     public static int binarySearch(int key, RandomAccessFile sortedFile) throws IOException {
-        long fileSize = sortedFile.length();
-        int numRecords = (int) (fileSize / WriteFile.DATA_PAGE_SIZE);
+        return binarySearch(key, sortedFile, null);
+    }
+
+    /**
+     * Performs a binary search on the sorted file to find the specified key, reading the pages
+     * through the buffer pool.
+     *
+     * @param key         the key to search for
+     * @param sortedFile  the file with sorted keys
+     * @param bufferPool  the pool that serves the pages, or null to read them from the file
+     * @return the data page associated with the key, or -1 if the key is not found
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static int binarySearch(int key, RandomAccessFile sortedFile, BufferPool bufferPool) throws IOException {
+        int numRecords = PageFile.pageCount(sortedFile);
         int leftIndex = 0;
         int rightIndex = numRecords - 1;
 
         while (leftIndex <= rightIndex) {
             binary.clear();
-            MultiCounter.increaseCounter(3);
+            PAGE_READS.increment();
             int midIndex = (leftIndex + rightIndex) >>> 1;
-            int offset = midIndex * WriteFile.DATA_PAGE_SIZE;
 
-            readDataPagePairs(sortedFile, offset);
+            readDataPagePairs(sortedFile, midIndex, bufferPool);
 
             int firstKey = binary.get(0).getKey();
             int lastKey = binary.get(binary.size() - 1).getKey();
@@ -66,12 +93,178 @@ public final class SortedFileIndexSearch {
         return -1;
     }
 
-    private static void readDataPagePairs(RandomAccessFile sortedFile, int offset) throws IOException {
-        sortedFile.seek(offset);
-        int bytesRead = sortedFile.read(buffer);
-        ByteBuffer bb = ByteBuffer.wrap(buffer, 0, bytesRead);
+    /**
+     * Performs a binary search on the sorted file behind the Bloom filter of the dataPair file.
+     * A key that the filter rejects is surely not in the file, so -1 is returned without reading a page.
+     *
+     * @param key         the key to search for
+     * @param sortedFile  the file with sorted keys
+     * @param bufferPool  the pool that serves the pages, or null to read them from the file
+     * @param bloomFilter the filter of the keys of the dataPair file, or null to search every key
+     * @return the data page associated with the key, or -1 if the key is not found
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static int binarySearch(int key, RandomAccessFile sortedFile, BufferPool bufferPool, BloomFilter bloomFilter)
+            throws IOException {
+        if (bloomFilter != null && !bloomFilter.mightContain(key)) {
+            return -1;
+        }
+        return binarySearch(key, sortedFile, bufferPool);
+    }
 
-        for (int i = 0; i < ((WriteFile.DATA_PAGE_SIZE / RECORD_SIZE_KEY_PAIR) - 1); i++) {
+    /**
+     * Performs an interpolation search on the sorted file to find the specified key.
+     * Instead of the middle page it probes the page where the key should be if the keys were
+     * uniformly distributed between the known bounds. The first and the last page are read
+     * first to learn the bounds. Every page read increases {@link #INTERPOLATION_PAGE_READS}.
+     *
+     * @param key         the key to search for
+     * @param sortedFile  the file with sorted keys
+     * @return the data page associated with the key, or -1 if the key is not found
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static int interpolationSearch(int key, RandomAccessFile sortedFile) throws IOException {
+        return interpolationSearch(key, sortedFile, false, INTERPOLATION_PAGE_READS);
+    }
+
+    /**
+     * Performs an interpolation search that falls back to binary search on skewed data.
+     * When an interpolation probe does not halve the remaining pages, the next probe is the
+     * middle page, so the search never needs more than about twice the reads of binary search.
+     * Every page read increases {@link #HYBRID_PAGE_READS}.
+     *
+     * @param key         the key to search for
+     * @param sortedFile  the file with sorted keys
+     * @return the data page associated with the key, or -1 if the key is not found
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static int hybridSearch(int key, RandomAccessFile sortedFile) throws IOException {
+        return interpolationSearch(key, sortedFile, true, HYBRID_PAGE_READS);
+    }
+
+    /**
+     * Searches the key with the given mode.
+     *
+     * @param key         the key to search for
+     * @param sortedFile  the file with sorted keys
+     * @param mode        how the next page is chosen
+     * @return the data page associated with the key, or -1 if the key is not found
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static int search(int key, RandomAccessFile sortedFile, SortedSearchMode mode) throws IOException {
+        switch (mode) {
+            case INTERPOLATION:
+                return interpolationSearch(key, sortedFile);
+            case HYBRID:
+                return hybridSearch(key, sortedFile);
+            default:
+                return binarySearch(key, sortedFile);
+        }
+    }
+
+    /**
+     * Searches the key with the given mode behind the Bloom filter of the dataPair file.
+     * A key that the filter rejects is surely not in the file, so -1 is returned without reading a page.
+     *
+     * @param key         the key to search for
+     * @param sortedFile  the file with sorted keys
+     * @param mode        how the next page is chosen
+     * @param bloomFilter the filter of the keys of the dataPair file, or null to search every key
+     * @return the data page associated with the key, or -1 if the key is not found
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static int search(int key, RandomAccessFile sortedFile, SortedSearchMode mode, BloomFilter bloomFilter) throws IOException {
+        if (bloomFilter != null && !bloomFilter.mightContain(key)) {
+            return -1;
+        }
+        return search(key, sortedFile, mode);
+    }
+
+    private static int interpolationSearch(int key, RandomAccessFile sortedFile, boolean hybrid, Counter pageReads) throws IOException {
+        int leftIndex = 0;
+        int rightIndex = PageFile.pageCount(sortedFile) - 1;
+        if (rightIndex < 0) {
+            return -1;
+        }
+
+        // The bounds: the first page tells the smallest key of the file
+        pageReads.increment();
+        readDataPagePairs(sortedFile, leftIndex, null);
+        if (key <= binary.get(binary.size() - 1).getKey()) {
+            return key < binary.get(0).getKey() ? notFound() : findKeyInDataPagePairs(key);
+        }
+        long lowKey = binary.get(binary.size() - 1).getKey();
+        binary.clear();
+        leftIndex++;
+        if (leftIndex > rightIndex) {
+            return -1;
+        }
+
+        // and the last page tells the largest one
+        pageReads.increment();
+        readDataPagePairs(sortedFile, rightIndex, null);
+        if (key >= binary.get(0).getKey()) {
+            return key > binary.get(binary.size() - 1).getKey() ? notFound() : findKeyInDataPagePairs(key);
+        }
+        long highKey = binary.get(0).getKey();
+        binary.clear();
+        rightIndex--;
+
+        // From now on every key of the pages left of leftIndex is below lowKey
+        // and every key of the pages right of rightIndex is above highKey.
+        boolean nextProbeBinary = false;
+        while (leftIndex <= rightIndex) {
+            int pages = rightIndex - leftIndex + 1;
+            int probeIndex;
+            if (nextProbeBinary) {
+                probeIndex = (leftIndex + rightIndex) >>> 1;
+            } else {
+                probeIndex = leftIndex + (int) ((key - lowKey) * pages / (highKey - lowKey));
+                probeIndex = Math.min(Math.max(probeIndex, leftIndex), rightIndex);
+            }
+
+            pageReads.increment();
+            readDataPagePairs(sortedFile, probeIndex, null);
+            int firstKey = binary.get(0).getKey();
+            int lastKey = binary.get(binary.size() - 1).getKey();
+
+            if (key >= firstKey && key <= lastKey) {
+                return findKeyInDataPagePairs(key);
+            } else if (key < firstKey) {
+                rightIndex = probeIndex - 1;
+                highKey = firstKey;
+            } else {
+                leftIndex = probeIndex + 1;
+                lowKey = lastKey;
+            }
+            binary.clear();
+            // the guard of the hybrid mode: a probe that did not halve the pages is followed by a binary one
+            nextProbeBinary = hybrid && !nextProbeBinary && (rightIndex - leftIndex + 1) > pages / 2;
+        }
+        return -1;
+    }
+
+    private static int notFound() {
+        binary.clear();
+        return -1;
+    }
+
+    private static void readDataPagePairs(RandomAccessFile sortedFile, int pageNo, BufferPool bufferPool) throws IOException {
+        byte[] page;
+        int bytesRead;
+        int pageSize = PageFile.pageSize(sortedFile);
+        if (bufferPool == null) {
+            buffer = PageFile.fit(buffer, pageSize);
+            sortedFile.seek(PageFile.offsetOf(sortedFile, pageNo));
+            bytesRead = sortedFile.read(buffer);
+            page = buffer;
+        } else {
+            page = bufferPool.readPage(sortedFile, pageNo);
+            bytesRead = page.length;
+        }
+        ByteBuffer bb = ByteBuffer.wrap(page, 0, bytesRead);
+
+        for (int i = 0; i < ((pageSize / RECORD_SIZE_KEY_PAIR) - 1); i++) {
             int keyBinary = bb.getInt();
 
             if (keyBinary == END_CHARACTER) {
@@ -96,6 +289,7 @@ public final class SortedFileIndexSearch {
 
     /**
      * Performs a search for the target key in a specific data page of the data pair file.
+     * Only the given page is searched, like the buffer pool version does.
      *
      * @param targetKey      the key to search for
      * @param dataPage       the data page to search in
@@ -107,31 +301,34 @@ public final class SortedFileIndexSearch {
     public static boolean searchDataPage(int targetKey, int dataPage, int stringLength, RandomAccessFile dataPairFile)
             throws IOException {
         int recordSize = Integer.BYTES + stringLength;
-        int offset = dataPage * WriteFile.DATA_PAGE_SIZE;
+        long offset = PageFile.offsetOf(dataPairFile, dataPage);
 
-        if (offset >= dataPairFile.length() || offset < 0) {
+        if (offset >= dataPairFile.length() || dataPage < 0) {
             return false;
         } else {
+            buffer = PageFile.fit(buffer, PageFile.pageSize(dataPairFile));
             dataPairFile.seek(offset);
             int bytesRead = dataPairFile.read(buffer);
-
-            while (bytesRead != -1) {
-                ByteBuffer bb = ByteBuffer.wrap(buffer, 0, bytesRead);
-                int numPairs = bytesRead / recordSize;
-
-                for (int i = 0; i < numPairs; i++) {
-                    int key = bb.getInt();
-                    bb.position(bb.position() + stringLength);
-
-                    if (key == targetKey) {
-                        return true;
-                    }
-                }
-
-                bytesRead = dataPairFile.read(buffer);
-            }
+            return bytesRead != -1 && DataPage.indexOfKey(buffer, bytesRead, recordSize, targetKey) != -1;
         }
+    }
 
-        return false;
+    /**
+     * Performs a search for the target key in a specific data page of the data pair file,
+     * reading the page through the buffer pool. Only the given page is searched.
+     *
+     * @param targetKey      the key to search for
+     * @param dataPage       the data page to search in
+     * @param stringLength   the length of the string used for data pair records
+     * @param dataPairFile   the data pair file to search in
+     * @param bufferPool     the pool that serves the page
+     * @return {@code true} if the target key is found in the data page, {@code false} otherwise
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static boolean searchDataPage(int targetKey, int dataPage, int stringLength, RandomAccessFile dataPairFile,
+            BufferPool bufferPool) throws IOException {
+        byte[] page = bufferPool.readPage(dataPairFile, dataPage);
+        return page != null
+                && DataPage.indexOfKey(page, page.length, Integer.BYTES + stringLength, targetKey) != -1;
     }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package org.tuc.sortedFileIndexSearch;
+
+/**
+ * The ways {@link SortedFileIndexSearch} can choose the next page of the sorted file to read.
+ */
+public enum SortedSearchMode {
+
+    /** Always the middle page, see {@link SortedFileIndexSearch#binarySearch}. */
+    BINARY,
+
+    /** The page where the key should be for uniform keys, see {@link SortedFileIndexSearch#interpolationSearch}. */
+    INTERPOLATION,
+
+    /** Interpolation guarded by binary probes, see {@link SortedFileIndexSearch#hybridSearch}. */
+    HYBRID
+}
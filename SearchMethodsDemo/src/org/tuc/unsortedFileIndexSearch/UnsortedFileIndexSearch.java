@@ -2,16 +2,22 @@ package org.tuc.unsortedFileIndexSearch;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
-import org.tuc.dataClass.DataPagePair;
-import org.tuc.utils.MultiCounter;
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.bufferPool.BufferPool;
+import org.tuc.keyMatcher.KeyMatcher;
+import org.tuc.keyMatcher.KeyMatchers;
+import org.tuc.metrics.Counter;
+import org.tuc.metrics.Metrics;
+import org.tuc.utils.DataPage;
+import org.tuc.utils.PageFile;
 import org.tuc.utils.WriteFile;
 
 
 public class UnsortedFileIndexSearch {
 	
+	/** The pages of the unsorted keys file read by method B. */
+	public static final Counter PAGE_READS = Metrics.counter("methodB.pageReads");
+	
 	  //This class should not be instantiated
 	  private UnsortedFileIndexSearch() {
 		    throw new IllegalStateException("static methods only");
@@ -20,24 +26,13 @@ public class UnsortedFileIndexSearch {
 	//the size of each pair in the index file
 	private static final int  RECORD_SIZE_KEY_PAIR = Integer.BYTES *2;
 	
-	// The buffer size used for reading data pages
-	private static final  byte[] buffer = new byte[WriteFile.DATA_PAGE_SIZE];
-	
-	// The maximum number of data page pairs that can be stored in the unsorted List
-	private static final int MAX_CAPACITY = 200000;
-	
-	// The list of data page pairs that will used to keep the readed pairs.
-	private static final List<DataPagePair> unsorted = new ArrayList<>(MAX_CAPACITY);
-
-    /**
-     * It is the decimal representation of the 32-bit number you get when you put 4 ASCII space
-     * characters in a 32-bit word.If we reach that,we have reach the end of the file.
-     */
-    private static final int END_CHARACTER = 538976288;
+	// The buffer used for reading pages, sized by the page size of the file
+	private static byte[] buffer = new byte[WriteFile.DATA_PAGE_SIZE];
 	
 	
 	/**
-	 * Given a DataPage this method is searching the key to the main file.
+	 * Given a DataPage this method is searching the key to the main file. Only the given page is
+	 * searched, like the buffer pool version does, since the index names the page of every key.
 	 * 
 	 * @param targetKey : The key we are looking
 	 * @param dataPage :The result of the previous method.
@@ -48,31 +43,21 @@ public class UnsortedFileIndexSearch {
 	 */
     public static boolean searchGivenPage(int targetKey, int dataPage, int stringLength, RandomAccessFile dataPairFile) throws IOException {
             int recordSize = Integer.BYTES + stringLength;
-            int offset = (dataPage * WriteFile.DATA_PAGE_SIZE);
-            if (offset >= dataPairFile.length() || offset<0) {
+            long offset = PageFile.offsetOf(dataPairFile, dataPage);
+            if (offset >= dataPairFile.length() || dataPage<0) {
                 // The requested data page is beyond the end of the file or we got -1, return false
                 return false;
             } else {
+            	buffer = PageFile.fit(buffer, PageFile.pageSize(dataPairFile));
             	dataPairFile.seek(offset);
                 int bytesRead = dataPairFile.read(buffer);
-                while (bytesRead != -1) {
-                    ByteBuffer bb = ByteBuffer.wrap(buffer, 0, bytesRead);
-                    int numPairs = bytesRead / recordSize;
-                    for (int i = 0; i < numPairs; i++) {
-                        int key = bb.getInt();
-                        bb.position(bb.position()+stringLength); //skip the string.We are not intrested.
-                        if (key == targetKey) {
-                            return true;
-                            
-                        }
-                    }bytesRead = dataPairFile.read(buffer);
-                }
+                //compare only the keys, the strings are skipped.We are not intrested.
+                return bytesRead != -1 && DataPage.indexOfKey(buffer, bytesRead, recordSize, targetKey) != -1;
             }
-        return false;
     }
     /**
      * This method performs a search on the file with the usorted pairs.
-     * 
+     * The keys are compared straight from the page buffer, so no object is created.
      * 
      * @param targetKey : The key tht we are intrested.
      * @param stringLength : The lenght of the string.It can be either 55 or 27.
@@ -81,31 +66,88 @@ public class UnsortedFileIndexSearch {
      * @throws IOException
      */
     public static int searchInUnsortedFile(int targetKey, RandomAccessFile unsortedFile) throws IOException {
-    	    unsortedFile.seek(0); //Reset the FilePointer to the beggining.
+    	    int pageSize = PageFile.pageSize(unsortedFile);
+    	    buffer = PageFile.fit(buffer, pageSize);
+    	    unsortedFile.seek(PageFile.offsetOf(unsortedFile, 0)); //Reset the FilePointer to the first page after the header.
             int bytesRead = unsortedFile.read(buffer);
+            KeyMatcher keyMatcher = KeyMatchers.get();
             while (bytesRead != -1) {
-            	MultiCounter.increaseCounter(2);
-                ByteBuffer bb = ByteBuffer.wrap(buffer, 0, bytesRead);
-                int numPairs = (WriteFile.DATA_PAGE_SIZE/ RECORD_SIZE_KEY_PAIR)-1;
-                for (int i = 0; i < numPairs;  i++) {
-                    int key = bb.getInt();
-                    if(key == END_CHARACTER) {
-                        break; // stop adding keys if the end character is encountered
-                    }
-                    int dataPage = bb.getInt();
-                    unsorted.add(new DataPagePair(key,dataPage));
-                    }
-                    for(DataPagePair searchInUnsorted : unsorted ) {
-                        if (searchInUnsorted.getKey() == targetKey) {
-                        	unsorted.clear();
-                            return searchInUnsorted.getDataPage();         
-                        }
-                    }
-                    unsorted.clear();
-                    bytesRead = unsortedFile.read(buffer);
-                    }
-            
-            unsorted.clear();
+            	PAGE_READS.increment();
+                int numPairs = Math.min((pageSize/ RECORD_SIZE_KEY_PAIR)-1, bytesRead / RECORD_SIZE_KEY_PAIR);
+                // the kernel stops at the end character, like the readers of the key files
+                int pair = keyMatcher.indexOfPairKey(buffer, numPairs, targetKey);
+                if (pair != -1) {
+                    return KeyMatcher.intAt(buffer, pair * RECORD_SIZE_KEY_PAIR + Integer.BYTES);
+                }
+                bytesRead = unsortedFile.read(buffer);
+            }
+            return -1;
+        }
+
+    /**
+     * Given a DataPage this method is searching the key to the main file, reading the page
+     * through the buffer pool. Only the given page is searched.
+     *
+     * @param targetKey : The key we are looking
+     * @param dataPage :The result of the previous method.
+     * @param stringLength :The string can be either 55 or 27.
+     * @param dataPairFile : The dataPair file needed for the tests.
+     * @param bufferPool : The pool that serves the page.
+     * @return :true(success) or false(fail)
+     * @throws IOException
+     */
+    public static boolean searchGivenPage(int targetKey, int dataPage, int stringLength, RandomAccessFile dataPairFile,
+            BufferPool bufferPool) throws IOException {
+        byte[] page = bufferPool.readPage(dataPairFile, dataPage);
+        return page != null
+                && DataPage.indexOfKey(page, page.length, Integer.BYTES + stringLength, targetKey) != -1;
+    }
+
+    /**
+     * This method performs a search on the file with the usorted pairs, reading the pages
+     * through the buffer pool.
+     *
+     * @param targetKey : The key tht we are intrested.
+     * @param unsortedFile :The file that we need to perform the search.
+     * @param bufferPool : The pool that serves the pages.
+     * @return If it successful it returns the dataPage.If not and we reach the end of the file -1.
+     * @throws IOException
+     */
+    public static int searchInUnsortedFile(int targetKey, RandomAccessFile unsortedFile, BufferPool bufferPool) throws IOException {
+        KeyMatcher keyMatcher = KeyMatchers.get();
+        int numPairs = (PageFile.pageSize(unsortedFile) / RECORD_SIZE_KEY_PAIR) - 1;
+        byte[] page = bufferPool.readPage(unsortedFile, 0);
+        for (int pageNo = 1; page != null; pageNo++) {
+            PAGE_READS.increment();
+            int pair = keyMatcher.indexOfPairKey(page, numPairs, targetKey);
+            if (pair != -1) {
+                return KeyMatcher.intAt(page, pair * RECORD_SIZE_KEY_PAIR + Integer.BYTES);
+            }
+            page = bufferPool.readPage(unsortedFile, pageNo);
+        }
+        return -1;
+    }
+
+    /**
+     * This method performs a search on the file with the usorted pairs behind the Bloom filter of
+     * the dataPair file. A key that the filter rejects is surely not in the file, so -1 is returned
+     * without reading a page and the search of the data page that follows reads nothing either.
+     *
+     * @param targetKey : The key tht we are intrested.
+     * @param unsortedFile :The file that we need to perform the search.
+     * @param bufferPool : The pool that serves the pages, or null to read them from the file.
+     * @param bloomFilter : The filter of the keys of the dataPair file, or null to scan for every key.
+     * @return If it successful it returns the dataPage.If not and we reach the end of the file -1.
+     * @throws IOException
+     */
+    public static int searchInUnsortedFile(int targetKey, RandomAccessFile unsortedFile, BufferPool bufferPool,
+            BloomFilter bloomFilter) throws IOException {
+        if (bloomFilter != null && !bloomFilter.mightContain(targetKey)) {
             return -1;
         }
+        if (bufferPool != null) {
+            return searchInUnsortedFile(targetKey, unsortedFile, bufferPool);
+        }
+        return searchInUnsortedFile(targetKey, unsortedFile);
+    }
     }
\ No newline at end of file
@@ -8,6 +8,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import org.tuc.dataClass.DataClass;
+import org.tuc.metrics.Metrics;
 
 public class Clear {
 
@@ -17,6 +18,24 @@ public class Clear {
         throw new IllegalArgumentException("Utility class");
     }
 
+    /**
+     * Performs the clearing and deletion operations, together with the files of the hash index.
+     *
+     * @param dataPairFile     The dataFile to close and delete.
+     * @param unsortedFile     The unsortedFile to close and delete.
+     * @param sortedFile       The sorted file to close and delete.
+     * @param hashFile         The primary file of the hash index to close and delete.
+     * @param hashOverflowFile The overflow file of the hash index to close and delete.
+     * @throws IOException if any I/O error occurs.
+     */
+    public static void clearAndDeleteFiles(RandomAccessFile dataPairFile, RandomAccessFile unsortedFile,
+                                           RandomAccessFile sortedFile, RandomAccessFile hashFile,
+                                           RandomAccessFile hashOverflowFile) throws IOException {
+        hashFile.close();
+        hashOverflowFile.close();
+        clearAndDeleteFiles(dataPairFile, unsortedFile, sortedFile);
+    }
+
     /**
      * Performs the clearing and deletion operations.
      *
@@ -28,10 +47,8 @@ public class Clear {
     public static void clearAndDeleteFiles(RandomAccessFile dataPairFile, RandomAccessFile unsortedFile,
                                            RandomAccessFile sortedFile) throws IOException {
 
-    	//reset the counters
-    	MultiCounter.resetCounter(1);
-    	MultiCounter.resetCounter(2);
-    	MultiCounter.resetCounter(3);
+    	//reset the counters and the latency histograms
+    	Metrics.reset();
     	
     	
         // Close the files before we delete them.
@@ -41,14 +58,14 @@ public class Clear {
 
         DataClass.uniqueKeys.clear();
         DataClass.duplicateKeys.clear();
-        DataClass.dataPairs.clear();
         ReadFile.keyPairList.clear();
 
         // Delete the files
         Path[] filePaths = {
             Paths.get("UnsortedKeys.ser"),
             Paths.get("SortedKeys.ser"),
-            Paths.get("DataPair.ser")
+            Paths.get("DataPair.ser"),
+            Paths.get(WriteFile.ZONE_MAP_FILE_NAME)
         };
 
         Path defaultPath = Paths.get(System.getProperty("user.dir"));
@@ -62,5 +79,11 @@ public class Clear {
                 System.err.println(e);
             }
         }
+
+        // The hash index is written with the other files but not every caller opens it,
+        // and the Bloom filter sidecar exists only when the tests run with a filter
+        Files.deleteIfExists(defaultPath.resolve(WriteFile.HASH_KEYS_FILE_NAME));
+        Files.deleteIfExists(defaultPath.resolve(WriteFile.HASH_OVERFLOW_FILE_NAME));
+        Files.deleteIfExists(defaultPath.resolve(WriteFile.BLOOM_FILTER_FILE_NAME));
     }
 }
\ No newline at end of file
@@ -2,25 +2,79 @@ package org.tuc.utils;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
-import org.tuc.dataClass.DataClass;
-import org.tuc.dataClass.DataPair;
-import org.tuc.dataClass.DataPagePair;
+import org.tuc.dataClass.DataPairGenerator;
 
 /**
  * This utility class is responsible for creating the necessary files for test scenarios.
- * It creates dataPairs, sortedKeys, and unsortedKeys files for testing purposes.
+ * It creates dataPairs, sortedKeys, unsortedKeys, hash index and zone map files for testing purposes.
  */
 public class CreateFiles {
 
-    private static final boolean UNSORTED = false;
-    private static final boolean SORTED = true;
-
     private CreateFiles() {
         throw new IllegalStateException("Utility class");
     }
 
+    /**
+     * The settings of the files of a test beyond the records themselves. Every setting has the
+     * default of the plain test files, so a caller only sets the ones it changes, e.g.
+     * {@code new CreateFiles.Options().pageSize(4096).slotted(true)}.
+     */
+    public static final class Options {
+
+        private double bloomFalsePositiveRate;
+        private boolean clustered;
+        private int pageSize = WriteFile.DATA_PAGE_SIZE;
+        private boolean slotted;
+        private boolean variableStrings;
+
+        /**
+         * @param bloomFalsePositiveRate The false positive rate of the Bloom filter sidecar, 0 (the default) for no filter.
+         * @return These options.
+         */
+        public Options bloomFalsePositiveRate(double bloomFalsePositiveRate) {
+            this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+            return this;
+        }
+
+        /**
+         * @param clustered Whether the data pairs are written in key order instead of generation order.
+         * @return These options.
+         */
+        public Options clustered(boolean clustered) {
+            this.clustered = clustered;
+            return this;
+        }
+
+        /**
+         * @param pageSize The page size of the data pair file and the key files, {@value WriteFile#DATA_PAGE_SIZE} by default.
+         * @return These options.
+         */
+        public Options pageSize(int pageSize) {
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * @param slotted Whether the data pages have the slotted layout instead of fixed size records.
+         * @return These options.
+         */
+        public Options slotted(boolean slotted) {
+            this.slotted = slotted;
+            return this;
+        }
+
+        /**
+         * @param variableStrings Whether every string has a random length from 1 to stringLength.
+         * @return These options.
+         */
+        public Options variableStrings(boolean variableStrings) {
+            this.variableStrings = variableStrings;
+            return this;
+        }
+    }
+
     /**
      * Creates the necessary files for testing.
      * 
@@ -32,14 +86,44 @@ public class CreateFiles {
      * @throws IOException If an I/O error occurs during file operations.
      */
     public static void createTestFiles(int numOfRecords, int stringLength, int minValue, int maxValue, RandomAccessFile dataPairFile) throws IOException {
-        List<DataPair> dataPair = DataClass.generateDataPairs(numOfRecords, stringLength, minValue, maxValue);
-        WriteFile.writeDataPairs(dataPair);
-        
-        List<DataPagePair> keyPairList = ReadFile.readDataPairs(stringLength, dataPairFile);
-        
-        WriteFile.writeKeys(keyPairList, UNSORTED); // Write the keys as unsorted
-        WriteFile.writeKeys(keyPairList, SORTED);   // Write the keys as sorted
+        createTestFiles(numOfRecords, stringLength, minValue, maxValue, dataPairFile, new Options());
+    }
+
+    /**
+     * Creates the necessary files for testing with the given options. The page size is kept in the
+     * header page of the data pair file and of every key file, and the searches find the layout of
+     * every data page in the page itself (see {@link DataPage}), so they read any of these files.
+     * 
+     * @param numOfRecords Number of records to generate.
+     * @param stringLength Length of the string (can be 55 or 27), the longest length with variable strings.
+     * @param minValue The lowest valid value that the key must be.
+     * @param maxValue The highest (included) value that the key cannot exceed.
+     * @param dataPairFile RandomAccessFile to write data pairs.
+     * @param options The page size, the layout and the sidecar files of the test.
+     * @throws IOException If an I/O error occurs during file operations.
+     */
+    public static void createTestFiles(int numOfRecords, int stringLength, int minValue, int maxValue, RandomAccessFile dataPairFile,
+            Options options) throws IOException {
+        int pageSize = options.pageSize;
+        // The records are written as they are generated. Clustered, they come in key order, so
+        // every page gets a narrow range of keys and the zone map can skip most of them
+        DataPairGenerator generator = new DataPairGenerator(numOfRecords, stringLength, minValue, maxValue, options.clustered,
+                ThreadLocalRandom.current().nextLong(), options.variableStrings);
+        if (options.slotted) {
+            WriteFile.writeSlottedDataPairs(generator, pageSize);
+        } else {
+            WriteFile.writeDataPairs(generator, pageSize);
+        }
         
-        keyPairList.clear();
+        // Every index is built from the data pair file, read again page by page for each one,
+        // so no index keeps the pairs of all the records in memory
+        WriteFile.writeUnsortedKeys(dataPairFile, stringLength, pageSize); // Write the keys as unsorted
+        // Write the keys as sorted, with an external sort that spills runs beyond its memory budget
+        WriteFile.writeSortedKeys(dataPairFile, stringLength, pageSize, ExternalSort.DEFAULT_MEMORY_BUDGET);
+        WriteFile.writeHashKeys(dataPairFile, stringLength, pageSize);      // Write the keys in the hash index
+        WriteFile.writeZoneMap(dataPairFile, stringLength);                // Write the key range of every data page
+        if (options.bloomFalsePositiveRate > 0) {
+            WriteFile.writeBloomFilter(dataPairFile, stringLength, numOfRecords, options.bloomFalsePositiveRate);
+        }
     }
 }
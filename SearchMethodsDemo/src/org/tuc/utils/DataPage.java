@@ -0,0 +1,220 @@
+package org.tuc.utils;
+
+import java.nio.ByteBuffer;
+
+import org.tuc.keyMatcher.KeyMatcher;
+import org.tuc.keyMatcher.KeyMatchers;
+
+/**
+ * The two layouts of a page of the dataPair file, and the code that finds the records in both,
+ * so a search reads either one without knowing which layout the file has.
+ *
+ * <p>Fixed: records of Integer.BYTES + stringLength bytes from the start of the page, a key
+ * followed by its string. The reader must be told stringLength, and the end of the page that
+ * cannot hold a whole record is padding.
+ *
+ * <p>Slotted: the keys of the records, one int each, from the start of the page, then their
+ * strings one after the other, and at the end of the page the slot directory:
+ * <pre>
+ * [key 0 .. key n-1][string 0 .. string n-1][free space][end 0 .. end n-1][n][MAGIC]
+ * </pre>
+ * where end i is the offset in the page after string i (a short each), n is the number of
+ * records (a short) and {@link #SLOTTED_MAGIC} marks the page as slotted. String i starts where
+ * string i - 1 ends, the first one after the keys, so the strings may have any length and the
+ * page describes its own records. The keys stay together, so the key kernels of
+ * {@link KeyMatcher} search them with a stride of one int.
+ *
+ * <p>A record costs two bytes more than a fixed one (its end offset) and a page four (n and the
+ * magic), so with strings of one length the slotted layout holds at most as many records per
+ * page as the fixed one. It is denser when the strings have different lengths, since the fixed
+ * layout must give every record the length of the longest string.
+ *
+ * <p>The last two bytes of a fixed page are never the magic: a page always ends with at least
+ * one byte of padding, a zero or a space, and the strings are ASCII.
+ */
+public class DataPage {
+
+    /**
+     * The last short of a slotted page.
+     */
+    public static final short SLOTTED_MAGIC = (short) 0xA55A;
+
+    /**
+     * The bytes of the number of records and of the magic at the end of a slotted page.
+     */
+    public static final int SLOTTED_TRAILER_BYTES = Short.BYTES * 2;
+
+    /**
+     * The bytes of the directory of a slotted page for every record: its key and its end offset.
+     */
+    public static final int SLOT_BYTES = Integer.BYTES + Short.BYTES;
+
+    /**
+     * The largest slotted page, since the offsets in the page are unsigned shorts.
+     */
+    public static final int MAX_SLOTTED_PAGE_SIZE = 1 << 16;
+
+    //This class should not be instantiated
+    private DataPage() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param page   the bytes of the page
+     * @param length the number of valid bytes in the page, the page size for a whole page
+     * @return true if the page has the slotted layout
+     */
+    public static boolean isSlotted(byte[] page, int length) {
+        return length >= SLOTTED_TRAILER_BYTES
+                && (short) (((page[length - 2] & 0xFF) << 8) | (page[length - 1] & 0xFF)) == SLOTTED_MAGIC;
+    }
+
+    /**
+     * @param buffer     the bytes of the file, e.g. a mapped file
+     * @param pageOffset the position of the page in the buffer
+     * @param length     the number of valid bytes in the page
+     * @return true if the page has the slotted layout
+     */
+    public static boolean isSlotted(ByteBuffer buffer, int pageOffset, int length) {
+        return length >= SLOTTED_TRAILER_BYTES && buffer.getShort(pageOffset + length - Short.BYTES) == SLOTTED_MAGIC;
+    }
+
+    /**
+     * Returns the number of records of a page. For a fixed page it is the number of whole records in
+     * length, so the padding after the last one may be counted as records too, like the readers always did.
+     *
+     * @param page       the bytes of the page
+     * @param length     the number of valid bytes in the page
+     * @param recordSize the size of a fixed record (Integer.BYTES + stringLength)
+     * @return the number of records
+     */
+    public static int recordCount(byte[] page, int length, int recordSize) {
+        if (isSlotted(page, length)) {
+            return ((page[length - 4] & 0xFF) << 8) | (page[length - 3] & 0xFF);
+        }
+        return length / recordSize;
+    }
+
+    /**
+     * Same as {@link #recordCount(byte[], int, int)} for a page inside a buffer.
+     *
+     * @param buffer     the bytes of the file, e.g. a mapped file
+     * @param pageOffset the position of the page in the buffer
+     * @param length     the number of valid bytes in the page
+     * @param recordSize the size of a fixed record (Integer.BYTES + stringLength)
+     * @return the number of records
+     */
+    public static int recordCount(ByteBuffer buffer, int pageOffset, int length, int recordSize) {
+        if (isSlotted(buffer, pageOffset, length)) {
+            return Short.toUnsignedInt(buffer.getShort(pageOffset + length - SLOTTED_TRAILER_BYTES));
+        }
+        return length / recordSize;
+    }
+
+    /**
+     * Returns the distance between two keys of a page: key i is at i * stride from the start of the page.
+     *
+     * @param page       the bytes of the page
+     * @param length     the number of valid bytes in the page
+     * @param recordSize the size of a fixed record (Integer.BYTES + stringLength)
+     * @return one int for a slotted page, recordSize for a fixed one
+     */
+    public static int keyStride(byte[] page, int length, int recordSize) {
+        return isSlotted(page, length) ? Integer.BYTES : recordSize;
+    }
+
+    /**
+     * Same as {@link #keyStride(byte[], int, int)} for a page inside a buffer.
+     *
+     * @param buffer     the bytes of the file, e.g. a mapped file
+     * @param pageOffset the position of the page in the buffer
+     * @param length     the number of valid bytes in the page
+     * @param recordSize the size of a fixed record (Integer.BYTES + stringLength)
+     * @return one int for a slotted page, recordSize for a fixed one
+     */
+    public static int keyStride(ByteBuffer buffer, int pageOffset, int length, int recordSize) {
+        return isSlotted(buffer, pageOffset, length) ? Integer.BYTES : recordSize;
+    }
+
+    /**
+     * Finds the key in a page of either layout with the kernel of {@link KeyMatchers#get()}.
+     *
+     * @param page       the bytes of the page
+     * @param length     the number of valid bytes in the page
+     * @param recordSize the size of a fixed record (Integer.BYTES + stringLength), not used for a slotted page
+     * @param targetKey  the key we are looking for
+     * @return the index of the record with the key, or -1 if the page does not contain it
+     */
+    public static int indexOfKey(byte[] page, int length, int recordSize, int targetKey) {
+        if (isSlotted(page, length)) {
+            return KeyMatchers.get().indexOfKey(page, recordCount(page, length, recordSize) * Integer.BYTES,
+                    Integer.BYTES, targetKey);
+        }
+        return KeyMatchers.get().indexOfKey(page, length, recordSize, targetKey);
+    }
+
+    /**
+     * @param page   the bytes of a slotted page
+     * @param length the page size
+     * @param index  the index of a record
+     * @return the offset in the page of the first byte of the string of the record
+     */
+    public static int stringStart(byte[] page, int length, int index) {
+        return index == 0 ? recordCount(page, length, 0) * Integer.BYTES : stringEnd(page, length, index - 1);
+    }
+
+    /**
+     * @param page   the bytes of a slotted page
+     * @param length the page size
+     * @param index  the index of a record
+     * @return the offset in the page after the last byte of the string of the record
+     */
+    public static int stringEnd(byte[] page, int length, int index) {
+        int records = recordCount(page, length, 0);
+        int slot = length - SLOTTED_TRAILER_BYTES - (records - index) * Short.BYTES;
+        return ((page[slot] & 0xFF) << 8) | (page[slot + 1] & 0xFF);
+    }
+
+    /**
+     * @param records     the records of a page
+     * @param stringBytes the bytes of all their strings
+     * @return the bytes of a slotted page with these records
+     */
+    public static int slottedBytes(int records, int stringBytes) {
+        return records * SLOT_BYTES + stringBytes + SLOTTED_TRAILER_BYTES;
+    }
+
+    /**
+     * Writes a slotted page.
+     *
+     * @param destination the buffer to write to, e.g. a block of pages
+     * @param pageOffset  the position of the page in the buffer
+     * @param pageSize    the page size, at most {@link #MAX_SLOTTED_PAGE_SIZE}
+     * @param keys        the keys of the records
+     * @param strings     the strings of the records one after the other
+     * @param stringEnds  the end of every string in strings
+     * @param records     the number of records, their {@link #slottedBytes} must fit in the page
+     */
+    public static void writeSlotted(ByteBuffer destination, int pageOffset, int pageSize, int[] keys, byte[] strings,
+            int[] stringEnds, int records) {
+        int keyBytes = records * Integer.BYTES;
+        int stringBytes = records == 0 ? 0 : stringEnds[records - 1];
+        if (slottedBytes(records, stringBytes) > pageSize) {
+            throw new IllegalArgumentException(records + " records with " + stringBytes
+                    + " bytes of strings do not fit in a page of " + pageSize + " bytes");
+        }
+        for (int i = 0; i < records; i++) {
+            destination.putInt(pageOffset + i * Integer.BYTES, keys[i]);
+        }
+        destination.put(pageOffset + keyBytes, strings, 0, stringBytes);
+        int directory = pageOffset + pageSize - SLOTTED_TRAILER_BYTES - records * Short.BYTES;
+        for (int position = pageOffset + keyBytes + stringBytes; position < directory; position++) {
+            destination.put(position, (byte) 0);
+        }
+        for (int i = 0; i < records; i++) {
+            destination.putShort(directory + i * Short.BYTES, (short) (keyBytes + stringEnds[i]));
+        }
+        destination.putShort(pageOffset + pageSize - SLOTTED_TRAILER_BYTES, (short) records);
+        destination.putShort(pageOffset + pageSize - Short.BYTES, SLOTTED_MAGIC);
+    }
+}
@@ -0,0 +1,357 @@
+package org.tuc.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.tuc.dataClass.KeyPagePairs;
+import org.tuc.keyMatcher.KeyMatcher;
+
+/**
+ * Builds the sorted keys file with an external merge sort, so the number of keys is not limited
+ * by the heap. The pairs key-DataPage are packed in longs (the key in the high half, the page in
+ * the low half) and collected in a primitive array that grows up to a fixed memory budget. Every
+ * time the array is full it is sorted and written as a run in a temporary file of java.io.tmpdir.
+ * The runs are then merged k at a time, with a buffer of {@value #MERGE_BUFFER_BYTES} bytes each,
+ * until one merge writes the pages of the sorted file. When all the pairs fit in the budget no run
+ * is written, and the sort is one dual-pivot quicksort of the longs.
+ *
+ * <p>A long orders the pairs by key and then by page, the order in which a stable sort of the pairs
+ * of the dataPair file leaves them, so the file is the same as the one of
+ * {@link WriteFile#writeKeys(List, boolean, int)}.
+ */
+public class ExternalSort {
+
+    /**
+     * The memory budget of a sort when none is given. Change it with -DexternalSort.memory=268435456
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = Long.getLong("externalSort.memory", 64L * 1024 * 1024);
+
+    // The pairs of the array of the first pass before it grows
+    private static final int INITIAL_RUN_CAPACITY = 1024;
+
+    // The read buffer of every run during a merge
+    private static final int MERGE_BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * A stream of pairs key-DataPage packed with {@link ExternalSort#pack(int, int)}.
+     */
+    public interface PairSource {
+
+        /**
+         * @return true if there is one more pair
+         * @throws IOException if an I/O error occurs while reading the pairs
+         */
+        boolean hasNext() throws IOException;
+
+        /**
+         * @return the next pair
+         * @throws IOException if an I/O error occurs while reading the pairs
+         */
+        long next() throws IOException;
+    }
+
+    //This class should not be instantiated
+    private ExternalSort() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param key      the key
+     * @param dataPage the page of the dataPair file with the key
+     * @return the pair in one long, which sorts by key and then by page
+     */
+    public static long pack(int key, int dataPage) {
+        return ((long) key << 32) | (dataPage & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param pair a packed pair
+     * @return the key of the pair
+     */
+    public static int keyOf(long pair) {
+        return (int) (pair >> 32);
+    }
+
+    /**
+     * @param pair a packed pair
+     * @return the data page of the pair
+     */
+    public static int dataPageOf(long pair) {
+        return (int) pair;
+    }
+
+    /**
+     * Reads the keys of the dataPair file page by page, without keeping them in memory.
+     * The padding of the last page is not a key and is left out.
+     *
+     * @param dataPairFile the dataPair file
+     * @param stringLength the length of the string of a record, 55 or 27
+     * @return the pairs of the file in page order
+     * @throws IOException if the file has no page header
+     */
+    public static PairSource dataPairSource(RandomAccessFile dataPairFile, int stringLength) throws IOException {
+        int pageSize = PageFile.pageSize(dataPairFile);
+        int recordSize = Integer.BYTES + stringLength;
+        byte[] page = new byte[pageSize];
+        return new PairSource() {
+            private int pageNo = -1;
+            private int records;
+            private int keyStride;
+            private int record;
+            private long nextPair;
+            private boolean ready;
+
+            @Override
+            public boolean hasNext() throws IOException {
+                while (!ready) {
+                    if (record == records) {
+                        pageNo++;
+                        dataPairFile.seek(PageFile.offsetOf(dataPairFile, pageNo));
+                        int bytesRead = dataPairFile.read(page);
+                        if (bytesRead == -1) {
+                            return false;
+                        }
+                        records = DataPage.recordCount(page, bytesRead, recordSize);
+                        keyStride = DataPage.keyStride(page, bytesRead, recordSize);
+                        record = 0;
+                        continue;
+                    }
+                    int key = KeyMatcher.intAt(page, record++ * keyStride);
+                    if (key != KeyMatcher.END_CHARACTER) {
+                        nextPair = pack(key, pageNo);
+                        ready = true;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public long next() throws IOException {
+                if (!hasNext()) {
+                    throw new EOFException("No more pairs in the dataPair file");
+                }
+                ready = false;
+                return nextPair;
+            }
+        };
+    }
+
+    /**
+     * Reads the pairs of the arrays in their order.
+     *
+     * @param keyPairs the pairs key-DataPage
+     * @return the pairs packed with {@link #pack(int, int)}
+     */
+    public static PairSource pairSource(KeyPagePairs keyPairs) {
+        return new PairSource() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < keyPairs.size();
+            }
+
+            @Override
+            public long next() throws IOException {
+                if (!hasNext()) {
+                    throw new EOFException("No more pairs in the arrays");
+                }
+                int pair = next++;
+                return pack(keyPairs.getKey(pair), keyPairs.getDataPage(pair));
+            }
+        };
+    }
+
+    /**
+     * Sorts the pairs of the source into the sorted keys file, with pages of the given size after
+     * the header page.
+     *
+     * @param source       the pairs to sort
+     * @param sortedFile   the file to write, its old content is replaced
+     * @param pageSize     the size of an index page
+     * @param memoryBudget the bytes that the sort may use for pairs and buffers
+     * @return the number of pairs written
+     * @throws IOException if an I/O error occurs while reading the pairs or writing the files
+     */
+    public static long sort(PairSource source, RandomAccessFile sortedFile, int pageSize, long memoryBudget) throws IOException {
+        int runCapacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1024, memoryBudget / Long.BYTES));
+        int fanIn = (int) Math.max(2, memoryBudget / MERGE_BUFFER_BYTES - 1);
+        // every temporary file is in one of the two lists as soon as it is created, so the finally
+        // deletes the runs of a pass that failed, even the one that was being written
+        List<Path> runs = new ArrayList<>();
+        List<Path> merged = new ArrayList<>();
+        try {
+            // The first pass: sorted runs of runCapacity pairs
+            // the array grows up to runCapacity, so a small source does not take the whole budget
+            long[] pairs = new long[Math.min(runCapacity, INITIAL_RUN_CAPACITY)];
+            long total = 0;
+            int count = 0;
+            while (source.hasNext()) {
+                if (count == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, (int) Math.min(runCapacity, (long) pairs.length * 2));
+                }
+                pairs[count++] = source.next();
+                if (count == runCapacity) {
+                    writeRun(pairs, count, runs);
+                    total += count;
+                    count = 0;
+                }
+            }
+            total += count;
+
+            sortedFile.setLength(0);
+            PageFile.writeHeader(sortedFile, pageSize);
+            KeyPageWriter writer = new KeyPageWriter(sortedFile, pageSize);
+            if (runs.isEmpty()) {
+                // everything fit in memory, no run is written
+                Arrays.sort(pairs, 0, count);
+                for (int i = 0; i < count; i++) {
+                    writer.add(keyOf(pairs[i]), dataPageOf(pairs[i]));
+                }
+                writer.finish();
+                return total;
+            }
+            if (count > 0) {
+                writeRun(pairs, count, runs);
+            }
+            pairs = null; // the merges use the memory of the array for their buffers
+
+            // The merge passes, until the runs fit in one merge
+            while (runs.size() > fanIn) {
+                for (int first = 0; first < runs.size(); first += fanIn) {
+                    List<Path> group = runs.subList(first, Math.min(first + fanIn, runs.size()));
+                    Path run = Files.createTempFile("SortedKeys", ".run");
+                    merged.add(run);
+                    try (DataOutputStream out = new DataOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(run), MERGE_BUFFER_BYTES))) {
+                        merge(group, out::writeLong);
+                    }
+                    deleteRuns(group);
+                }
+                runs = merged;
+                merged = new ArrayList<>();
+            }
+            merge(runs, pair -> writer.add(keyOf(pair), dataPageOf(pair)));
+            writer.finish();
+            return total;
+        } finally {
+            deleteRuns(runs);
+            deleteRuns(merged);
+        }
+    }
+
+    // Sorts the pairs and writes them in a new run, which is added to the runs before it is written
+    private static void writeRun(long[] pairs, int count, List<Path> runs) throws IOException {
+        Arrays.sort(pairs, 0, count);
+        Path run = Files.createTempFile("SortedKeys", ".run");
+        runs.add(run);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), MERGE_BUFFER_BYTES))) {
+            for (int i = 0; i < count; i++) {
+                out.writeLong(pairs[i]);
+            }
+        }
+    }
+
+    /**
+     * A consumer of pairs that may fail with an IOException.
+     */
+    @FunctionalInterface
+    private interface PairSink {
+        void accept(long pair) throws IOException;
+    }
+
+    /**
+     * Merges sorted runs with a binary heap of the runs, ordered by their next pair.
+     */
+    private static void merge(List<Path> runs, PairSink sink) throws IOException {
+        int k = runs.size();
+        DataInputStream[] inputs = new DataInputStream[k];
+        long[] heads = new long[k];
+        int[] heap = new int[k];
+        int size = 0;
+        try {
+            for (int run = 0; run < k; run++) {
+                inputs[run] = new DataInputStream(new BufferedInputStream(Files.newInputStream(runs.get(run)), MERGE_BUFFER_BYTES));
+                if (readNext(inputs[run], heads, run)) {
+                    heap[size++] = run;
+                    siftUp(heap, heads, size - 1);
+                }
+            }
+            while (size > 0) {
+                int run = heap[0];
+                sink.accept(heads[run]);
+                if (!readNext(inputs[run], heads, run)) {
+                    heap[0] = heap[--size];
+                }
+                siftDown(heap, heads, size);
+            }
+        } finally {
+            for (DataInputStream input : inputs) {
+                if (input != null) {
+                    input.close();
+                }
+            }
+        }
+    }
+
+    private static boolean readNext(DataInputStream input, long[] heads, int run) throws IOException {
+        try {
+            heads[run] = input.readLong();
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private static void siftUp(int[] heap, long[] heads, int index) {
+        int run = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heads[heap[parent]] <= heads[run]) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = run;
+    }
+
+    private static void siftDown(int[] heap, long[] heads, int size) {
+        if (size == 0) {
+            return;
+        }
+        int index = 0;
+        int run = heap[0];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heads[heap[child + 1]] < heads[heap[child]]) {
+                child++;
+            }
+            if (heads[run] <= heads[heap[child]]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = run;
+    }
+
+    private static void deleteRuns(List<Path> runs) throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+    }
+}
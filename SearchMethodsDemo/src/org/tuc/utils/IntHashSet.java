@@ -0,0 +1,106 @@
+package org.tuc.utils;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive ints with open addressing and linear probing, so no key is boxed.
+ * Every key gets a slot number in [0, capacity()) that does not change, which lets the
+ * caller keep extra data per key in a plain array indexed by the slot.
+ */
+public class IntHashSet {
+
+	// The table is never more than half full, so the probe sequences stay short
+	private static final int LOAD_FACTOR_INVERSE = 2;
+
+	private final int[] table;
+	private final boolean[] used;
+	private final int mask;
+	private int size;
+
+	/**
+	 * Creates a set that can hold up to expectedKeys keys.
+	 *
+	 * @param expectedKeys the maximum number of keys that will be added
+	 */
+	public IntHashSet(int expectedKeys) {
+		int capacity = Integer.highestOneBit(Math.max(1, expectedKeys * LOAD_FACTOR_INVERSE - 1)) << 1;
+		this.table = new int[capacity];
+		this.used = new boolean[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Adds the key to the set if it is not there yet.
+	 *
+	 * @param key the key to add
+	 * @return the slot of the key
+	 * @throws IllegalStateException if the set is full
+	 */
+	public int add(int key) {
+		int slot = hash(key) & mask;
+		for (int probes = 0; probes < table.length; probes++) {
+			if (!used[slot]) {
+				used[slot] = true;
+				table[slot] = key;
+				size++;
+				return slot;
+			}
+			if (table[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		throw new IllegalStateException("The set is full");
+	}
+
+	/**
+	 * @param key the key to look for
+	 * @return the slot of the key, or -1 if the key is not in the set
+	 */
+	public int slotOf(int key) {
+		int slot = hash(key) & mask;
+		while (used[slot]) {
+			if (table[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param key the key to look for
+	 * @return true if the key is in the set
+	 */
+	public boolean contains(int key) {
+		return slotOf(key) != -1;
+	}
+
+	/**
+	 * @return the number of distinct keys in the set
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of slots, every slot returned by {@link #add(int)} is smaller than it
+	 */
+	public int capacity() {
+		return table.length;
+	}
+
+	/**
+	 * Removes all the keys.
+	 */
+	public void clear() {
+		Arrays.fill(used, false);
+		size = 0;
+	}
+
+	// Spreads the bits of the key, so keys close to each other do not end up in neighbour slots
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
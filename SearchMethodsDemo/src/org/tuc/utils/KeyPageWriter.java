@@ -0,0 +1,61 @@
+package org.tuc.utils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.tuc.keyMatcher.KeyMatcher;
+
+/**
+ * Writes pairs key-DataPage in the pages of a key file like {@link WriteFile#writeKeys(List, boolean, int)}:
+ * a page holds pageSize / 8 - 1 pairs, a full page ends with zeros and the last page is filled with
+ * spaces, so its padding reads as {@link KeyMatcher#END_CHARACTER}. The pages are collected in a
+ * block and written at the position of the file, after its header page.
+ */
+final class KeyPageWriter {
+
+    private static final int RECORD_SIZE_KEY_PAIR = Integer.BYTES * 2;
+
+    // The bytes of pages that are collected before one write
+    private static final int WRITE_BLOCK_SIZE = 256 * 1024;
+
+    private final RandomAccessFile file;
+    private final ByteBuffer block;
+    private final int pageSize;
+    private final int pairsPerPage;
+    private int pageStart;
+    private int count;
+
+    KeyPageWriter(RandomAccessFile file, int pageSize) {
+        this.file = file;
+        this.block = ByteBuffer.allocate(Math.max(1, WRITE_BLOCK_SIZE / pageSize) * pageSize);
+        this.pageSize = pageSize;
+        this.pairsPerPage = pageSize / RECORD_SIZE_KEY_PAIR - 1;
+    }
+
+    void add(int key, int dataPage) throws IOException {
+        if (count == pairsPerPage) {
+            // a page is closed only when the next pair does not fit, so the last page is always padded with spaces
+            Arrays.fill(block.array(), block.position(), pageStart + pageSize, (byte) 0);
+            pageStart += pageSize;
+            if (pageStart == block.capacity()) {
+                file.write(block.array());
+                pageStart = 0;
+            }
+            block.position(pageStart);
+            count = 0;
+        }
+        block.putInt(key);
+        block.putInt(dataPage);
+        count++;
+    }
+
+    void finish() throws IOException {
+        if (count > 0) {
+            Arrays.fill(block.array(), block.position(), pageStart + pageSize, (byte) ' ');
+            file.write(block.array(), 0, pageStart + pageSize);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.tuc.utils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A paged file mapped in memory (read only). One {@link MappedByteBuffer} has int positions and
+ * maps at most 2 GB, so a larger file is mapped in chunks of whole pages: a page never spans two
+ * chunks, and the page is found from its number with long arithmetic.
+ *
+ * <p>The file must already be written, since every mapping has a fixed size.
+ */
+public final class MappedPageFile {
+
+    private final MappedByteBuffer[] chunks;
+    private final int pageSize;
+    private final int pagesPerChunk;
+    private final long length;
+    private final int pageCount;
+
+    private MappedPageFile(MappedByteBuffer[] chunks, int pageSize, int pagesPerChunk, long length) {
+        this.chunks = chunks;
+        this.pageSize = pageSize;
+        this.pagesPerChunk = pagesPerChunk;
+        this.length = length;
+        this.pageCount = (int) Math.max(0, (length + pageSize - 1) / pageSize - 1);
+    }
+
+    /**
+     * Maps the whole file, in as many chunks as it needs.
+     *
+     * @param file the paged file, with its header page
+     * @return the mapping of the file
+     * @throws IOException if the file has no page header or cannot be mapped
+     */
+    public static MappedPageFile map(RandomAccessFile file) throws IOException {
+        return map(file, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Maps the whole file in chunks of at most maxChunkBytes, rounded down to whole pages.
+     *
+     * @param file          the paged file, with its header page
+     * @param maxChunkBytes the largest mapping, at least one page
+     * @return the mapping of the file
+     * @throws IOException if the file has no page header or cannot be mapped
+     */
+    static MappedPageFile map(RandomAccessFile file, int maxChunkBytes) throws IOException {
+        int pageSize = PageFile.pageSize(file);
+        int pagesPerChunk = maxChunkBytes / pageSize;
+        if (pagesPerChunk == 0) {
+            throw new IllegalArgumentException("A chunk of " + maxChunkBytes + " bytes cannot hold a page of " + pageSize + " bytes");
+        }
+        long chunkBytes = (long) pagesPerChunk * pageSize;
+        long length = file.length();
+        FileChannel channel = file.getChannel();
+        MappedByteBuffer[] chunks = new MappedByteBuffer[(int) Math.max(1, (length + chunkBytes - 1) / chunkBytes)];
+        for (int i = 0; i < chunks.length; i++) {
+            long position = i * chunkBytes;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.max(0, Math.min(chunkBytes, length - position)));
+        }
+        return new MappedPageFile(chunks, pageSize, pagesPerChunk, length);
+    }
+
+    /**
+     * @return the page size stored in the header of the file
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return the number of pages after the header
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * @param pageNo the number of the page, 0 is the first page after the header
+     * @return the chunk that holds the page, read it from {@link #positionOf(int)}
+     */
+    public ByteBuffer chunkOf(int pageNo) {
+        return chunks[(int) (((long) pageNo + 1) / pagesPerChunk)];
+    }
+
+    /**
+     * @param pageNo the number of the page, 0 is the first page after the header
+     * @return the position of the page in its chunk
+     */
+    public int positionOf(int pageNo) {
+        return (int) (((long) pageNo + 1) % pagesPerChunk) * pageSize;
+    }
+
+    /**
+     * @param pageNo the number of the page, 0 is the first page after the header
+     * @return the bytes of the page in the file, less than the page size only for a cut last page
+     */
+    public int lengthOf(int pageNo) {
+        return (int) Math.min(pageSize, length - ((long) pageNo + 1) * pageSize);
+    }
+}
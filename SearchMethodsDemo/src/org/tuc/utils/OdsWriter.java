@@ -0,0 +1,108 @@
+package org.tuc.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes a table to an OpenDocument spreadsheet (.ods) with one sheet, which LibreOffice, Excel
+ * and Google Sheets open. An .ods file is a zip archive: the entry {@code mimetype} comes first
+ * and uncompressed, then the manifest and the cells in {@code content.xml}. Numbers are written
+ * as numbers, so the sheet can sort and chart them.
+ */
+public class OdsWriter {
+
+    private static final String MIME_TYPE = "application/vnd.oasis.opendocument.spreadsheet";
+
+    private static final String MANIFEST = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<manifest:manifest xmlns:manifest=\"urn:oasis:names:tc:opendocument:xmlns:manifest:1.0\" manifest:version=\"1.2\">\n"
+            + " <manifest:file-entry manifest:full-path=\"/\" manifest:version=\"1.2\" manifest:media-type=\"" + MIME_TYPE + "\"/>\n"
+            + " <manifest:file-entry manifest:full-path=\"content.xml\" manifest:media-type=\"text/xml\"/>\n"
+            + "</manifest:manifest>\n";
+
+    private OdsWriter() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Writes the table, the header in the first row.
+     *
+     * @param file      The .ods file, replaced if it exists.
+     * @param sheetName The name of the sheet.
+     * @param header    The names of the columns.
+     * @param rows      The rows, each value a {@link Number}, a String or null for an empty cell.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path file, String sheetName, List<String> header, List<Object[]> rows) throws IOException {
+        try (OutputStream output = Files.newOutputStream(file);
+             ZipOutputStream zip = new ZipOutputStream(output)) {
+            // The mimetype must be the first entry and stored, so readers find it at a fixed offset
+            byte[] mimeType = MIME_TYPE.getBytes(StandardCharsets.US_ASCII);
+            ZipEntry mimeTypeEntry = new ZipEntry("mimetype");
+            mimeTypeEntry.setMethod(ZipEntry.STORED);
+            mimeTypeEntry.setSize(mimeType.length);
+            CRC32 crc = new CRC32();
+            crc.update(mimeType);
+            mimeTypeEntry.setCrc(crc.getValue());
+            zip.putNextEntry(mimeTypeEntry);
+            zip.write(mimeType);
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("META-INF/manifest.xml"));
+            zip.write(MANIFEST.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("content.xml"));
+            zip.write(content(sheetName, header, rows).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+
+    private static String content(String sheetName, List<String> header, List<Object[]> rows) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+            .append("<office:document-content")
+            .append(" xmlns:office=\"urn:oasis:names:tc:opendocument:xmlns:office:1.0\"")
+            .append(" xmlns:table=\"urn:oasis:names:tc:opendocument:xmlns:table:1.0\"")
+            .append(" xmlns:text=\"urn:oasis:names:tc:opendocument:xmlns:text:1.0\"")
+            .append(" office:version=\"1.2\">\n")
+            .append("<office:body><office:spreadsheet>\n")
+            .append("<table:table table:name=\"").append(escape(sheetName)).append("\">\n");
+        xml.append("<table:table-row>");
+        for (String name : header) {
+            appendCell(xml, name);
+        }
+        xml.append("</table:table-row>\n");
+        for (Object[] row : rows) {
+            xml.append("<table:table-row>");
+            for (Object value : row) {
+                appendCell(xml, value);
+            }
+            xml.append("</table:table-row>\n");
+        }
+        return xml.append("</table:table>\n</office:spreadsheet></office:body>\n</office:document-content>\n").toString();
+    }
+
+    private static void appendCell(StringBuilder xml, Object value) {
+        if (value == null) {
+            xml.append("<table:table-cell/>");
+            return;
+        }
+        String text = escape(String.valueOf(value));
+        if (value instanceof Number) {
+            xml.append("<table:table-cell office:value-type=\"float\" office:value=\"").append(text).append("\">");
+        } else {
+            xml.append("<table:table-cell office:value-type=\"string\">");
+        }
+        xml.append("<text:p>").append(text).append("</text:p></table:table-cell>");
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
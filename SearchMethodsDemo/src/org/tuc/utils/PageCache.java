@@ -0,0 +1,67 @@
+package org.tuc.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Drops files from the page cache of the operating system, so the next search reads them from the
+ * disk. A file is first written to the disk, because the kernel keeps the dirty pages, and then
+ * the kernel is told with {@code posix_fadvise(POSIX_FADV_DONTNEED)} that its pages are not
+ * needed. Java 17 cannot call {@code posix_fadvise} itself, so it runs GNU dd with
+ * {@code iflag=nocache count=0}, which makes that call for the whole file. Without GNU dd, e.g.
+ * on Windows or macOS, the files stay cached and {@link #evict(String...)} returns false.
+ */
+public class PageCache {
+
+    private static boolean warned;
+
+    private PageCache() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Writes the files to the disk and drops their pages from the page cache.
+     *
+     * @param fileNames The files to drop.
+     * @return True if the kernel was asked to drop every file, false if a file may still be cached.
+     * @throws IOException If a file cannot be written to the disk.
+     */
+    public static boolean evict(String... fileNames) throws IOException {
+        boolean evicted = true;
+        for (String fileName : fileNames) {
+            try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            evicted &= dropCache(fileName);
+        }
+        if (!evicted && !warned) {
+            warned = true;
+            System.err.println("The page cache could not be dropped (GNU dd is needed), the cold runs may read cached pages");
+        }
+        return evicted;
+    }
+
+    private static boolean dropCache(String fileName) throws IOException {
+        Process dd;
+        try {
+            dd = new ProcessBuilder("dd", "if=" + fileName, "iflag=nocache", "count=0")
+                    .redirectErrorStream(true)
+                    .start();
+        } catch (IOException e) {
+            // There is no dd on this system
+            return false;
+        }
+        try (InputStream output = dd.getInputStream()) {
+            output.readAllBytes();
+        }
+        try {
+            return dd.waitFor() == 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.tuc.utils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The header of the paged files. The first page of every data and key file is a header
+ * that keeps the page size of the dataset, so the readers do not depend on a constant.
+ * The pages of the data are numbered from 0 after the header, so page n starts at
+ * byte (n + 1) * pageSize.
+ *
+ * <p>The header starts with a magic number and the page size. The rest of the header page
+ * is free for the file that owns it, from {@link #HEADER_BYTES} on.
+ */
+public class PageFile {
+
+    /**
+     * The first int of every paged file ("TUCP" in ASCII).
+     */
+    public static final int MAGIC = 0x54554350;
+
+    /**
+     * The bytes of the header page that the magic number and the page size use.
+     */
+    public static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    // The page size of every open file or channel, read once from its header
+    private static final Map<Object, Integer> pageSizes = new WeakHashMap<>();
+
+    //This class should not be instantiated
+    private PageFile() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Writes the header page at the start of the file.
+     *
+     * @param file     the file to write
+     * @param pageSize the page size of the file
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    public static void writeHeader(RandomAccessFile file, int pageSize) throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(pageSize);
+        bb.putInt(MAGIC);
+        bb.putInt(pageSize);
+        file.seek(0);
+        file.write(bb.array());
+        synchronized (pageSizes) {
+            pageSizes.put(file, pageSize);
+        }
+    }
+
+    /**
+     * Returns the page size of the file. The header is read the first time and then kept.
+     *
+     * @param file the file
+     * @return the page size stored in the header of the file
+     * @throws IOException if the file has no valid header or an I/O error occurs
+     */
+    public static int pageSize(RandomAccessFile file) throws IOException {
+        synchronized (pageSizes) {
+            Integer pageSize = pageSizes.get(file);
+            if (pageSize == null) {
+                file.seek(0);
+                if (file.readInt() != MAGIC) {
+                    throw new IOException("The file has no page header");
+                }
+                pageSize = file.readInt();
+                pageSizes.put(file, pageSize);
+            }
+            return pageSize;
+        }
+    }
+
+    /**
+     * Returns the page size of the file behind the channel. The header is read with a positional
+     * read, so the position of the channel does not change and many threads can share it.
+     *
+     * @param channel the channel of the file
+     * @return the page size stored in the header of the file
+     * @throws IOException if the file has no valid header or an I/O error occurs
+     */
+    public static int pageSize(FileChannel channel) throws IOException {
+        synchronized (pageSizes) {
+            Integer pageSize = pageSizes.get(channel);
+            if (pageSize == null) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                if (channel.read(header, 0) < HEADER_BYTES) {
+                    throw new IOException("The file has no page header");
+                }
+                pageSize = pageSize(header);
+                pageSizes.put(channel, pageSize);
+            }
+            return pageSize;
+        }
+    }
+
+    /**
+     * Returns the page size from the header of a file that is already in memory, like a mapped file.
+     *
+     * @param file the bytes of the file, starting with the header
+     * @return the page size stored in the header
+     * @throws IllegalArgumentException if the bytes do not start with a page header
+     */
+    public static int pageSize(ByteBuffer file) {
+        if (file.limit() < HEADER_BYTES || file.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("The file has no page header");
+        }
+        return file.getInt(Integer.BYTES);
+    }
+
+    /**
+     * @param file   the file
+     * @param pageNo the number of the page, 0 is the first page after the header
+     * @return the position of the page in the file
+     * @throws IOException if the file has no valid header or an I/O error occurs
+     */
+    public static long offsetOf(RandomAccessFile file, int pageNo) throws IOException {
+        return (long) (pageNo + 1) * pageSize(file);
+    }
+
+    /**
+     * @param channel the channel of the file
+     * @param pageNo  the number of the page, 0 is the first page after the header
+     * @return the position of the page in the file
+     * @throws IOException if the file has no valid header or an I/O error occurs
+     */
+    public static long offsetOf(FileChannel channel, int pageNo) throws IOException {
+        return (long) (pageNo + 1) * pageSize(channel);
+    }
+
+    /**
+     * @param file the file
+     * @return the number of pages after the header
+     * @throws IOException if the file has no valid header or an I/O error occurs
+     */
+    public static int pageCount(RandomAccessFile file) throws IOException {
+        int pageSize = pageSize(file);
+        return (int) Math.max(0, (file.length() + pageSize - 1) / pageSize - 1);
+    }
+
+    /**
+     * @param channel the channel of the file
+     * @return the number of pages after the header
+     * @throws IOException if the file has no valid header or an I/O error occurs
+     */
+    public static int pageCount(FileChannel channel) throws IOException {
+        int pageSize = pageSize(channel);
+        return (int) Math.max(0, (channel.size() + pageSize - 1) / pageSize - 1);
+    }
+
+    /**
+     * Returns a buffer for one page: the given one if it has the right size or a new one.
+     *
+     * @param buffer   the current buffer
+     * @param pageSize the page size of the file that will be read
+     * @return a buffer of exactly pageSize bytes
+     */
+    public static byte[] fit(byte[] buffer, int pageSize) {
+        return buffer.length == pageSize ? buffer : new byte[pageSize];
+    }
+}
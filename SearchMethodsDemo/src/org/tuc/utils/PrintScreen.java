@@ -4,10 +4,20 @@ import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.bufferPool.BufferPool;
+import org.tuc.metrics.HistogramSnapshot;
+import org.tuc.randomSearch.RandomSearch;
+import org.tuc.sortedFileIndexSearch.FenceKeyDirectory;
+import org.tuc.searchtest.DataSetResult;
+import org.tuc.searchtest.SearchResult;
 import org.tuc.searchtest.SearchTests;
+import org.tuc.searchtest.TestFenceKeySearch;
+import org.tuc.searchtest.TestHashFileIndexSearch;
 import org.tuc.searchtest.TestRandomSearch;
 import org.tuc.searchtest.TestSortedFileIndexSearch;
 import org.tuc.searchtest.TestUnsortedFileIndexSearch;
+import org.tuc.searchtest.TestZoneMapRandomSearch;
 
 /**
  * The PrintScreen class provides methods for displaying and storing test-related information.
@@ -28,25 +38,39 @@ public class PrintScreen {
     /**
      * Displays formatted test-related information on the console.
      *
+     * @param results        The results of all the methods on the data set.
      * @param random         The TestRandomSearch instance containing test data.
+     * @param zoneMap        The TestZoneMapRandomSearch instance containing test data.
      * @param unsorted       The TestUnsortedFileIndexSearch instance containing test data.
      * @param sorted         The TestSortedFileIndexSearch instance containing test data.
-     * @param numberOfRecords The number of records for the test.
-     * @param stringLength   The length of strings for the test.
+     * @param fence          The TestFenceKeySearch instance containing test data.
+     * @param hash           The TestHashFileIndexSearch instance containing test data.
      */
-    public static void print(TestRandomSearch random, TestUnsortedFileIndexSearch unsorted, TestSortedFileIndexSearch sorted, int numberOfRecords, int stringLength) {
+    public static void print(DataSetResult results, TestRandomSearch random, TestZoneMapRandomSearch zoneMap, TestUnsortedFileIndexSearch unsorted, TestSortedFileIndexSearch sorted, TestFenceKeySearch fence, TestHashFileIndexSearch hash) {
         // Create and format information
-        String accessInfo = formatAccessInfo(numberOfRecords, stringLength);
-        String timeInfo = formatTimeInfo(random, unsorted, sorted);
+        String accessInfo = formatAccessInfo(results, hash);
+        String timeInfo = formatTimeInfo(results);
+        String latencyInfo = formatLatencyInfo(results);
         String newLines = "\n\n";
 
         // Display the information
         display(STAR_SEPARATOR);
         display("The following data is the number of access on the disk per KEYS_FOR_TEST");
         display(accessInfo);
+        if (sorted.getBufferPool() != null) {
+            display(formatBufferPoolInfo(random, unsorted, sorted));
+        }
+        if (sorted.getBloomFilter() != null) {
+            display(formatBloomFilterInfo(random, unsorted, sorted));
+        }
+        display(formatZoneMapInfo(results, zoneMap));
+        display(formatFenceInfo(sorted, fence));
         display(SEPARATOR);
-        display("The following data is the time taken by each method");
+        display(formatRunInfo(results));
         display(timeInfo);
+        display(SEPARATOR);
+        display("The following data is the latency of a lookup of each method in nanoseconds");
+        display(latencyInfo);
         display(STAR_SEPARATOR);
         display(newLines);
     }
@@ -54,20 +78,33 @@ public class PrintScreen {
     /**
      * Stores formatted test-related information for later retrieval.
      *
+     * @param results        The results of all the methods on the data set.
      * @param random         The TestRandomSearch instance containing test data.
+     * @param zoneMap        The TestZoneMapRandomSearch instance containing test data.
      * @param unsorted       The TestUnsortedFileIndexSearch instance containing test data.
      * @param sorted         The TestSortedFileIndexSearch instance containing test data.
-     * @param numberOfRecords The number of records for the test.
-     * @param stringLength   The length of strings for the test.
+     * @param fence          The TestFenceKeySearch instance containing test data.
+     * @param hash           The TestHashFileIndexSearch instance containing test data.
      */
-    public static void storeData(TestRandomSearch random, TestUnsortedFileIndexSearch unsorted, TestSortedFileIndexSearch sorted, int numberOfRecords, int stringLength) {
+    public static void storeData(DataSetResult results, TestRandomSearch random, TestZoneMapRandomSearch zoneMap, TestUnsortedFileIndexSearch unsorted, TestSortedFileIndexSearch sorted, TestFenceKeySearch fence, TestHashFileIndexSearch hash) {
         // Create and format information
-        String accessInfo = formatAccessInfo(numberOfRecords, stringLength);
-        String timeInfo = formatTimeInfo(random, unsorted, sorted);
+        String accessInfo = formatAccessInfo(results, hash);
+        String timeInfo = formatTimeInfo(results);
+        String latencyInfo = formatLatencyInfo(results);
 
         // Store the information
         storedInformation.add(accessInfo);
+        if (sorted.getBufferPool() != null) {
+            storedInformation.add(formatBufferPoolInfo(random, unsorted, sorted));
+        }
+        if (sorted.getBloomFilter() != null) {
+            storedInformation.add(formatBloomFilterInfo(random, unsorted, sorted));
+        }
+        storedInformation.add(formatZoneMapInfo(results, zoneMap));
+        storedInformation.add(formatFenceInfo(sorted, fence));
+        storedInformation.add(formatRunInfo(results));
         storedInformation.add(timeInfo);
+        storedInformation.add(latencyInfo);
     }
 
     /**
@@ -79,24 +116,153 @@ public class PrintScreen {
         return storedInformation;
     }
 
-    private static String formatAccessInfo(int numberOfRecords, int stringLength) {
-        return String.format("For N: %d and stringLength: %d | Counter Index for Method A: %s | Counter Index for Method B: %s | Counter Index for Method C: %s",
-            numberOfRecords,
-            stringLength,
-            df.format(((float) (MultiCounter.getCount(1))) / SearchTests.KEYS_FOR_TEST),
-            df.format(((float) (MultiCounter.getCount(2))) / SearchTests.KEYS_FOR_TEST),
-            df.format(((float) (MultiCounter.getCount(3))) / SearchTests.KEYS_FOR_TEST)
+    /**
+     * Returns the name of a method as the tables show it.
+     *
+     * @param method The name of the method in the metrics, e.g. methodC.fenceKeys.
+     * @return The name to display, e.g. Method C (fence keys).
+     */
+    public static String label(String method) {
+        switch (method) {
+            case "methodA":
+                return "Method A";
+            case "methodA.mapped":
+                return "Method A (mapped)";
+            case "methodA.zoneMap":
+                return "Method A (zone maps)";
+            case "methodA.batched":
+                return "Method A (batched)";
+            case "methodB":
+                return "Method B";
+            case "methodC":
+                return "Method C";
+            case "methodC.interpolation":
+                return "Method C (interpolation)";
+            case "methodC.hybrid":
+                return "Method C (hybrid)";
+            case "methodC.fenceKeys":
+                return "Method C (fence keys)";
+            case "methodD":
+                return "Method D";
+            default:
+                return method;
+        }
+    }
+
+    private static String formatAccessInfo(DataSetResult results, TestHashFileIndexSearch hash) {
+        StringBuilder info = new StringBuilder(String.format("For N: %d, stringLength: %d and pageSize: %d",
+            results.getNumberOfRecords(),
+            results.getStringLength(),
+            results.getPageSize()));
+        for (SearchResult result : results.getResults()) {
+            info.append(" | Counter Index for ").append(label(result.getMethod()));
+            if (result == hash.getResult()) {
+                info.append(String.format(" (%d buckets, %d overflow pages)", hash.getHashIndex().getBuckets(), hash.getHashIndex().getOverflowPages()));
+            }
+            info.append(": ").append(df.format(result.getPageReadsPerLookup()));
+        }
+        return info.toString();
+    }
+
+    private static String formatRunInfo(DataSetResult results) {
+        return String.format("The following data is the time taken by each method, the mean of %d measured iterations with a %s page cache (+/- standard deviation between the iterations)",
+            results.getResults().get(0).getIterations(),
+            results.isColdCache() ? "cold" : "warm");
+    }
+
+    private static String formatZoneMapInfo(DataSetResult results, TestZoneMapRandomSearch zoneMap) {
+        // The counter adds up all the measured iterations, like the result
+        SearchResult result = results.getResult(zoneMap.getResult().getMethod());
+        return String.format("Zone map of method A: %d bytes for %d pages | Data pages skipped per search: %s | Data pages read per search: %s",
+            zoneMap.getZoneMap().getMemoryBytes(),
+            zoneMap.getZoneMap().getPages(),
+            df.format(((float) RandomSearch.ZONE_MAP_PAGES_SKIPPED.sum()) / result.getLookups()),
+            df.format(result.getPageReadsPerLookup())
+        );
+    }
+
+    private static String formatFenceInfo(TestSortedFileIndexSearch sorted, TestFenceKeySearch fence) {
+        FenceKeyDirectory directory = fence.getDirectory();
+        return String.format("Fence key directory of method C: %d bytes for %d pages (%d bytes per million keys) | Index pages saved per search: %s",
+            directory.getMemoryBytes(),
+            directory.getPages(),
+            directory.getMemoryBytesPerMillionKeys(),
+            df.format(((float) (sorted.getResult().getPageReads() - fence.getResult().getPageReads())) / SearchTests.KEYS_FOR_TEST)
+        );
+    }
+
+    private static String formatBloomFilterInfo(TestRandomSearch random, TestUnsortedFileIndexSearch unsorted, TestSortedFileIndexSearch sorted) {
+        BloomFilter bloomFilter = sorted.getBloomFilter();
+        return String.format("Bloom filter (%d bytes, %d hash functions) | Keys rejected: %d | Page reads saved per search (measured against an unfiltered pass): Method A %s, Method B %s, Method C %s",
+            bloomFilter.getMemoryBytes(),
+            bloomFilter.getNumHashFunctions(),
+            sorted.getBloomNegatives(),
+            df.format(((float) random.getBloomSavedReads()) / SearchTests.KEYS_FOR_TEST),
+            df.format(((float) unsorted.getBloomSavedReads()) / SearchTests.KEYS_FOR_TEST),
+            df.format(((float) sorted.getBloomSavedReads()) / SearchTests.KEYS_FOR_TEST)
         );
     }
 
-    private static String formatTimeInfo(TestRandomSearch random, TestUnsortedFileIndexSearch unsorted, TestSortedFileIndexSearch sorted) {
-        return String.format("Mean time of method A: %d | Mean time of method B: %d | Mean time of method C: %d",
-            random.getFinalTimeTest() / random.getCollectSuccessResults().size(),
-            unsorted.getFinalTimeTest() / unsorted.getCollectSuccessResults().size(),
-            sorted.getFinalTimeTest() / sorted.getCollectSuccessResults().size()
+    private static String formatBufferPoolInfo(TestRandomSearch random, TestUnsortedFileIndexSearch unsorted, TestSortedFileIndexSearch sorted) {
+        BufferPool bufferPool = sorted.getBufferPool();
+        return String.format("Buffer pool (%s, %d pages) | Method A: logical page accesses %s, physical reads %s | Method B: logical page accesses %s, physical reads %s | Method C: logical page accesses %s, physical reads %s",
+            bufferPool.getPolicy().getName(),
+            bufferPool.getCapacity(),
+            df.format(((float) random.getLogicalReads()) / SearchTests.KEYS_FOR_TEST),
+            df.format(((float) random.getPhysicalReads()) / SearchTests.KEYS_FOR_TEST),
+            df.format(((float) unsorted.getLogicalReads()) / SearchTests.KEYS_FOR_TEST),
+            df.format(((float) unsorted.getPhysicalReads()) / SearchTests.KEYS_FOR_TEST),
+            df.format(((float) sorted.getLogicalReads()) / SearchTests.KEYS_FOR_TEST),
+            df.format(((float) sorted.getPhysicalReads()) / SearchTests.KEYS_FOR_TEST)
         );
     }
 
+    private static String formatTimeInfo(DataSetResult results) {
+        StringBuilder info = new StringBuilder();
+        for (SearchResult result : results.getResults()) {
+            if (info.length() > 0) {
+                info.append(" | ");
+            }
+            // Misses are timed like hits, so the mean is over all the lookups
+            info.append(String.format("Mean time of %s: %d +/- %s (%s lookups/s)",
+                label(result.getMethod()),
+                result.getMeanNanos(),
+                df.format(result.getMeanNanosStdDev()),
+                df.format(result.getThroughput())));
+        }
+        return info.toString();
+    }
+
+    private static String formatLatencyInfo(DataSetResult results) {
+        StringBuilder info = new StringBuilder();
+        for (SearchResult result : results.getResults()) {
+            if (info.length() > 0) {
+                info.append(System.lineSeparator());
+            }
+            info.append(label(result.getMethod())).append(": ");
+            if (!result.isTimedPerLookup()) {
+                info.append("not timed per lookup");
+                continue;
+            }
+            info.append("all ").append(formatPercentiles(result.getLatency()))
+                .append(" | hits (").append(result.getHits()).append(") ").append(formatPercentiles(result.getHitLatency()))
+                .append(" | misses (").append(result.getMisses()).append(") ").append(formatPercentiles(result.getMissLatency()));
+        }
+        return info.toString();
+    }
+
+    private static String formatPercentiles(HistogramSnapshot latency) {
+        if (latency.getCount() == 0) {
+            return "-";
+        }
+        return String.format("p50 %d, p90 %d, p99 %d, p999 %d, max %d",
+            latency.getValueAtPercentile(50),
+            latency.getValueAtPercentile(90),
+            latency.getValueAtPercentile(99),
+            latency.getValueAtPercentile(99.9),
+            latency.getMax());
+    }
+
     private static void display(String message) {
         System.out.println(message);
     }
@@ -6,6 +6,8 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import org.tuc.dataClass.DataPagePair;
+import org.tuc.dataClass.KeyPagePairs;
+import org.tuc.keyMatcher.KeyMatcher;
    
 /**
  * The ReadFile class contains a static method for reading data from a file and generating a list of data page pairs
@@ -19,9 +21,12 @@ public class ReadFile {
 		    throw new IllegalStateException("Utility class");
 		  }
 	
-	// The buffer size used for reading data pages
-	private static final byte[] buffer = new byte[WriteFile.DATA_PAGE_SIZE];
+	// The buffer used for reading data pages, sized by the page size of the file
+	private static byte[] buffer = new byte[WriteFile.DATA_PAGE_SIZE];
 	
+    // The bytes of data pages that readKeyPagePairs reads at once
+    private static final int READ_BLOCK_SIZE = 1024 * 1024;
+
     // The maximum number of data page pairs that can be stored in the keyPairList
     private static final int MAX_INSTANCES = 200000;
     
@@ -38,21 +43,61 @@ public class ReadFile {
      */
 	public static List<DataPagePair> readDataPairs(int stringLength , RandomAccessFile file) throws IOException {
 	    int pageCount = 0;
+	        int pageSize = PageFile.pageSize(file);
+	        buffer = PageFile.fit(buffer, pageSize);
+	        file.seek(PageFile.offsetOf(file, 0)); //skip the header page
+	        int recordSize = Integer.BYTES + stringLength;
 	        int bytesRead = file.read(buffer);
 	        while (bytesRead != -1) {
-	            ByteBuffer bb = ByteBuffer.wrap(buffer);
-	            for (int i = 0; i < bytesRead / (Integer.BYTES + stringLength); i++) {
-	                int key = bb.getInt();
-	                byte[] stringBytes = new byte[stringLength];
-	                bb.get(stringBytes);
-	                keyPairList.add(new DataPagePair(key, pageCount));
-	                //increase the pageCount according the stringLenght.
-	                if ((i+1) % (WriteFile.DATA_PAGE_SIZE / (Integer.BYTES + stringLength)) == 0) {
-	                    pageCount++;
-	                }
+	            //the page tells its layout, fixed records or slotted
+	            int records = DataPage.recordCount(buffer, bytesRead, recordSize);
+	            int keyStride = DataPage.keyStride(buffer, bytesRead, recordSize);
+	            for (int i = 0; i < records; i++) {
+	                keyPairList.add(new DataPagePair(KeyMatcher.intAt(buffer, i * keyStride), pageCount));
 	            }
+	            pageCount++;
 	            bytesRead = file.read(buffer);
 	        }
 	    return keyPairList;
 	}
+
+    /**
+     * This method is used to create the pairs key-PageIndex in two primitive arrays. The keys are
+     * taken straight from the page buffer and the strings are skipped, so no object is created per
+     * record. The padding of the last page is not a key and is left out. Every page is read in its
+     * own layout, fixed or slotted (see {@link DataPage}).
+     *
+     * @param stringLength :The lenght of the string
+     * @param file :in instance of the dataPairFile.
+     * @return : The pairs in the order of the file.
+     * @throws IOException
+     */
+	public static KeyPagePairs readKeyPagePairs(int stringLength, RandomAccessFile file) throws IOException {
+	    int pageSize = PageFile.pageSize(file);
+	    int recordSize = Integer.BYTES + stringLength;
+	    int pageCount = PageFile.pageCount(file);
+	    KeyPagePairs keyPairs = new KeyPagePairs((int) Math.min(Integer.MAX_VALUE - 8, (long) pageCount * (pageSize / recordSize)));
+	    // many pages are read at once, so a small page size does not cost a read call per page
+	    int pagesPerBlock = Math.max(1, READ_BLOCK_SIZE / pageSize);
+	    byte[] block = new byte[pagesPerBlock * pageSize];
+	    ByteBuffer blockBuffer = ByteBuffer.wrap(block);
+	    long fileLength = file.length();
+	    file.seek(PageFile.offsetOf(file, 0)); //skip the header page
+	    for (int firstPage = 0; firstPage < pageCount; firstPage += pagesPerBlock) {
+	        int bytesRead = (int) Math.min(block.length, fileLength - file.getFilePointer());
+	        file.readFully(block, 0, bytesRead);
+	        for (int pageStart = 0, pageNo = firstPage; pageStart < bytesRead; pageStart += pageSize, pageNo++) {
+	            int pageEnd = Math.min(bytesRead, pageStart + pageSize);
+	            int records = DataPage.recordCount(blockBuffer, pageStart, pageEnd - pageStart, recordSize);
+	            int keyStride = DataPage.keyStride(blockBuffer, pageStart, pageEnd - pageStart, recordSize);
+	            for (int i = 0; i < records; i++) {
+	                int key = KeyMatcher.intAt(block, pageStart + i * keyStride);
+	                if (key != KeyMatcher.END_CHARACTER) {
+	                    keyPairs.add(key, pageNo);
+	                }
+	            }
+	        }
+	    }
+	    return keyPairs;
+	}
 	}
\ No newline at end of file
@@ -3,25 +3,233 @@ package org.tuc.utils;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+
+import org.tuc.metrics.HistogramSnapshot;
+import org.tuc.metrics.Metrics;
+import org.tuc.metrics.MetricsSnapshot;
+import org.tuc.searchtest.DataSetResult;
+import org.tuc.searchtest.SearchResult;
 
 public class ResultWriter {
 
     private static final String FILE_PATH = "test_results.txt";
 
+    private static final String RESULTS_HEADER = String.format("%-8s %-12s %-8s %-26s %7s %7s %7s %10s %10s %12s %9s %9s %9s %9s %9s %9s %9s",
+        "N", "stringLength", "pageSize", "method", "lookups", "hits", "misses", "pageReads", "mean(ns)", "lookups/s",
+        "p50", "p90", "p99", "p999", "max", "hitP99", "missP99");
+
+    /**
+     * The columns of the result files, one row per method and data set. The times are in
+     * nanoseconds, the percentiles are of the latency of a lookup, and N, stringLength, pageSize,
+     * cache and method identify a row. The percentiles of a method that is not timed per lookup,
+     * like the batched method A, are empty (null in JSON), not 0.
+     */
+    public static final List<String> RESULT_COLUMNS = Collections.unmodifiableList(Arrays.asList(
+        "method", "N", "stringLength", "pageSize", "cache", "iterations", "lookups", "hits", "misses",
+        "pageReadsPerLookup", "meanNanos", "meanStdDevNanos", "throughput",
+        "p50", "p90", "p99", "p999", "max", "hitP50", "hitP99", "missP50", "missP99"));
+
     private ResultWriter() {
         throw new IllegalStateException("Utility class");
     }
 
-    public static void writeResultsToODS(List<String> storedInformation) {
+    /**
+     * Writes the report for people to {@value #FILE_PATH}: the stored information of every data set
+     * and then a table of the results, one line per method and data set, with the page reads per
+     * lookup, the throughput and the latency percentiles in nanoseconds. The files for programs are
+     * written by {@link #writeResults(String, List)}.
+     *
+     * @param storedInformation The lines that {@link PrintScreen} stored.
+     * @param results           The results of the data sets, in the order they ran.
+     */
+    public static void writeReport(List<String> storedInformation, List<DataSetResult> results) {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH))) {
             for (String information : storedInformation) {
                 writer.write(information);
                 writer.newLine();
             }
+            if (!results.isEmpty()) {
+                writer.newLine();
+                writer.write(RESULTS_HEADER);
+                writer.newLine();
+                for (DataSetResult dataSet : results) {
+                    for (SearchResult result : dataSet.getResults()) {
+                        writer.write(formatResult(dataSet, result));
+                        writer.newLine();
+                    }
+                }
+            }
             System.out.println("Results written to " + FILE_PATH);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    private static String formatResult(DataSetResult dataSet, SearchResult result) {
+        HistogramSnapshot latency = result.getLatency();
+        return String.format(Locale.ROOT, "%-8d %-12d %-8d %-26s %7d %7d %7d %10.2f %10d %12.0f %9s %9s %9s %9s %9s %9s %9s",
+            dataSet.getNumberOfRecords(),
+            dataSet.getStringLength(),
+            dataSet.getPageSize(),
+            PrintScreen.label(result.getMethod()),
+            result.getLookups(),
+            result.getHits(),
+            result.getMisses(),
+            result.getPageReadsPerLookup(),
+            result.getMeanNanos(),
+            result.getThroughput(),
+            orDash(percentile(result, latency, 50)),
+            orDash(percentile(result, latency, 90)),
+            orDash(percentile(result, latency, 99)),
+            orDash(percentile(result, latency, 99.9)),
+            orDash(percentile(result, latency, 100)),
+            orDash(percentile(result, result.getHitLatency(), 99)),
+            orDash(percentile(result, result.getMissLatency(), 99)));
+    }
+
+    /**
+     * @return The percentile of the latency, or null if the method is not timed per lookup.
+     */
+    private static Long percentile(SearchResult result, HistogramSnapshot latency, double percentile) {
+        if (!result.isTimedPerLookup()) {
+            return null;
+        }
+        return percentile == 100 ? latency.getMax() : latency.getValueAtPercentile(percentile);
+    }
+
+    private static Object orDash(Long value) {
+        return value == null ? "-" : value;
+    }
+
+    /**
+     * Writes the results with the columns of {@link #RESULT_COLUMNS}, one row per method and data
+     * set, in the format of the extension of the file: a CSV file with a header (.csv), one JSON
+     * object per line (.json) or an OpenDocument spreadsheet (.ods).
+     *
+     * @param fileName The file to write, replaced if it exists.
+     * @param results  The results of the data sets, in the order they ran.
+     * @throws IOException If the file cannot be written.
+     * @throws IllegalArgumentException If the extension is none of the three.
+     */
+    public static void writeResults(String fileName, List<DataSetResult> results) throws IOException {
+        List<Object[]> rows = new ArrayList<>();
+        for (DataSetResult dataSet : results) {
+            for (SearchResult result : dataSet.getResults()) {
+                rows.add(toRow(dataSet, result));
+            }
+        }
+        Path file = Paths.get(fileName);
+        String lowerCaseName = fileName.toLowerCase(Locale.ROOT);
+        if (lowerCaseName.endsWith(".csv")) {
+            StringBuilder csv = new StringBuilder(String.join(",", RESULT_COLUMNS)).append(System.lineSeparator());
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    csv.append(i == 0 ? "" : ",");
+                    if (row[i] != null) {
+                        csv.append(row[i] instanceof String ? csvField((String) row[i]) : formatNumber(row[i]));
+                    }
+                }
+                csv.append(System.lineSeparator());
+            }
+            Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+        } else if (lowerCaseName.endsWith(".json")) {
+            StringBuilder json = new StringBuilder();
+            for (Object[] row : rows) {
+                json.append('{');
+                for (int i = 0; i < row.length; i++) {
+                    json.append(i == 0 ? "" : ",").append(quote(RESULT_COLUMNS.get(i))).append(':')
+                        .append(row[i] == null ? "null" : row[i] instanceof String ? quote((String) row[i]) : formatNumber(row[i]));
+                }
+                json.append('}').append(System.lineSeparator());
+            }
+            Files.write(file, json.toString().getBytes(StandardCharsets.UTF_8));
+        } else if (lowerCaseName.endsWith(".ods")) {
+            OdsWriter.write(file, "Results", RESULT_COLUMNS, rows);
+        } else {
+            throw new IllegalArgumentException("The results file must end with .csv, .json or .ods: " + fileName);
+        }
+        System.out.println("Results written to " + fileName);
+    }
+
+    private static Object[] toRow(DataSetResult dataSet, SearchResult result) {
+        HistogramSnapshot latency = result.getLatency();
+        return new Object[] {
+            result.getMethod(),
+            dataSet.getNumberOfRecords(),
+            dataSet.getStringLength(),
+            dataSet.getPageSize(),
+            dataSet.isColdCache() ? "cold" : "warm",
+            result.getIterations(),
+            result.getLookups(),
+            result.getHits(),
+            result.getMisses(),
+            round(result.getPageReadsPerLookup()),
+            result.getMeanNanos(),
+            round(result.getMeanNanosStdDev()),
+            round(result.getThroughput()),
+            percentile(result, latency, 50),
+            percentile(result, latency, 90),
+            percentile(result, latency, 99),
+            percentile(result, latency, 99.9),
+            percentile(result, latency, 100),
+            percentile(result, result.getHitLatency(), 50),
+            percentile(result, result.getHitLatency(), 99),
+            percentile(result, result.getMissLatency(), 50),
+            percentile(result, result.getMissLatency(), 99)
+        };
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static String formatNumber(Object number) {
+        // Without the exponent that Double.toString uses for large values
+        return number instanceof Double ? String.format(Locale.ROOT, "%.2f", (Double) number) : number.toString();
+    }
+
+    private static String quote(String text) {
+        return '"' + text.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private static String csvField(String text) {
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Appends the current values of {@link Metrics} to a file: CSV lines when the name ends with
+     * .csv (the header first, if the file is empty), one JSON object per line otherwise.
+     *
+     * @param fileName The file to append to.
+     * @param run      The name of the run, written with every line.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void appendMetrics(String fileName, String run) throws IOException {
+        MetricsSnapshot snapshot = Metrics.snapshot();
+        Path file = Paths.get(fileName);
+        StringBuilder text = new StringBuilder();
+        if (fileName.endsWith(".csv")) {
+            if (!Files.exists(file) || Files.size(file) == 0) {
+                text.append(MetricsSnapshot.CSV_HEADER).append(System.lineSeparator());
+            }
+            text.append(snapshot.toCsv(run));
+        } else {
+            text.append(snapshot.toJson(run)).append(System.lineSeparator());
+        }
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
 }
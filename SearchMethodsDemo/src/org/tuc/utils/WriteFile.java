@@ -3,13 +3,18 @@ package org.tuc.utils;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import org.tuc.dataClass.DataPair;
+import org.tuc.bloomFilter.BloomFilter;
+import org.tuc.dataClass.DataPairGenerator;
 import org.tuc.dataClass.DataPagePair;
+import org.tuc.dataClass.KeyPagePairs;
+import org.tuc.hashFileIndexSearch.HashFileIndex;
+import org.tuc.keyMatcher.KeyMatcher;
+import org.tuc.zoneMap.ZoneMap;
 
 /**
  * A utility class for writing key-value pairs to files, as well as key-data page pairs.
@@ -30,11 +35,43 @@ public class WriteFile {
      * The name of the file where sorted data page keys are written.
      */
 	public static final String SORTED_KEYS_FILE_NAME = "SortedKeys.ser";
+
+    /**
+     * The name of the file with the meta page and the primary buckets of the hash index.
+     */
+    public static final String HASH_KEYS_FILE_NAME = "HashKeys.ser";
+
+    /**
+     * The name of the file with the overflow pages of the hash index.
+     */
+    public static final String HASH_OVERFLOW_FILE_NAME = "HashOverflow.ser";
+
+    /**
+     * The name of the sidecar file with the Bloom filter of the keys of the data pair file.
+     */
+    public static final String BLOOM_FILTER_FILE_NAME = "DataPair.bloom";
+
+    /**
+     * The name of the sidecar file with the zone map (minimum and maximum key of every page) of the data pair file.
+     */
+    public static final String ZONE_MAP_FILE_NAME = "DataPair.zone";
+
+    // The bytes of data pages that the streaming writer collects before one write
+    private static final int WRITE_BLOCK_SIZE = 1024 * 1024;
+
+    // The buckets of the hash index before it grows
+    private static final int HASH_INITIAL_BUCKETS = 4;
 	
 	 /**
-     * The default size of a data page.
+     * The default size of a data page. The page size of a dataset is kept in the header of its files, see {@link PageFile}.
      */
     public static final int DATA_PAGE_SIZE = 256;
+
+    /**
+     * The largest page size of a dataset, one block of the streaming writer. A larger page would be
+     * written and read as a block of its own, and a dataset of the tests would have a handful of pages.
+     */
+    public static final int MAX_DATA_PAGE_SIZE = WRITE_BLOCK_SIZE;
  
     //This class should not be instantiated
     private WriteFile() {
@@ -42,54 +79,128 @@ public class WriteFile {
     }
     
     /**
-     * Writes a list of data pairs to the data pair file.
-     * 
-     * @param dataPairs a list of data pairs to be written to the file
+     * Writes the records of the generator to the data pair file as they are produced. Every record goes
+     * straight into a reusable block of pages, which is written when it is full, so the memory used is
+     * the same for any number of records. A page holds the records that fit in less than pageSize bytes,
+     * a full page ends with zeros and the last page is filled with spaces.
+     *
+     * @param generator the records to write
+     * @param pageSize the size of a data page
+     * @return the number of data pages written
      * @throws IOException if an I/O error occurs while writing to the file
      */
-    public static void writeDataPairs(List<DataPair> dataPair2) throws IOException {
+    public static long writeDataPairs(DataPairGenerator generator, int pageSize) throws IOException {
+        int recordSize = Integer.BYTES + generator.getStringLength();
+        int recordsPerPage = (pageSize - 1) / recordSize;
+        if (recordsPerPage == 0) {
+            throw new IllegalArgumentException("A record of " + recordSize + " bytes does not fit in a page of " + pageSize + " bytes");
+        }
+        int pagesPerBlock = Math.max(1, WRITE_BLOCK_SIZE / pageSize);
+        ByteBuffer block = ByteBuffer.allocate(pagesPerBlock * pageSize);
+        byte[] bytes = block.array();
+        long pages = 0;
         try (RandomAccessFile file = new RandomAccessFile(DATA_PAIR_FILE_NAME, "rw")) {
-            List<DataPair> currentDataPage = new ArrayList<>();
-            int totalPairSize = 0;
-            for (DataPair dataPair : dataPair2) {
-                int stringSize = dataPair.getString().getBytes(StandardCharsets.US_ASCII).length;
-                int pairSize = Integer.BYTES + stringSize;
-                if ((totalPairSize + pairSize) < DATA_PAGE_SIZE) {
-                    totalPairSize += pairSize;
-                    currentDataPage.add(dataPair);
-                } else {
-                    ByteBuffer bb = ByteBuffer.allocate(DATA_PAGE_SIZE);
-                    for (DataPair dataPair1 : currentDataPage) {
-                        bb.putInt(dataPair1.getKey());
-                        bb.put(dataPair1.getString().getBytes(StandardCharsets.US_ASCII));
+            file.setLength(0);
+            PageFile.writeHeader(file, pageSize);
+            FileChannel channel = file.getChannel();
+            channel.position(PageFile.offsetOf(file, 0));
+            while (generator.hasNext()) {
+                int pageStart = block.position();
+                int offset = pageStart;
+                for (int record = 0; record < recordsPerPage && generator.hasNext(); record++) {
+                    block.putInt(offset, generator.nextKey());
+                    int length = generator.nextString(bytes, offset + Integer.BYTES);
+                    // A shorter string is padded with spaces, every record has the same size
+                    Arrays.fill(bytes, offset + Integer.BYTES + length, offset + recordSize, (byte) ' ');
+                    offset += recordSize;
+                }
+                // A full page ends with zeros, the last page with spaces
+                Arrays.fill(bytes, offset, pageStart + pageSize, generator.hasNext() ? 0 : (byte) ' ');
+                block.position(pageStart + pageSize);
+                pages++;
+                if (!block.hasRemaining() || !generator.hasNext()) {
+                    block.flip();
+                    while (block.hasRemaining()) {
+                        channel.write(block);
                     }
-                    byte[] byteArray = bb.array();
-                    bb.clear();
-                    file.write(byteArray);
-                    currentDataPage.clear();
-                    totalPairSize = pairSize;
-                    currentDataPage.add(dataPair);
+                    block.clear();
                 }
             }
-            if (!currentDataPage.isEmpty()) {
-                ByteBuffer bb = ByteBuffer.allocate(DATA_PAGE_SIZE);
-                for (DataPair lastPairs : currentDataPage) {
-                    bb.putInt(lastPairs.getKey());
-                    bb.put(lastPairs.getString().getBytes(StandardCharsets.US_ASCII));
-                }
-                byte[] byteArray = bb.array();
-                //Fill the empty space to reach the fixed size of the dataPage.We do that so even the
-                //last page is exactly 256 bytes.
-                int remainingSpace = DATA_PAGE_SIZE - bb.position();
-                if (remainingSpace > 0) {
-                	byte[] emptySpace = new byte[remainingSpace];
-                	Arrays.fill(emptySpace, (byte) ' ');
-                	bb.put(emptySpace);
+        }
+        return pages;
+    }
 
+    /**
+     * Writes the records of the generator to the data pair file in slotted pages (see {@link DataPage}),
+     * as they are produced. A page takes records while their keys, strings and slots fit, so it is
+     * filled up to the last byte that a record can use, and a string is stored with its own length.
+     *
+     * @param generator the records to write
+     * @param pageSize the size of a data page, at most {@value DataPage#MAX_SLOTTED_PAGE_SIZE}
+     * @return the number of data pages written
+     * @throws IOException if an I/O error occurs while writing to the file
+     */
+    public static long writeSlottedDataPairs(DataPairGenerator generator, int pageSize) throws IOException {
+        int maxStringLength = generator.getStringLength();
+        if (pageSize > DataPage.MAX_SLOTTED_PAGE_SIZE) {
+            throw new IllegalArgumentException("A slotted page has at most " + DataPage.MAX_SLOTTED_PAGE_SIZE + " bytes: " + pageSize);
+        }
+        if (DataPage.slottedBytes(1, maxStringLength) > pageSize) {
+            throw new IllegalArgumentException("A record of " + (Integer.BYTES + maxStringLength)
+                    + " bytes does not fit in a slotted page of " + pageSize + " bytes");
+        }
+        int[] keys = new int[pageSize / DataPage.SLOT_BYTES];
+        int[] stringEnds = new int[keys.length];
+        // room for the strings of a full page and for the string that does not fit in it any more
+        byte[] strings = new byte[pageSize + maxStringLength];
+        int pagesPerBlock = Math.max(1, WRITE_BLOCK_SIZE / pageSize);
+        ByteBuffer block = ByteBuffer.allocate(pagesPerBlock * pageSize);
+        long pages = 0;
+        try (RandomAccessFile file = new RandomAccessFile(DATA_PAIR_FILE_NAME, "rw")) {
+            file.setLength(0);
+            PageFile.writeHeader(file, pageSize);
+            FileChannel channel = file.getChannel();
+            channel.position(PageFile.offsetOf(file, 0));
+            int records = 0;
+            int stringBytes = 0;
+            while (generator.hasNext()) {
+                int key = generator.nextKey();
+                // The string goes after the ones of the page, and moves to a new page if it does not fit
+                int length = generator.nextString(strings, stringBytes);
+                if (DataPage.slottedBytes(records + 1, stringBytes + length) > pageSize) {
+                    DataPage.writeSlotted(block, block.position(), pageSize, keys, strings, stringEnds, records);
+                    block.position(block.position() + pageSize);
+                    pages++;
+                    if (!block.hasRemaining()) {
+                        writeBlock(channel, block);
+                    }
+                    System.arraycopy(strings, stringBytes, strings, 0, length);
+                    records = 0;
+                    stringBytes = 0;
                 }
-                file.write(byteArray);
+                keys[records] = key;
+                stringBytes += length;
+                stringEnds[records++] = stringBytes;
             }
+            if (records > 0) {
+                DataPage.writeSlotted(block, block.position(), pageSize, keys, strings, stringEnds, records);
+                block.position(block.position() + pageSize);
+                pages++;
+            }
+            writeBlock(channel, block);
+        }
+        return pages;
+    }
+
+    /**
+     * Writes the pages of the block to the channel and empties the block.
+     */
+    private static void writeBlock(FileChannel channel, ByteBuffer block) throws IOException {
+        block.flip();
+        while (block.hasRemaining()) {
+            channel.write(block);
         }
+        block.clear();
     }
 
     /**
@@ -100,20 +211,38 @@ public class WriteFile {
      * @throws IOException
      */
     public static void writeKeys(List<DataPagePair> keyPairList, boolean sorted) throws IOException {
+        writeKeys(keyPairList, sorted, DATA_PAGE_SIZE);
+    }
+
+    /**
+     * This method writes in the file the pairs key-DataPage, in pages of the given size after the header page.
+     * 
+     * @param keyPairList : A list with the pairs key-DataPage to write in the file.
+     * @param sorted : A flag indicating whether to write the pairs in sorted order.
+     * @param pageSize : The size of an index page.
+     * @throws IOException
+     */
+    public static void writeKeys(List<DataPagePair> keyPairList, boolean sorted, int pageSize) throws IOException {
         String fileName = sorted ? SORTED_KEYS_FILE_NAME : UNSORTED_KEYS_FILE_NAME;
         if (sorted) {
             Collections.sort(keyPairList);
         }
         try (RandomAccessFile file = new RandomAccessFile(fileName, "rw")) {
+            PageFile.writeHeader(file, pageSize);
             List<DataPagePair> copyList = new ArrayList<>();
             int totalPairSize = 0; 
             for(DataPagePair copyList2 : keyPairList) {
+            	//The padding of the last data page is not a key. With large pages it can fill
+            	//an index page of its own, which the searches would take for a page of keys.
+            	if(copyList2.getKey() == KeyMatcher.END_CHARACTER) {
+            		continue;
+            	}
             	int pairSize = Integer.BYTES*2;
-            	if(totalPairSize + pairSize < DATA_PAGE_SIZE) {
+            	if(totalPairSize + pairSize < pageSize) {
             		totalPairSize += pairSize;
             		copyList.add(copyList2);
             	}else {
-                    ByteBuffer bb = ByteBuffer.allocate(DATA_PAGE_SIZE);
+                    ByteBuffer bb = ByteBuffer.allocate(pageSize);
                     for(DataPagePair helpList : copyList) {
                     	bb.putInt(helpList.getKey());
                         bb.putInt(helpList.getDataPage());
@@ -128,15 +257,15 @@ public class WriteFile {
             	
             }
             if(!copyList.isEmpty()) {
-                    ByteBuffer bb = ByteBuffer.allocate(DATA_PAGE_SIZE);
+                    ByteBuffer bb = ByteBuffer.allocate(pageSize);
                     for(DataPagePair lastPairs : copyList ) {
                     	bb.putInt(lastPairs.getKey());
                         bb.putInt(lastPairs.getDataPage());
                     }
                     byte[] byteArray = bb.array();
                     //Fill the empty space to reach the fixed size of the dataPage.We do that so even the
-                    //last page is exactly 256 bytes.
-                    int remainingSpace = DATA_PAGE_SIZE - bb.position();
+                    //last page is exactly pageSize bytes.
+                    int remainingSpace = pageSize - bb.position();
                     if (remainingSpace > 0) {
                     	byte[] emptySpace = new byte[remainingSpace];
                     	Arrays.fill(emptySpace, (byte) ' ');
@@ -147,4 +276,130 @@ public class WriteFile {
             		}
             	}
         }
+
+    /**
+     * This method writes in the file the pairs key-DataPage of the arrays, in pages of the given size after
+     * the header page. The sorted file is written by {@link ExternalSort}: the pairs are packed in longs and
+     * sorted with a primitive sort, and only the pairs that do not fit in its memory budget go through runs
+     * on the disk.
+     *
+     * @param keyPairs : The pairs key-DataPage to write in the file.
+     * @param sorted : A flag indicating whether to write the pairs in sorted order.
+     * @param pageSize : The size of an index page.
+     * @throws IOException
+     */
+    public static void writeKeys(KeyPagePairs keyPairs, boolean sorted, int pageSize) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(sorted ? SORTED_KEYS_FILE_NAME : UNSORTED_KEYS_FILE_NAME, "rw")) {
+            if (sorted) {
+                ExternalSort.sort(ExternalSort.pairSource(keyPairs), file, pageSize, ExternalSort.DEFAULT_MEMORY_BUDGET);
+                return;
+            }
+            file.setLength(0);
+            PageFile.writeHeader(file, pageSize);
+            KeyPageWriter writer = new KeyPageWriter(file, pageSize);
+            for (int i = 0; i < keyPairs.size(); i++) {
+                writer.add(keyPairs.getKey(i), keyPairs.getDataPage(i));
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * This method writes the sorted keys file straight from the data pair file with an external merge sort,
+     * so the pairs are never all in memory, see {@link ExternalSort}.
+     *
+     * @param dataPairFile : The data pair file whose keys are sorted.
+     * @param stringLength : The length of the string of a record.
+     * @param pageSize : The size of an index page.
+     * @param memoryBudget : The bytes that the sort may use.
+     * @throws IOException
+     */
+    public static void writeSortedKeys(RandomAccessFile dataPairFile, int stringLength, int pageSize, long memoryBudget) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(SORTED_KEYS_FILE_NAME, "rw")) {
+            ExternalSort.sort(ExternalSort.dataPairSource(dataPairFile, stringLength), file, pageSize, memoryBudget);
+        }
+    }
+
+    /**
+     * This method writes the unsorted keys file straight from the data pair file, page by page, so the
+     * pairs are never all in memory. The pairs are in the order of the data pair file.
+     *
+     * @param dataPairFile : The data pair file whose keys are written.
+     * @param stringLength : The length of the string of a record.
+     * @param pageSize : The size of an index page.
+     * @throws IOException
+     */
+    public static void writeUnsortedKeys(RandomAccessFile dataPairFile, int stringLength, int pageSize) throws IOException {
+        ExternalSort.PairSource source = ExternalSort.dataPairSource(dataPairFile, stringLength);
+        try (RandomAccessFile file = new RandomAccessFile(UNSORTED_KEYS_FILE_NAME, "rw")) {
+            file.setLength(0);
+            PageFile.writeHeader(file, pageSize);
+            KeyPageWriter writer = new KeyPageWriter(file, pageSize);
+            while (source.hasNext()) {
+                long pair = source.next();
+                writer.add(ExternalSort.keyOf(pair), ExternalSort.dataPageOf(pair));
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * This method writes the pairs key-DataPage of the data pair file in the hash index files, reading
+     * the data pair file page by page. The pairs are inserted one by one, so the index grows with linear
+     * hashing from a few buckets, like it would when new records are added.
+     *
+     * @param dataPairFile : The data pair file whose keys are written.
+     * @param stringLength : The length of the string of a record.
+     * @param pageSize : The size of a bucket page.
+     * @throws IOException
+     */
+    public static void writeHashKeys(RandomAccessFile dataPairFile, int stringLength, int pageSize) throws IOException {
+        ExternalSort.PairSource source = ExternalSort.dataPairSource(dataPairFile, stringLength);
+        try (RandomAccessFile primaryFile = new RandomAccessFile(HASH_KEYS_FILE_NAME, "rw");
+             RandomAccessFile overflowFile = new RandomAccessFile(HASH_OVERFLOW_FILE_NAME, "rw");
+             // closed first, so the state of the index is written once before the files close
+             HashFileIndex index = HashFileIndex.create(primaryFile, overflowFile, HASH_INITIAL_BUCKETS, pageSize)) {
+            while (source.hasNext()) {
+                long pair = source.next();
+                index.insert(ExternalSort.keyOf(pair), ExternalSort.dataPageOf(pair));
+            }
+        }
+    }
+
+    /**
+     * This method writes the Bloom filter of the keys of the data pair file in its sidecar file, reading
+     * the data pair file page by page. The filter is sized before the keys are read, from their number.
+     *
+     * @param dataPairFile : The data pair file whose keys are added.
+     * @param stringLength : The length of the string of a record.
+     * @param expectedKeys : The number of records of the data pair file.
+     * @param falsePositiveRate : The false positive rate of the filter.
+     * @throws IOException
+     */
+    public static void writeBloomFilter(RandomAccessFile dataPairFile, int stringLength, int expectedKeys, double falsePositiveRate)
+            throws IOException {
+        BloomFilter bloomFilter = BloomFilter.create(expectedKeys, falsePositiveRate);
+        ExternalSort.PairSource source = ExternalSort.dataPairSource(dataPairFile, stringLength);
+        while (source.hasNext()) {
+            bloomFilter.add(ExternalSort.keyOf(source.next()));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(BLOOM_FILTER_FILE_NAME, "rw")) {
+            bloomFilter.writeTo(file);
+        }
+    }
+
+    /**
+     * This method writes the zone map of the data pair file in its sidecar file, reading the data pair
+     * file page by page.
+     *
+     * @param dataPairFile : The data pair file whose pages are mapped.
+     * @param stringLength : The length of the string of a record.
+     * @throws IOException
+     */
+    public static void writeZoneMap(RandomAccessFile dataPairFile, int stringLength) throws IOException {
+        ZoneMap zoneMap = ZoneMap.build(ExternalSort.dataPairSource(dataPairFile, stringLength), PageFile.pageCount(dataPairFile));
+        try (RandomAccessFile file = new RandomAccessFile(ZONE_MAP_FILE_NAME, "rw")) {
+            zoneMap.writeTo(file);
+        }
     }
+}
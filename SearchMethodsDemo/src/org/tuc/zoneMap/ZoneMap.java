@@ -0,0 +1,117 @@
+package org.tuc.zoneMap;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.tuc.keyMatcher.KeyMatcher;
+import org.tuc.utils.ExternalSort;
+
+/**
+ * The zone map of the dataPair file: the smallest and the largest key of every page.
+ * A scan skips a page when the target key is out of its range, so the more the keys of a
+ * page are clustered, the more pages are skipped.
+ *
+ * <p>The map is written in a sidecar file next to the dataPair file: the number of pages
+ * and then the minimum and the maximum key of every page.
+ */
+public final class ZoneMap {
+
+    private final int[] minKeys;
+    private final int[] maxKeys;
+
+    private ZoneMap(int[] minKeys, int[] maxKeys) {
+        this.minKeys = minKeys;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Builds the zone map from the pairs key-DataPage of the dataPair file, one pair at a time,
+     * so only the map itself is kept in memory.
+     *
+     * @param source the pairs of the dataPair file, without the padding of the last page
+     * @param pages  the number of data pages
+     * @return the zone map of the file
+     * @throws IOException if an I/O error occurs while reading the pairs
+     */
+    public static ZoneMap build(ExternalSort.PairSource source, int pages) throws IOException {
+        int[] minKeys = new int[pages];
+        int[] maxKeys = new int[pages];
+        // A page without keys gets an empty range, so it is always skipped
+        Arrays.fill(minKeys, Integer.MAX_VALUE);
+        Arrays.fill(maxKeys, Integer.MIN_VALUE);
+        while (source.hasNext()) {
+            long pair = source.next();
+            int page = ExternalSort.dataPageOf(pair);
+            int key = ExternalSort.keyOf(pair);
+            minKeys[page] = Math.min(minKeys[page], key);
+            maxKeys[page] = Math.max(maxKeys[page], key);
+        }
+        return new ZoneMap(minKeys, maxKeys);
+    }
+
+    /**
+     * Checks the range of a page.
+     *
+     * @param pageNo the page of the dataPair file
+     * @param key    the key we are looking for
+     * @return false if the page surely does not contain the key
+     */
+    public boolean mightContain(int pageNo, int key) {
+        return key >= minKeys[pageNo] && key <= maxKeys[pageNo];
+    }
+
+    /**
+     * Writes the zone map in a sidecar file.
+     *
+     * @param file the file to write, its old content is replaced
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    public void writeTo(RandomAccessFile file) throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(Integer.BYTES + minKeys.length * Integer.BYTES * 2);
+        bb.putInt(minKeys.length);
+        for (int page = 0; page < minKeys.length; page++) {
+            bb.putInt(minKeys[page]);
+            bb.putInt(maxKeys[page]);
+        }
+        file.setLength(0);
+        file.write(bb.array());
+    }
+
+    /**
+     * Reads a zone map that was written with {@link #writeTo(RandomAccessFile)}.
+     *
+     * @param file the sidecar file
+     * @return the zone map
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static ZoneMap readFrom(RandomAccessFile file) throws IOException {
+        file.seek(0);
+        int pages = file.readInt();
+        byte[] bytes = new byte[pages * Integer.BYTES * 2];
+        file.readFully(bytes);
+        ByteBuffer bb = ByteBuffer.wrap(bytes);
+        int[] minKeys = new int[pages];
+        int[] maxKeys = new int[pages];
+        for (int page = 0; page < pages; page++) {
+            minKeys[page] = bb.getInt();
+            maxKeys[page] = bb.getInt();
+        }
+        return new ZoneMap(minKeys, maxKeys);
+    }
+
+    /**
+     * @return the pages of the dataPair file in the map
+     */
+    public int getPages() {
+        return minKeys.length;
+    }
+
+    /**
+     * @return the bytes of the map in memory, 8 per page
+     */
+    public long getMemoryBytes() {
+        return (long) minKeys.length * Integer.BYTES * 2;
+    }
+}